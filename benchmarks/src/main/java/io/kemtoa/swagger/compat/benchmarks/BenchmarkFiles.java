@@ -0,0 +1,53 @@
+package io.kemtoa.swagger.compat.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import io.kemtoa.swagger.compat.SpecGenerator.SpecPair;
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.swagger.models.Swagger;
+
+/**
+ * File helpers shared by the benchmarks
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+    }
+
+    /**
+     * Generates a spec pair, then parses it as read from files
+     *
+     * @return the original and the changed specs
+     */
+    static Swagger[] loadSpecPair(SpecSize size) throws IOException {
+        Path directory = Files.createTempDirectory("swagger-compat-bench");
+        try {
+            SpecPair pair = size.generate();
+            Path oldFile = directory.resolve("old.json");
+            Path newFile = directory.resolve("new.json");
+            pair.writeOldSpec(oldFile);
+            pair.writeNewSpec(newFile);
+
+            SpecLoader loader = SpecLoader.forName("parser");
+            return new Swagger[] { loader.load(oldFile), loader.load(newFile) };
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
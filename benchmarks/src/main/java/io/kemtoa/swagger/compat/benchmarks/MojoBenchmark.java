@@ -0,0 +1,111 @@
+package io.kemtoa.swagger.compat.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.kemtoa.swagger.compat.BackwardsCompatibilityCheckMojo;
+import io.kemtoa.swagger.compat.SpecGenerator.SpecPair;
+
+/**
+ * Complete execution of the mojo on a single group: reading, parsing and
+ * comparing the specs, then updating the lock file
+ *
+ * The lock is restored before each invocation, and the check cache and the
+ * lock hashes are disabled, so that every invocation does the whole check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MojoBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private SpecSize size;
+
+    @Param({"parser", "streaming"})
+    private String loader;
+
+    @Param({"false", "true"})
+    private boolean compact;
+
+    private Path directory;
+    private Path lock;
+    private Path baseline;
+    private BackwardsCompatibilityCheckMojo mojo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("swagger-compat-bench");
+        Path sourceDir = directory.resolve("swagger");
+        Path lockDir = directory.resolve("locks");
+        Files.createDirectories(sourceDir);
+        baseline = directory.resolve("baseline.json");
+        lock = lockDir.resolve("group.lock");
+
+        SpecPair pair = size.generate();
+        pair.writeOldSpec(baseline);
+        pair.writeNewSpec(sourceDir.resolve("group.json"));
+
+        mojo = new BackwardsCompatibilityCheckMojo();
+        mojo.setLog(new QuietLog());
+        configure("swaggerSourceDir", sourceDir.toString());
+        configure("swaggerLockDir", lockDir.toString());
+        configure("threads", 1);
+        configure("useCheckCache", false);
+        configure("useLockHashes", false);
+        configure("specLoader", loader);
+        configure("compactModel", compact);
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreLock() throws IOException {
+        Files.createDirectories(lock.getParent());
+        Files.copy(baseline, lock, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void check() throws MojoExecutionException, MojoFailureException {
+        mojo.execute();
+    }
+
+    private void configure(String name, Object value) throws ReflectiveOperationException {
+        for (Class<?> type = mojo.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(mojo, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // Declared by a superclass
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+}
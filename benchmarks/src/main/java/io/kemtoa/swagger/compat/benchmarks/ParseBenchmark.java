@@ -0,0 +1,62 @@
+package io.kemtoa.swagger.compat.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.swagger.models.Swagger;
+
+/**
+ * Parsing of a spec, using swagger-parser or the streaming loader
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private SpecSize size;
+
+    @Param({"parser", "streaming"})
+    private String loader;
+
+    private Path directory;
+    private Path spec;
+    private SpecLoader specLoader;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("swagger-compat-bench");
+        spec = directory.resolve("spec.json");
+        size.generate().writeOldSpec(spec);
+        specLoader = SpecLoader.forName(loader);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Swagger parse() throws IOException {
+        return specLoader.load(spec);
+    }
+}
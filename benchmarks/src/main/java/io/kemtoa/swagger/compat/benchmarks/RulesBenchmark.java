@@ -0,0 +1,83 @@
+package io.kemtoa.swagger.compat.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.kemtoa.swagger.compat.rules.AddedEnumValueInResponseRule;
+import io.kemtoa.swagger.compat.rules.AddedRequiredRequestParameterRule;
+import io.kemtoa.swagger.compat.rules.CompositeRule;
+import io.kemtoa.swagger.compat.rules.ParameterLocationChangedRule;
+import io.kemtoa.swagger.compat.rules.PropertyRemovedInResponseRule;
+import io.kemtoa.swagger.compat.rules.PropertyTypeChangedRule;
+import io.kemtoa.swagger.compat.rules.RemovedEnumValueInRequestRule;
+import io.kemtoa.swagger.compat.rules.RemovedOperationRule;
+import io.kemtoa.swagger.compat.walker.SpecHashes;
+import io.kemtoa.swagger.compat.walker.SwaggerDiffWalker;
+import io.swagger.models.Swagger;
+
+/**
+ * Walk of a spec pair evaluating the seven rules, as done by the mojo once
+ * the specs are parsed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private SpecSize size;
+
+    /**
+     * Whether the identical parts of the specs are skipped using their structural hashes
+     */
+    @Param({"false", "true"})
+    private boolean hashes;
+
+    private Swagger swaggerOld;
+    private Swagger swaggerNew;
+    private SpecHashes hashesOld;
+    private SpecHashes hashesNew;
+
+    @Setup
+    public void setUp() throws IOException {
+        Swagger[] specs = BenchmarkFiles.loadSpecPair(size);
+        swaggerOld = specs[0];
+        swaggerNew = specs[1];
+        if (hashes) {
+            hashesOld = SpecHashes.of(swaggerOld);
+            hashesNew = SpecHashes.of(swaggerNew);
+        }
+    }
+
+    @Benchmark
+    public List<String> check() {
+        CompositeRule rules = new CompositeRule(
+                new AddedEnumValueInResponseRule(),
+                new AddedRequiredRequestParameterRule(),
+                new ParameterLocationChangedRule(),
+                new PropertyRemovedInResponseRule(),
+                new PropertyTypeChangedRule(),
+                new RemovedEnumValueInRequestRule(),
+                new RemovedOperationRule()
+        );
+
+        new SwaggerDiffWalker().walk(rules, swaggerOld, swaggerNew, hashesOld, hashesNew);
+        return rules.getErrors();
+    }
+}
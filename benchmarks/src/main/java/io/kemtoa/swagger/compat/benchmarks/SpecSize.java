@@ -0,0 +1,31 @@
+package io.kemtoa.swagger.compat.benchmarks;
+
+import io.kemtoa.swagger.compat.SpecGenerator;
+import io.kemtoa.swagger.compat.SpecGenerator.SpecPair;
+
+/**
+ * Sizes of the specs generated for the benchmarks
+ *
+ * The new spec of each pair only contains backwards compatible changes, so
+ * comparing both specs visits them entirely and passes the check.
+ */
+public enum SpecSize {
+    SMALL(10),
+    MEDIUM(300),
+    HUGE(5000);
+
+    private final int pathCount;
+
+    SpecSize(int pathCount) {
+        this.pathCount = pathCount;
+    }
+
+    public SpecPair generate() {
+        return new SpecGenerator()
+                .seed(pathCount)
+                .paths(pathCount)
+                .definitions(Math.max(1, pathCount / 2))
+                .compatibleChanges(pathCount / 10)
+                .generate();
+    }
+}
@@ -0,0 +1,87 @@
+package io.kemtoa.swagger.compat.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.kemtoa.swagger.compat.walker.CompactSwaggerDiffWalker;
+import io.kemtoa.swagger.compat.walker.SwaggerDiffVisitor;
+import io.kemtoa.swagger.compat.walker.SwaggerDiffWalker;
+import io.swagger.models.Model;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.Property;
+
+/**
+ * Walk of a spec pair with a visitor doing nothing but counting the calls,
+ * measuring the cost of the traversal alone
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalkBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private SpecSize size;
+
+    @Param({"false", "true"})
+    private boolean compact;
+
+    private Swagger swaggerOld;
+    private Swagger swaggerNew;
+    private CompactSpec compactOld;
+    private CompactSpec compactNew;
+
+    @Setup
+    public void setUp() throws IOException {
+        Swagger[] specs = BenchmarkFiles.loadSpecPair(size);
+        swaggerOld = specs[0];
+        swaggerNew = specs[1];
+        compactOld = CompactSpec.of(swaggerOld);
+        compactNew = CompactSpec.of(swaggerNew);
+    }
+
+    @Benchmark
+    public int walk() {
+        CountingVisitor visitor = new CountingVisitor();
+        if (compact) {
+            new CompactSwaggerDiffWalker().walk(visitor, compactOld, compactNew);
+        } else {
+            new SwaggerDiffWalker().walk(visitor, swaggerOld, swaggerNew);
+        }
+        return visitor.count;
+    }
+
+    private static class CountingVisitor implements SwaggerDiffVisitor {
+        private int count;
+
+        @Override
+        public void acceptModel(Model left, Model right) {
+            count++;
+        }
+
+        @Override
+        public void acceptProperty(String key, Property left, Property right) {
+            count++;
+        }
+
+        @Override
+        public void acceptEnumValue(String left, String right) {
+            count++;
+        }
+    }
+}
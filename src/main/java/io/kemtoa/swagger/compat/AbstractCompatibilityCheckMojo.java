@@ -0,0 +1,413 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.kemtoa.swagger.compat.report.ReportFormat;
+
+/**
+ * Base of the Swagger backwards compatibility check goals
+ *
+ * The groups of all the modules found by the goal are checked by a single
+ * {@link CompatibilityChecker}, on a shared pool of {@link #threads} worker
+ * threads and with the cache of the parsed specs shared by the executions in
+ * the same JVM, see {@link #specCacheSize}. For each group, the
+ * 'old' and 'new' specs are parsed in parallel, then compared using dedicated
+ * walker and rule instances. The log output is reported module after module,
+ * and group after group sorted by group name.
+ *
+ * Groups whose spec is identical to the lock are not parsed at all. The
+ * digests of the spec pairs found compatible are recorded in the
+ * {@link #checkCacheDir} directory so that a pair is never checked twice.
+ *
+ * When {@link #useLockHashes} is set, the structural hashes of each lock are
+ * stored in a sidecar file next to it. A spec whose hash matches the one of the lock is
+ * equivalent to it and passes without parsing the lock, otherwise only the
+ * parts of the specs having different hashes are compared.
+ *
+ * When {@link #collectMetrics} is set, the duration of each phase of the
+ * check, the calls made to each rule and the estimated size of the parsed
+ * specs are written to the {@link #metricsFile} file for each group.
+ *
+ * The violations are streamed as they are found: at most
+ * {@link #maxLoggedViolations} of them are logged for each group, and all of
+ * them are written to the reports selected by {@link #reportFormats}.
+ *
+ * The locks are either copies of the specs or compact binary snapshots of
+ * their contract, see {@link #lockFormat}.
+ *
+ * The groups whose spec changed most recently are checked first. The check
+ * can be stopped early using {@link #failFast}, {@link #maxViolations},
+ * {@link #timeBudget} and {@link #groupTimeBudget}: the groups not checked
+ * completely are then reported as partial and their lock is left untouched.
+ */
+public abstract class AbstractCompatibilityCheckMojo extends AbstractMojo {
+
+    @Parameter(property = "skipSwaggerCheck")
+    private boolean skipSwaggerCheck;
+
+    /**
+     * Number of worker threads used to check the groups. Defaults to the
+     * number of available processors when not set or not positive.
+     */
+    @Parameter(property = "swaggerCheckThreads")
+    private int threads;
+
+    /**
+     * Directory where the spec pairs that passed the check are recorded.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/swagger-compat-cache")
+    private String checkCacheDir;
+
+    @Parameter(property = "swaggerCheckCache", defaultValue = "true")
+    private boolean useCheckCache;
+
+    /**
+     * How the specs are read: 'parser' uses the complete swagger-parser pipeline,
+     * 'streaming' only reads the parts of the specs that are checked and is much
+     * faster on large specs, but does not support remote references.
+     */
+    @Parameter(property = "swaggerSpecLoader", defaultValue = "parser")
+    private String specLoader;
+
+    /**
+     * Converts the parsed specs to a compact representation before comparing them,
+     * dividing the memory used by large specs during the check.
+     */
+    @Parameter(property = "swaggerCompactModel", defaultValue = "false")
+    private boolean compactModel;
+
+    /**
+     * Format of the lock files written: 'json' copies the specs, 'binary' stores compact snapshots
+     * of their contract, read without parsing the specs again. Locks of both formats are read, an
+     * existing lock is converted the next time it is updated.
+     */
+    @Parameter(property = "swaggerLockFormat", defaultValue = "json")
+    private String lockFormat;
+
+    /**
+     * Maximum estimated memory, in megabytes, retained by the parsed specs kept
+     * from one execution to the next in the same JVM. Specs are not kept when
+     * lower than 1.
+     */
+    @Parameter(property = "swaggerSpecCacheSize", defaultValue = "256")
+    private int specCacheSize;
+
+    /**
+     * Stores the structural hashes of the lock files in '.lock.hashes' sidecar files,
+     * used to skip the unchanged parts of the specs in the next executions. Disabled by
+     * default, as the sidecar files are written next to the locks, in the sources.
+     */
+    @Parameter(property = "swaggerLockHashes", defaultValue = "false")
+    private boolean useLockHashes;
+
+    /**
+     * Collects timing and memory metrics for each group, written to {@link #metricsFile}.
+     */
+    @Parameter(property = "swaggerCheckMetrics", defaultValue = "false")
+    private boolean collectMetrics;
+
+    @Parameter(defaultValue = "${project.build.directory}/swagger-compat-metrics.json")
+    private String metricsFile;
+
+    /**
+     * Number of the slowest groups logged when collecting metrics.
+     */
+    @Parameter(property = "swaggerCheckMetricsTopGroups", defaultValue = "5")
+    private int metricsTopGroups;
+
+    /**
+     * Comma-separated formats of the violation reports written for each group:
+     * 'json', 'sarif' and 'junit'. No report is written by default.
+     */
+    @Parameter(property = "swaggerCheckReportFormats")
+    private String reportFormats;
+
+    /**
+     * Maximum number of violations logged for each group, all of them are logged when lower than 1.
+     * The reports always hold all the violations.
+     */
+    @Parameter(property = "swaggerCheckMaxLoggedViolations", defaultValue = "100")
+    private int maxLoggedViolations;
+
+    /**
+     * Stops the check at the first violation or failed group: the walk in progress is stopped
+     * and the pending groups are skipped.
+     */
+    @Parameter(property = "swaggerCheckFailFast", defaultValue = "false")
+    private boolean failFast;
+
+    /**
+     * Number of violations, over all the groups, stopping the check. Not limited when lower than 1.
+     */
+    @Parameter(property = "swaggerCheckMaxViolations", defaultValue = "0")
+    private int maxViolations;
+
+    /**
+     * Time budget of the check in seconds, the groups not checked in time are reported as partial.
+     * Not limited when lower than 1.
+     */
+    @Parameter(property = "swaggerCheckTimeBudget", defaultValue = "0")
+    private int timeBudget;
+
+    /**
+     * Time budget of each group in seconds, the walk of a group exceeding it is stopped.
+     * Not limited when lower than 1.
+     */
+    @Parameter(property = "swaggerCheckGroupTimeBudget", defaultValue = "0")
+    private int groupTimeBudget;
+
+    /**
+     * Minimum number of paths of a spec for it to be walked on several threads, the paths being
+     * split between the threads. Each spec is walked on a single thread when lower than 1.
+     */
+    @Parameter(property = "swaggerParallelWalkPaths", defaultValue = "0")
+    private int parallelWalkPaths;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        long start = System.nanoTime();
+        try {
+            if (skipSwaggerCheck) {
+                getLog().info("The Swagger backwards compatibility check is skipped.");
+                return;
+            }
+
+            List<SwaggerModule> modules = findModules();
+            if (modules.isEmpty()) {
+                return;
+            }
+            long discoveryNanos = System.nanoTime() - start;
+
+            SpecLoader loader;
+            List<ReportFormat> reports;
+            boolean binaryLocks;
+            try {
+                loader = SpecLoader.forName(specLoader);
+                reports = parseReportFormats(reportFormats);
+                binaryLocks = isBinaryLockFormat(lockFormat);
+            } catch (IllegalArgumentException e) {
+                throw new MojoExecutionException(e.getMessage(), e);
+            }
+
+            CheckResultCache checkResultCache = null;
+            if (useCheckCache && checkCacheDir != null) {
+                checkResultCache = new CheckResultCache(Paths.get(checkCacheDir), CompatibilityChecker.getRuleSetFingerprint());
+            }
+
+            ParsedSpecCache specCache = null;
+            ParsedSpecCache.Statistics specCacheStatistics = null;
+            if (specCacheSize > 0) {
+                specCache = ParsedSpecCache.shared();
+                specCache.setMaxBytes(specCacheSize * 1024L * 1024L);
+                specCacheStatistics = specCache.getStatistics();
+            }
+
+            CheckResultCache resultCache = checkResultCache;
+            ParsedSpecCache parsedSpecCache = specCache;
+            ExecutorService executor = Executors.newFixedThreadPool(getThreadCount(), new WorkerThreadFactory());
+            ForkJoinPool walkPool = parallelWalkPaths > 0 ? new ForkJoinPool(getThreadCount()) : null;
+            try {
+                checkModules(modules, budget -> new CompatibilityChecker(executor, loader, budget)
+                        .compactModel(compactModel)
+                        .binaryLocks(binaryLocks)
+                        .lockHashes(useLockHashes)
+                        .collectMetrics(collectMetrics)
+                        .checkResultCache(resultCache)
+                        .specCache(parsedSpecCache)
+                        .reports(reports)
+                        .maxLoggedViolations(maxLoggedViolations)
+                        .parallelWalk(walkPool, parallelWalkPaths), start, discoveryNanos);
+            } finally {
+                executor.shutdownNow();
+                if (walkPool != null) {
+                    walkPool.shutdownNow();
+                }
+
+                if (specCache != null) {
+                    getLog().debug("Parsed spec cache: " + specCache.getStatistics().since(specCacheStatistics));
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("An error occurred while running the Swagger compatibility check", e);
+        }
+    }
+
+    /**
+     * Finds the modules to check, logging why when there is none
+     */
+    abstract List<SwaggerModule> findModules() throws IOException;
+
+    /**
+     * Checks the groups of the modules and reports the results
+     *
+     * @param checkers creates the checker of an execution of the check, from the limits of the execution
+     * @param start the start of the execution, from {@link System#nanoTime()}
+     */
+    void checkModules(List<SwaggerModule> modules, Function<CheckBudget, CompatibilityChecker> checkers,
+                      long start, long discoveryNanos) throws IOException, MojoExecutionException, MojoFailureException {
+        CheckBudget budget = new CheckBudget(failFast, maxViolations, start, timeBudget, groupTimeBudget);
+        checkModules(checkers.apply(budget), budget, modules, start, discoveryNanos);
+    }
+
+    private void checkModules(CompatibilityChecker checker, CheckBudget budget, List<SwaggerModule> modules,
+                              long start, long discoveryNanos) throws IOException, MojoExecutionException, MojoFailureException {
+        List<SwaggerGroup> groups = new ArrayList<>();
+        for (SwaggerModule module : modules) {
+            groups.addAll(module.groups.values());
+        }
+
+        Map<SwaggerGroup, CompletableFuture<GroupCheckResult>> results = new HashMap<>();
+        for (SwaggerGroup group : sortByRecentChanges(groups)) {
+            results.put(group, checker.check(group));
+        }
+
+        List<String> failedGroups = new ArrayList<>();
+        List<String> partialGroups = new ArrayList<>();
+        IOException ioException = null;
+        Throwable groupError = null;
+        for (SwaggerModule module : modules) {
+            if (module.name != null) {
+                getLog().info("Checking the Swagger groups of module " + module.name + ":");
+            }
+
+            for (SwaggerGroup group : module.groups.values()) {
+                GroupCheckResult result;
+                try {
+                    result = results.get(group).join();
+                } catch (CompletionException e) {
+                    // The logs of the other groups are still flushed before reporting the first error
+                    if (e.getCause() instanceof UncheckedIOException) {
+                        if (ioException == null) {
+                            ioException = ((UncheckedIOException) e.getCause()).getCause();
+                        }
+                    } else if (groupError == null) {
+                        groupError = e.getCause() != null ? e.getCause() : e;
+                    }
+                    continue;
+                }
+
+                result.log.flushTo(getLog());
+                if (result.failed) {
+                    failedGroups.add(group.metrics.getName());
+                }
+                if (result.partial) {
+                    partialGroups.add(group.metrics.getName());
+                }
+            }
+        }
+
+        if (ioException != null) {
+            throw ioException;
+        }
+        if (groupError != null) {
+            throw new MojoExecutionException("An error occurred while running the Swagger compatibility check", groupError);
+        }
+
+        if (collectMetrics) {
+            reportMetrics(groups, start, discoveryNanos);
+        }
+
+        String partialResults = "";
+        if (!partialGroups.isEmpty()) {
+            String reason = budget.getStopReason() != null ? budget.getStopReason() : "group time budget exceeded";
+            partialResults = " (partial results, " + reason + ")";
+            getLog().warn("The Swagger backwards compatibility check was stopped (" + reason + "), "
+                    + "the following groups were not checked completely: " + String.join(", ", partialGroups));
+        }
+
+        if (failedGroups.size() == 1) {
+            throw new MojoFailureException("Backwards compatibility check failed for group " + failedGroups.get(0) + partialResults);
+        } else if (!failedGroups.isEmpty()) {
+            throw new MojoFailureException("Backwards compatibility check failed for groups " + String.join(", ", failedGroups) + partialResults);
+        }
+    }
+
+    private void reportMetrics(List<SwaggerGroup> groups, long start, long discoveryNanos) throws IOException {
+        List<GroupMetrics> groupMetrics = new ArrayList<>();
+        for (SwaggerGroup group : groups) {
+            groupMetrics.add(group.metrics);
+        }
+
+        CheckMetrics metrics = new CheckMetrics(discoveryNanos, System.nanoTime() - start, getThreadCount(), groupMetrics);
+        if (metricsFile != null) {
+            metrics.write(Paths.get(metricsFile));
+        }
+        metrics.logSlowestGroups(getLog(), metricsTopGroups);
+    }
+
+    /**
+     * Sorts the groups by the last modification of their spec, most recent first, so that
+     * the groups most likely to fail are checked first. Orphan locks come last.
+     */
+    private static List<SwaggerGroup> sortByRecentChanges(List<SwaggerGroup> groups) throws IOException {
+        Map<SwaggerGroup, Long> lastModified = new HashMap<>();
+        for (SwaggerGroup group : groups) {
+            lastModified.put(group, group.jsonPath != null ? Files.getLastModifiedTime(group.jsonPath).toMillis() : Long.MIN_VALUE);
+        }
+
+        List<SwaggerGroup> sorted = new ArrayList<>(groups);
+        sorted.sort(Comparator.comparing((SwaggerGroup group) -> lastModified.get(group)).reversed());
+        return sorted;
+    }
+
+    private int getThreadCount() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static List<ReportFormat> parseReportFormats(String formats) {
+        if (formats == null || formats.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return Arrays.stream(formats.split(","))
+                .filter(format -> !format.trim().isEmpty())
+                .map(ReportFormat::forName)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isBinaryLockFormat(String format) {
+        if (format == null || format.trim().equalsIgnoreCase("json")) {
+            return false;
+        }
+        if (format.trim().equalsIgnoreCase("binary")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unknown lock format '" + format + "', expected 'json' or 'binary'");
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "swagger-compat-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
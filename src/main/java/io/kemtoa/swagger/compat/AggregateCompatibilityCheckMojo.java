@@ -0,0 +1,106 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Swagger spec backwards compatibility check of all the modules of a reactor
+ *
+ * This Mojo runs once per reactor and checks the groups of every module
+ * having a Swagger source directory, as if the
+ * {@link BackwardsCompatibilityCheckMojo} was executed in each of them, but
+ * on a single worker pool and with a single cache of the parsed specs. The
+ * total check time therefore depends on the volume of the specs rather than
+ * on the number of modules.
+ *
+ * The source, lock and baseline directories of each module are read from the
+ * 'swaggerSourceDir', 'swaggerLockDir' and 'baselineDirs' configuration of this
+ * plugin in the module, the first two defaulting to 'src/main/swagger'. The violation reports of each
+ * module are written to its 'target/swagger-compat-reports' directory.
+ *
+ * The results are reported module after module, and groups are designated as
+ * 'module:group' in the failure message.
+ */
+@Mojo(
+    name = "aggregate-backwards-compatibility-check",
+    defaultPhase = LifecyclePhase.VERIFY,
+    aggregator = true,
+    threadSafe = true
+)
+public class AggregateCompatibilityCheckMojo extends AbstractCompatibilityCheckMojo {
+
+    private static final String PLUGIN_KEY = "io.kemtoa.swagger:swagger-backwards-compat-maven-plugin";
+    private static final String DEFAULT_SWAGGER_DIR = "src/main/swagger";
+    private static final String REPORT_DIR = "swagger-compat-reports";
+
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
+    private List<MavenProject> reactorProjects;
+
+    @Override
+    List<SwaggerModule> findModules() throws IOException {
+        List<SwaggerModule> modules = new ArrayList<>();
+        for (MavenProject project : reactorProjects) {
+            Path basedir = project.getBasedir().toPath();
+            Path swaggerSourcePath = resolve(basedir, getConfiguration(project, "swaggerSourceDir"));
+            if (!Files.isDirectory(swaggerSourcePath)) {
+                continue;
+            }
+
+            Path swaggerLockPath = resolve(basedir, getConfiguration(project, "swaggerLockDir"));
+            String buildDirectory = project.getBuild().getDirectory();
+            Path reportPath = basedir.resolve(buildDirectory != null ? buildDirectory : "target").resolve(REPORT_DIR);
+            List<Path> baselinePaths = SwaggerModule.resolveDirectories(basedir, getConfiguration(project, "baselineDirs"));
+            modules.add(SwaggerModule.load(project.getArtifactId(), swaggerSourcePath, swaggerLockPath, baselinePaths, reportPath));
+        }
+
+        if (modules.isEmpty()) {
+            getLog().info("No module of the reactor has a Swagger source directory, skipping.");
+        }
+        return modules;
+    }
+
+    private static Path resolve(Path basedir, String directory) {
+        return basedir.resolve(directory != null ? directory : DEFAULT_SWAGGER_DIR).normalize();
+    }
+
+    /**
+     * Reads a parameter of this plugin in the configuration of a module,
+     * from its plugin configuration or from one of its executions
+     *
+     * @return the value of the parameter, or null if it is not configured
+     */
+    private static String getConfiguration(MavenProject project, String name) {
+        Plugin plugin = project.getPlugin(PLUGIN_KEY);
+        if (plugin == null) {
+            return null;
+        }
+
+        String value = getChildValue(plugin.getConfiguration(), name);
+        for (PluginExecution execution : plugin.getExecutions()) {
+            if (value == null) {
+                value = getChildValue(execution.getConfiguration(), name);
+            }
+        }
+        return value;
+    }
+
+    private static String getChildValue(Object configuration, String name) {
+        if (!(configuration instanceof Xpp3Dom)) {
+            return null;
+        }
+
+        Xpp3Dom child = ((Xpp3Dom) configuration).getChild(name);
+        return child != null && child.getValue() != null ? child.getValue().trim() : null;
+    }
+}
@@ -0,0 +1,320 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.kemtoa.swagger.compat.rules.CompositeRule;
+import io.kemtoa.swagger.compat.rules.Violation;
+import io.kemtoa.swagger.compat.walker.SwaggerDiffWalker;
+import io.swagger.models.Swagger;
+
+/**
+ * Command line checker of a batch of spec pairs, in a single JVM
+ *
+ * The manifest lists one pair per line, as the old and the new spec separated
+ * by a tab, optionally followed by a tab and an identifier of the pair. Blank
+ * lines and lines starting with '#' are ignored, and relative paths are
+ * resolved against the directory of the manifest.
+ *
+ * <pre>
+ * java -cp ... io.kemtoa.swagger.compat.BatchChecker [options] manifest
+ *
+ *   --threads N        number of worker threads, the number of processors by default
+ *   --loader NAME      'parser' (default) or 'streaming'
+ *   --output FILE      file the results are written to, the standard output by default
+ * </pre>
+ *
+ * The pairs are checked on a work-stealing pool, with a bounded number of
+ * pairs in flight. The result of each pair is written as soon as it is known,
+ * as a line of JSON, so the results are in completion order. The throughput
+ * and the percentiles of the latency of the pairs are written to the standard
+ * error once all the pairs are checked.
+ *
+ * The exit status is 0 when all the pairs are compatible, 1 when some are
+ * not, 2 when some pairs could not be checked and 3 on invalid arguments.
+ */
+public final class BatchChecker {
+
+    static final int COMPATIBLE = 0;
+    static final int INCOMPATIBLE = 1;
+    static final int ERROR = 2;
+    static final int USAGE = 3;
+
+    private static final String USAGE_MESSAGE = "Usage: BatchChecker [--threads N] [--loader parser|streaming] [--output FILE] manifest";
+
+    /**
+     * Pair of specs listed in the manifest
+     */
+    static final class SpecPair {
+        private final String id;
+        private final Path oldPath;
+        private final Path newPath;
+
+        SpecPair(String id, Path oldPath, Path newPath) {
+            this.id = id;
+            this.oldPath = oldPath;
+            this.newPath = newPath;
+        }
+    }
+
+    private final SpecLoader loader;
+    private final int threads;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    BatchChecker(SpecLoader loader, int threads) {
+        this.loader = loader;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return the exit status
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String loaderName = "parser";
+        String output = null;
+        String manifest = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(getValue(args, ++i));
+                        break;
+                    case "--loader":
+                        loaderName = getValue(args, ++i);
+                        break;
+                    case "--output":
+                        output = getValue(args, ++i);
+                        break;
+                    default:
+                        if (manifest != null || args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unexpected argument '" + args[i] + "'");
+                        }
+                        manifest = args[i];
+                }
+            }
+            if (manifest == null || threads < 1) {
+                throw new IllegalArgumentException("Missing manifest or invalid thread count");
+            }
+
+            BatchChecker checker = new BatchChecker(SpecLoader.forName(loaderName), threads);
+            List<SpecPair> pairs = readManifest(Paths.get(manifest));
+            if (output == null) {
+                return checker.check(pairs, out, err);
+            }
+            try (OutputStream outputStream = Files.newOutputStream(Paths.get(output));
+                 PrintStream results = new PrintStream(outputStream, false, "UTF-8")) {
+                return checker.check(pairs, results, err);
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE_MESSAGE);
+            return USAGE;
+        } catch (IOException e) {
+            err.println("Unable to check the spec pairs: " + e);
+            return ERROR;
+        }
+    }
+
+    private static String getValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value of option " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    static List<SpecPair> readManifest(Path manifest) throws IOException {
+        Path directory = manifest.toAbsolutePath().getParent();
+        List<SpecPair> pairs = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] columns = line.split("\t");
+            if (columns.length < 2 || columns.length > 3) {
+                throw new IllegalArgumentException("Invalid manifest line " + lineNumber + ", expected 'old<TAB>new[<TAB>id]'");
+            }
+            String id = columns.length == 3 ? columns[2].trim() : Integer.toString(pairs.size() + 1);
+            pairs.add(new SpecPair(id, directory.resolve(columns[0].trim()), directory.resolve(columns[1].trim())));
+        }
+        return pairs;
+    }
+
+    /**
+     * Checks the pairs, writing the result of each pair to the output and the summary to the log
+     *
+     * @return the exit status
+     */
+    int check(List<SpecPair> pairs, PrintStream output, PrintStream log) throws IOException {
+        long[] latencies = new long[pairs.size()];
+        AtomicInteger incompatible = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        // Bounds the results waiting to be written, and the specs held in memory
+        Semaphore inFlight = new Semaphore(threads * 2);
+
+        long start = System.nanoTime();
+        ExecutorService pool = new ForkJoinPool(threads);
+        try {
+            for (int i = 0; i < pairs.size(); i++) {
+                int index = i;
+                inFlight.acquireUninterruptibly();
+                pool.execute(() -> {
+                    try {
+                        long pairStart = System.nanoTime();
+                        String result = check(pairs.get(index), incompatible, errors, pairStart);
+                        latencies[index] = System.nanoTime() - pairStart;
+                        synchronized (output) {
+                            output.println(result);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            pool.shutdown();
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.println("Waiting for the last spec pairs...");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            throw new IOException("Interrupted while checking the spec pairs", e);
+        }
+        long totalNanos = System.nanoTime() - start;
+        output.flush();
+
+        logSummary(log, pairs.size(), incompatible.get(), errors.get(), totalNanos, latencies);
+
+        if (errors.get() > 0) {
+            return ERROR;
+        }
+        return incompatible.get() > 0 ? INCOMPATIBLE : COMPATIBLE;
+    }
+
+    /**
+     * @return the result of the pair, as a line of JSON, an error being reported for any
+     *         throwable as the pool would swallow it, such as a StackOverflowError on a
+     *         deeply nested spec or an OutOfMemoryError on a huge one
+     */
+    private String check(SpecPair pair, AtomicInteger incompatible, AtomicInteger errors, long start) {
+        List<Violation> violations = new ArrayList<>();
+        String error = null;
+        try {
+            Swagger swaggerOld = loader.load(pair.oldPath);
+            Swagger swaggerNew = loader.load(pair.newPath);
+            if (swaggerOld == null || swaggerNew == null) {
+                error = "Unable to parse Swagger spec: " + (swaggerOld == null ? pair.oldPath : pair.newPath);
+            } else {
+                CompositeRule rules = new CompositeRule(CompatibilityChecker.createRules());
+                rules.setSink(violations::add);
+                new SwaggerDiffWalker().walk(rules, swaggerOld, swaggerNew);
+            }
+        } catch (Throwable e) {
+            violations.clear();
+            error = e.toString();
+        }
+
+        String status;
+        if (error != null) {
+            errors.incrementAndGet();
+            status = "error";
+        } else if (!violations.isEmpty()) {
+            incompatible.incrementAndGet();
+            status = "incompatible";
+        } else {
+            status = "compatible";
+        }
+
+        try {
+            return toJson(pair, status, error, violations, System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toJson(SpecPair pair, String status, String error, List<Violation> violations, long nanos) throws IOException {
+        Writer writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeStringField("id", pair.id);
+            generator.writeStringField("old", pair.oldPath.toString());
+            generator.writeStringField("new", pair.newPath.toString());
+            generator.writeStringField("status", status);
+            generator.writeNumberField("millis", Math.round(nanos / 1000.0) / 1000.0);
+            if (error != null) {
+                generator.writeStringField("error", error);
+            }
+
+            generator.writeArrayFieldStart("violations");
+            for (Violation violation : violations) {
+                generator.writeStartObject();
+                generator.writeStringField("ruleId", violation.getRuleId());
+                generator.writeStringField("severity", violation.getSeverity().name().toLowerCase(Locale.ROOT));
+                generator.writeStringField("path", violation.getLocation().getFullLocation());
+                generator.writeStringField("pointer", violation.getLocation().getJsonPointer());
+                generator.writeStringField("message", violation.getMessage());
+                if (violation.getOldValue() != null) {
+                    generator.writeStringField("oldValue", violation.getOldValue());
+                }
+                if (violation.getNewValue() != null) {
+                    generator.writeStringField("newValue", violation.getNewValue());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return writer.toString();
+    }
+
+    private static void logSummary(PrintStream log, int pairCount, int incompatible, int errors, long totalNanos, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+
+        log.println(String.format(Locale.ROOT, "Checked %d spec pairs in %.1f s (%.1f pairs/s): %d compatible, %d incompatible, %d errors",
+                pairCount, totalNanos / 1e9, totalNanos > 0 ? pairCount / (totalNanos / 1e9) : 0.0,
+                pairCount - incompatible - errors, incompatible, errors));
+        if (sorted.length > 0) {
+            log.println(String.format(Locale.ROOT, "Latency per pair: p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms",
+                    percentile(sorted, 50) / 1e6, percentile(sorted, 90) / 1e6, percentile(sorted, 99) / 1e6,
+                    sorted[sorted.length - 1] / 1e6));
+        }
+    }
+
+    /**
+     * @return the nearest-rank percentile of sorted values
+     */
+    static long percentile(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
@@ -0,0 +1,76 @@
+package io.kemtoa.swagger.compat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Log messages buffered in memory
+ *
+ * Groups are checked concurrently, each group writes its messages to its own
+ * buffer. The buffers are then flushed to the Maven log one group after the
+ * other so that the output does not depend on the order the checks finish.
+ */
+class BufferedLog {
+
+    private enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static class Entry {
+        private final Level level;
+        private final String message;
+
+        private Entry(Level level, String message) {
+            this.level = level;
+            this.message = message;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public void debug(String message) {
+        entries.add(new Entry(Level.DEBUG, message));
+    }
+
+    public void info(String message) {
+        entries.add(new Entry(Level.INFO, message));
+    }
+
+    public void warn(String message) {
+        entries.add(new Entry(Level.WARN, message));
+    }
+
+    public void error(String message) {
+        entries.add(new Entry(Level.ERROR, message));
+    }
+
+    /**
+     * Moves the messages of another buffer to the end of this one
+     */
+    public void append(BufferedLog log) {
+        entries.addAll(log.entries);
+        log.entries.clear();
+    }
+
+    public void flushTo(Log log) {
+        for (Entry entry : entries) {
+            switch (entry.level) {
+                case DEBUG:
+                    log.debug(entry.message);
+                    break;
+                case INFO:
+                    log.info(entry.message);
+                    break;
+                case WARN:
+                    log.warn(entry.message);
+                    break;
+                case ERROR:
+                    log.error(entry.message);
+                    break;
+            }
+        }
+        entries.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package io.kemtoa.swagger.compat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits of an execution of the check, shared by all the groups
+ *
+ * Once a limit is reached, the check is stopped: the walks in progress stop
+ * at the next path or operation and the pending groups are skipped. The
+ * time budget of a group only stops the walk of that group.
+ */
+class CheckBudget {
+
+    private final boolean failFast;
+    private final long maxViolations;
+    private final long deadline;
+    private final long groupBudgetNanos;
+    private final AtomicLong violations = new AtomicLong();
+    private final AtomicReference<String> stopReason = new AtomicReference<>();
+
+    /**
+     * @param failFast whether to stop at the first violation or failed group
+     * @param maxViolations the number of violations stopping the check, or 0 for no limit
+     * @param start the start of the execution, from {@link System#nanoTime()}
+     * @param budgetSeconds the time budget of the execution, or 0 for no limit
+     * @param groupBudgetSeconds the time budget of each group, or 0 for no limit
+     */
+    CheckBudget(boolean failFast, long maxViolations, long start, long budgetSeconds, long groupBudgetSeconds) {
+        this.failFast = failFast;
+        this.maxViolations = maxViolations;
+        this.deadline = budgetSeconds > 0 ? start + TimeUnit.SECONDS.toNanos(budgetSeconds) : 0;
+        this.groupBudgetNanos = groupBudgetSeconds > 0 ? TimeUnit.SECONDS.toNanos(groupBudgetSeconds) : 0;
+    }
+
+    /**
+     * @return the deadline of a group starting now, or 0 when groups have no time budget
+     */
+    public long getGroupDeadline() {
+        return groupBudgetNanos > 0 ? System.nanoTime() + groupBudgetNanos : 0;
+    }
+
+    public void addViolation() {
+        long count = violations.incrementAndGet();
+        if (failFast) {
+            stop("fail fast");
+        } else if (maxViolations > 0 && count >= maxViolations) {
+            stop("reached " + maxViolations + " violations");
+        }
+    }
+
+    public void addFailedGroup() {
+        if (failFast) {
+            stop("fail fast");
+        }
+    }
+
+    public boolean isStopped() {
+        if (stopReason.get() == null && deadline != 0 && System.nanoTime() - deadline > 0) {
+            stop("time budget exceeded");
+        }
+        return stopReason.get() != null;
+    }
+
+    /**
+     * @return whether the specified group deadline is exceeded
+     */
+    public static boolean isExpired(long groupDeadline) {
+        return groupDeadline != 0 && System.nanoTime() - groupDeadline > 0;
+    }
+
+    /**
+     * @return the condition stopping the walk of a group
+     */
+    public BooleanSupplier getStopCondition(long groupDeadline) {
+        return () -> isStopped() || isExpired(groupDeadline);
+    }
+
+    /**
+     * @return the reason the check was stopped, or null if it was not stopped
+     */
+    public String getStopReason() {
+        return stopReason.get();
+    }
+
+    private void stop(String reason) {
+        stopReason.compareAndSet(null, reason);
+    }
+}
@@ -0,0 +1,60 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.swagger.models.Swagger;
+
+/**
+ * Caches used by a {@link CompatibilityChecker}: the spec pairs found compatible
+ * by earlier checks, see {@link CheckResultCache}, and the specs already parsed,
+ * see {@link ParsedSpecCache}
+ *
+ * Both caches are optional, a missing cache behaving as an empty one.
+ */
+final class CheckCaches {
+
+    private CheckResultCache checkResultCache;
+    private ParsedSpecCache specCache;
+
+    void checkResultCache(CheckResultCache checkResultCache) {
+        this.checkResultCache = checkResultCache;
+    }
+
+    void specCache(ParsedSpecCache specCache) {
+        this.specCache = specCache;
+    }
+
+    boolean cachesResults() {
+        return checkResultCache != null;
+    }
+
+    /**
+     * @return whether the parsed specs are cached, by the digest of their file
+     */
+    boolean cachesSpecs() {
+        return specCache != null;
+    }
+
+    /**
+     * @return whether the spec pair is known to be compatible
+     */
+    boolean isCompatible(String lockDigest, String specDigest) {
+        return checkResultCache != null && checkResultCache.isCompatible(lockDigest, specDigest);
+    }
+
+    void markCompatible(String lockDigest, String specDigest) throws IOException {
+        if (checkResultCache != null) {
+            checkResultCache.markCompatible(lockDigest, specDigest);
+        }
+    }
+
+    /**
+     * @param digest the digest of the file, only used when the parsed specs are cached
+     * @return the spec, or null if it cannot be parsed
+     */
+    Swagger load(SpecLoader loader, Path path, String digest) throws IOException {
+        return specCache != null ? specCache.load(loader, path, digest) : loader.load(path);
+    }
+}
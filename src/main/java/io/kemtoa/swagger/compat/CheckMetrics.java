@@ -0,0 +1,143 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.kemtoa.swagger.compat.walker.DiffEvent;
+
+/**
+ * Metrics of an execution of the check, written as a JSON document
+ *
+ * Durations are reported in milliseconds and sizes in bytes. The document
+ * holds the duration of the discovery of the groups, then for each group its
+ * outcome, the duration of its phases, the number of nodes visited by kind,
+ * the calls made to each rule and the estimated size of the parsed specs.
+ */
+class CheckMetrics {
+
+    private final long discoveryNanos;
+    private final long totalNanos;
+    private final int threads;
+    private final List<GroupMetrics> groups;
+
+    CheckMetrics(long discoveryNanos, long totalNanos, int threads, List<GroupMetrics> groups) {
+        this.discoveryNanos = discoveryNanos;
+        this.totalNanos = totalNanos;
+        this.threads = threads;
+        this.groups = groups;
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            generator.useDefaultPrettyPrinter();
+
+            generator.writeStartObject();
+            generator.writeNumberField("discoveryMillis", toMillis(discoveryNanos));
+            generator.writeNumberField("totalMillis", toMillis(totalNanos));
+            generator.writeNumberField("threads", threads);
+
+            generator.writeArrayFieldStart("groups");
+            for (GroupMetrics group : groups) {
+                writeGroup(generator, group);
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeGroup(JsonGenerator generator, GroupMetrics group) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", group.getName());
+        generator.writeStringField("outcome", group.getOutcome());
+        generator.writeNumberField("totalMillis", toMillis(group.getTotalNanos()));
+
+        generator.writeObjectFieldStart("phases");
+        for (GroupMetrics.Phase phase : GroupMetrics.Phase.values()) {
+            generator.writeNumberField(phase.getKey() + "Millis", toMillis(group.getPhaseNanos(phase)));
+        }
+        generator.writeEndObject();
+
+        if (group.isWalked()) {
+            generator.writeObjectFieldStart("visitedNodes");
+            for (DiffEvent event : DiffEvent.values()) {
+                generator.writeNumberField(event.name().toLowerCase(Locale.ROOT), group.getVisitedNodes(event));
+            }
+            generator.writeEndObject();
+
+            generator.writeObjectFieldStart("rules");
+            for (GroupMetrics.RuleMetrics rule : group.getRules()) {
+                generator.writeObjectFieldStart(rule.getName());
+                generator.writeNumberField("calls", rule.getCalls());
+                generator.writeNumberField("millis", toMillis(rule.getNanos()));
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+
+        generator.writeObjectFieldStart("estimatedSpecBytes");
+        if (group.getOldSpecSize() >= 0) {
+            generator.writeNumberField("old", group.getOldSpecSize());
+        }
+        if (group.getNewSpecSize() >= 0) {
+            generator.writeNumberField("new", group.getNewSpecSize());
+        }
+        generator.writeEndObject();
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * Logs the slowest groups, with the duration of their main phases
+     */
+    public void logSlowestGroups(Log log, int count) {
+        List<GroupMetrics> slowest = new ArrayList<>(groups);
+        slowest.sort(Comparator.comparingLong(GroupMetrics::getTotalNanos).reversed());
+        if (slowest.size() > count) {
+            slowest = slowest.subList(0, count);
+        }
+        if (slowest.isEmpty()) {
+            return;
+        }
+
+        log.info("Slowest Swagger groups:");
+        for (GroupMetrics group : slowest) {
+            StringBuilder line = new StringBuilder();
+            line.append("  ").append(group.getName()).append(": ").append(formatMillis(group.getTotalNanos()))
+                    .append(" (").append(group.getOutcome());
+            for (GroupMetrics.Phase phase : GroupMetrics.Phase.values()) {
+                long nanos = group.getPhaseNanos(phase);
+                if (nanos > 0) {
+                    line.append(", ").append(phase.getKey()).append(' ').append(formatMillis(nanos));
+                }
+            }
+            line.append(')');
+            log.info(line.toString());
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,42 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Persistent cache of the successful compatibility checks
+ *
+ * Each (lock digest, spec digest, rule set fingerprint) triple that passed
+ * the check is recorded as an empty marker file named after the digest of
+ * the triple. Marker files are never modified once created, so concurrent
+ * builds can share the same cache directory safely.
+ */
+class CheckResultCache {
+
+    private final Path directory;
+    private final String ruleSetFingerprint;
+
+    public CheckResultCache(Path directory, String ruleSetFingerprint) {
+        this.directory = directory;
+        this.ruleSetFingerprint = ruleSetFingerprint;
+    }
+
+    public boolean isCompatible(String lockDigest, String specDigest) {
+        return Files.exists(getEntryPath(lockDigest, specDigest));
+    }
+
+    public void markCompatible(String lockDigest, String specDigest) throws IOException {
+        Files.createDirectories(directory);
+        try {
+            Files.createFile(getEntryPath(lockDigest, specDigest));
+        } catch (FileAlreadyExistsException e) {
+            // Already recorded by a concurrent check
+        }
+    }
+
+    private Path getEntryPath(String lockDigest, String specDigest) {
+        return directory.resolve(Digests.sha256(lockDigest + ':' + specDigest + ':' + ruleSetFingerprint));
+    }
+}
@@ -0,0 +1,861 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.kemtoa.swagger.compat.GroupMetrics.Phase;
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.kemtoa.swagger.compat.jfr.CheckEvents;
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.kemtoa.swagger.compat.report.ReportFormat;
+import io.kemtoa.swagger.compat.report.ViolationWriter;
+import io.kemtoa.swagger.compat.rules.AddedEnumValueInResponseRule;
+import io.kemtoa.swagger.compat.rules.AddedRequiredRequestParameterRule;
+import io.kemtoa.swagger.compat.rules.CompositeRule;
+import io.kemtoa.swagger.compat.rules.ParameterLocationChangedRule;
+import io.kemtoa.swagger.compat.rules.ProfiledRule;
+import io.kemtoa.swagger.compat.rules.PropertyRemovedInResponseRule;
+import io.kemtoa.swagger.compat.rules.PropertyTypeChangedRule;
+import io.kemtoa.swagger.compat.rules.RemovedEnumValueInRequestRule;
+import io.kemtoa.swagger.compat.rules.RemovedOperationRule;
+import io.kemtoa.swagger.compat.rules.Rule;
+import io.kemtoa.swagger.compat.rules.Violation;
+import io.kemtoa.swagger.compat.walker.CompactSwaggerDiffWalker;
+import io.kemtoa.swagger.compat.walker.Location;
+import io.kemtoa.swagger.compat.walker.ParallelSwaggerDiffWalker;
+import io.kemtoa.swagger.compat.walker.SpecHashes;
+import io.kemtoa.swagger.compat.walker.SwaggerDiffVisitor;
+import io.kemtoa.swagger.compat.walker.SwaggerDiffWalker;
+import io.swagger.models.Swagger;
+
+/**
+ * Checks the backwards compatibility of Swagger groups on a shared worker pool
+ *
+ * For each group, the 'old' and 'new' specs are parsed in parallel, then
+ * compared using dedicated walker and rule instances, so that any number of
+ * groups, from any number of modules, can be checked concurrently by the same
+ * checker. The specs already parsed by an earlier check are reused, see
+ * {@link ParsedSpecCache}. Both this cache and the one of the check results
+ * are held by a {@link CheckCaches}.
+ *
+ * Groups whose spec is identical to the lock are not parsed at all, nor are
+ * the spec pairs found compatible by an earlier check, see
+ * {@link CheckResultCache}. A spec having the same structural hash as the lock
+ * passes without parsing the lock, otherwise only the parts of the specs
+ * having different hashes are compared.
+ *
+ * Once a group passes against its lock and all its baselines, its spec is
+ * copied to its lock, or stored as a compact binary snapshot when
+ * {@link #binaryLocks(boolean)} is set, see {@link GroupLocks}. Locks of both formats are read: a snapshot is
+ * compared without parsing the spec it was taken from.
+ *
+ * The spec is also compared with the baselines of its group, in parallel and
+ * using the spec parsed for the comparison with the lock. The baselines are
+ * never updated, and the violations found against them are tagged with the
+ * name of the baseline.
+ *
+ * The specs having many paths can be walked on several threads, see
+ * {@link #parallelWalk(ForkJoinPool, int)}.
+ */
+class CompatibilityChecker {
+
+    private final ExecutorService executor;
+    private final SpecLoader loader;
+    private final CheckBudget budget;
+    private final GroupLocks locks = new GroupLocks();
+    private final CheckCaches caches = new CheckCaches();
+    private boolean compactModel;
+    private boolean collectMetrics;
+    private List<ReportFormat> reports = Collections.emptyList();
+    private int maxLoggedViolations;
+    private ForkJoinPool walkPool;
+    private int parallelWalkPaths;
+
+    CompatibilityChecker(ExecutorService executor, SpecLoader loader, CheckBudget budget) {
+        this.executor = executor;
+        this.loader = loader;
+        this.budget = budget;
+    }
+
+    /**
+     * Compares compact representations of the specs
+     */
+    public CompatibilityChecker compactModel(boolean compactModel) {
+        this.compactModel = compactModel;
+        return this;
+    }
+
+    /**
+     * Writes the locks as compact binary snapshots of the specs instead of copies of the specs
+     */
+    public CompatibilityChecker binaryLocks(boolean binaryLocks) {
+        locks.binary(binaryLocks);
+        return this;
+    }
+
+    /**
+     * Updates the locks, and their sidecar files, of the groups that pass the check
+     */
+    public CompatibilityChecker updateLocks(boolean updateLocks) {
+        locks.updated(updateLocks);
+        return this;
+    }
+
+    /**
+     * Reads and writes the structural hashes of the locks in sidecar files
+     */
+    public CompatibilityChecker lockHashes(boolean useLockHashes) {
+        locks.hashed(useLockHashes);
+        return this;
+    }
+
+    /**
+     * Records the calls made to the rules and the size of the specs in the group metrics
+     */
+    public CompatibilityChecker collectMetrics(boolean collectMetrics) {
+        this.collectMetrics = collectMetrics;
+        locks.collectMetrics(collectMetrics);
+        return this;
+    }
+
+    /**
+     * @param checkResultCache the spec pairs known to be compatible, or null to check all of them
+     */
+    public CompatibilityChecker checkResultCache(CheckResultCache checkResultCache) {
+        caches.checkResultCache(checkResultCache);
+        return this;
+    }
+
+    /**
+     * @param specCache the parsed specs shared by the checks, or null to parse each spec
+     */
+    public CompatibilityChecker specCache(ParsedSpecCache specCache) {
+        caches.specCache(specCache);
+        return this;
+    }
+
+    /**
+     * @param reports the formats of the violation reports, written to the report directory of each module
+     */
+    public CompatibilityChecker reports(List<ReportFormat> reports) {
+        this.reports = reports;
+        return this;
+    }
+
+    /**
+     * @param maxLoggedViolations the maximum number of violations logged for each group, all of them when lower than 1
+     */
+    public CompatibilityChecker maxLoggedViolations(int maxLoggedViolations) {
+        this.maxLoggedViolations = maxLoggedViolations;
+        return this;
+    }
+
+    /**
+     * Walks the specs having at least the specified number of paths on several threads
+     *
+     * The paths are split between the threads of the pool, each walking its
+     * paths with its own rules. The violations are reported in the order of a
+     * walk on a single thread, once all the paths are walked. Compact specs,
+     * see {@link #compactModel(boolean)}, and walks collecting metrics are
+     * always made on a single thread.
+     *
+     * @param walkPool the pool walking the paths, or null to walk each spec on a single thread
+     */
+    public CompatibilityChecker parallelWalk(ForkJoinPool walkPool, int parallelWalkPaths) {
+        this.walkPool = walkPool;
+        this.parallelWalkPaths = parallelWalkPaths;
+        return this;
+    }
+
+    /**
+     * Checks a group on the worker pool
+     *
+     * @return the result of the check, completed exceptionally with an
+     *         {@link UncheckedIOException} when a file cannot be read or written
+     */
+    public CompletableFuture<GroupCheckResult> check(SwaggerGroup group) {
+        Object event = CheckEvents.beginGroupCheck();
+        return checkSwaggerGroup(group).thenCompose(result -> checkBaselines(group, result)).thenApply(result -> {
+            GroupLocks.applyUpdate(group, result);
+            return result;
+        }).whenComplete((result, error) -> {
+            // Released once the lock and the baselines are done, the spec cache bounding the memory kept between groups
+            synchronized (group) {
+                group.swaggerNew = null;
+                group.compactNew = null;
+            }
+            group.metrics.finish(result != null ? result.outcome : "error");
+            CheckEvents.commitGroupCheck(event, group.name, result != null ? result.outcome : "error",
+                    result != null ? result.violations : 0, group.baselines.size(), group.jsonPath, group.lockPath);
+            if (result != null && result.failed) {
+                budget.addFailedGroup();
+            }
+        });
+    }
+
+    private CompletableFuture<GroupCheckResult> checkSwaggerGroup(SwaggerGroup group) {
+        if (group.jsonPath == null) {
+            group.metrics.start();
+
+            GroupCheckResult result = new GroupCheckResult();
+            result.log.warn("Found a .lock file without a corresponding .json file: " + group.lockPath.toString());
+            result.failed = true;
+            result.outcome = "orphan lock";
+
+            return CompletableFuture.completedFuture(result);
+        }
+
+        if (group.lockPath == null) {
+            return CompletableFuture.supplyAsync(() -> budget.isStopped() ? skipSwaggerGroup(group) : initializeSwaggerGroup(group), executor);
+        }
+
+        return CompletableFuture.supplyAsync(() -> budget.isStopped() ? skipSwaggerGroup(group) : checkUnchangedSwaggerGroup(group), executor)
+                .thenCompose(result -> result != null
+                        ? CompletableFuture.completedFuture(result)
+                        : compareSwaggerGroup(group));
+    }
+
+    /**
+     * Skips a group not started when the check was stopped
+     */
+    private static GroupCheckResult skipSwaggerGroup(SwaggerGroup group) {
+        group.metrics.start();
+
+        GroupCheckResult result = new GroupCheckResult();
+        result.log.warn("Backwards compatibility check skipped for group '" + group.name + "'.");
+        result.partial = true;
+        result.outcome = "skipped";
+        return result;
+    }
+
+    /**
+     * Compares the spec with the baselines of the group in parallel, once the
+     * spec was compared with the lock, sharing the parsed spec and its compact
+     * representation. The results are appended to the one of the lock in the
+     * order of the baselines.
+     */
+    private CompletableFuture<GroupCheckResult> checkBaselines(SwaggerGroup group, GroupCheckResult result) {
+        if (group.jsonPath == null || group.baselines.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        List<CompletableFuture<GroupCheckResult>> checks = new ArrayList<>();
+        try {
+            for (SwaggerBaseline baseline : group.baselines) {
+                checks.add(checkBaseline(group, baseline));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            for (CompletableFuture<GroupCheckResult> check : checks) {
+                GroupCheckResult baselineResult = check.join();
+                result.log.append(baselineResult.log);
+                result.violations += baselineResult.violations;
+                if (baselineResult.failed && !result.failed) {
+                    result.failed = true;
+                    result.outcome = baselineResult.outcome;
+                } else if (baselineResult.partial && !result.failed && !result.partial) {
+                    result.outcome = baselineResult.outcome;
+                }
+                result.partial |= baselineResult.partial;
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Compares the spec with a baseline, unless the baseline is the spec itself
+     * or the pair is already known to be compatible
+     */
+    private CompletableFuture<GroupCheckResult> checkBaseline(SwaggerGroup group, SwaggerBaseline baseline) throws IOException {
+        if (budget.isStopped()) {
+            return CompletableFuture.completedFuture(skipBaseline(group, baseline));
+        }
+
+        long start = System.nanoTime();
+        group.computeJsonDigest();
+        baseline.lockDigest = Digests.sha256(baseline.lockPath);
+        group.metrics.record(Phase.DIGEST, start);
+
+        String snapshotSource = GroupLocks.getSnapshotSource(baseline.lockPath);
+        boolean unchanged = snapshotSource != null
+                ? snapshotSource.equals(group.jsonDigest)
+                : baseline.lockDigest.equals(group.jsonDigest);
+        if (unchanged || caches.isCompatible(baseline.lockDigest, group.jsonDigest)) {
+            GroupCheckResult result = new GroupCheckResult();
+            result.log.info("Backwards compatibility check passed for group '" + group.name + "' against baseline '"
+                    + baseline.name + "' (" + (unchanged ? "unchanged" : "cached") + ").");
+            return CompletableFuture.completedFuture(result);
+        }
+
+        if (snapshotSource != null) {
+            return CompletableFuture.supplyAsync(() -> locks.readSnapshot(group, baseline.lockPath), executor)
+                    .thenCombineAsync(toCompactNewSwagger(group), (specOld, specNew) ->
+                            compareSwaggerGroup(group, baseline, specOld, specNew, null, null), executor);
+        }
+
+        CompletableFuture<Swagger> swaggerOld = CompletableFuture.supplyAsync(
+                () -> parseSwagger(group, baseline.lockPath, baseline.lockDigest, true), executor);
+        if (compactModel) {
+            return swaggerOld.thenApply(swagger -> toCompactSpec(group, swagger, true))
+                    .thenCombineAsync(toCompactNewSwagger(group), (specOld, specNew) ->
+                            compareSwaggerGroup(group, baseline, specOld, specNew, null, null), executor);
+        }
+
+        return swaggerOld.thenCombineAsync(parseNewSwagger(group), (specOld, specNew) ->
+                compareSwaggerGroup(group, baseline, specOld, specNew, null, null), executor);
+    }
+
+    private static GroupCheckResult skipBaseline(SwaggerGroup group, SwaggerBaseline baseline) {
+        GroupCheckResult result = new GroupCheckResult();
+        result.log.warn("Backwards compatibility check against baseline '" + baseline.name + "' skipped for group '"
+                + group.name + "'.");
+        result.partial = true;
+        result.outcome = "skipped";
+        return result;
+    }
+
+    /**
+     * Checks whether the spec is byte identical to the lock, or is the one the
+     * lock snapshot was taken from, or whether the pair is already known to be
+     * compatible, in which case nothing needs to be parsed.
+     *
+     * @return the check result, or null when the specs need to be compared
+     */
+    private GroupCheckResult checkUnchangedSwaggerGroup(SwaggerGroup group) {
+        group.metrics.start();
+        group.deadline = budget.getGroupDeadline();
+        try {
+            String snapshotSource = GroupLocks.getSnapshotSource(group.lockPath);
+            group.snapshotLock = snapshotSource != null;
+
+            boolean unchanged = false;
+            if (group.snapshotLock) {
+                group.computeDigests();
+                unchanged = snapshotSource.equals(group.jsonDigest);
+            } else if (Files.size(group.jsonPath) == Files.size(group.lockPath)) {
+                group.computeDigests();
+                unchanged = group.jsonDigest.equals(group.lockDigest);
+            }
+
+            if (unchanged) {
+                GroupCheckResult result = new GroupCheckResult();
+                result.log.info("Backwards compatibility check passed for group '" + group.name + "' (unchanged).");
+                result.outcome = "unchanged";
+                if (group.snapshotLock && GroupLocks.isOtherSnapshotVersion(group.lockPath)) {
+                    // Taken from this very spec, the snapshot can be written again in the current version
+                    result.lockUpdate = locks.update(group, () -> GroupLocks.toSnapshot(group, parseNewSwaggerNow(group)), null);
+                }
+                return result;
+            }
+
+            if (caches.cachesResults()) {
+                group.computeDigests();
+
+                if (caches.isCompatible(group.lockDigest, group.jsonDigest)) {
+                    GroupCheckResult result = new GroupCheckResult();
+                    result.lockUpdate = locks.update(group, () -> GroupLocks.toSnapshot(group, parseNewSwaggerNow(group)), null);
+                    result.log.info("Backwards compatibility check passed for group '" + group.name + "' (cached).");
+                    result.outcome = "cached";
+                    return result;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return null;
+    }
+
+    private CompletableFuture<GroupCheckResult> compareSwaggerGroup(SwaggerGroup group) {
+        if (caches.cachesSpecs()) {
+            try {
+                // Computed before parsing both specs concurrently
+                group.computeDigests();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        CompletableFuture<Swagger> swaggerNew = parseNewSwagger(group);
+
+        if (group.snapshotLock) {
+            return compareSnapshotGroup(group, swaggerNew);
+        }
+
+        if (!locks.isHashed()) {
+            CompletableFuture<Swagger> swaggerOld = CompletableFuture.supplyAsync(() -> parseSwagger(group, true), executor);
+            CompletableFuture<SpecHashes> noHashes = CompletableFuture.completedFuture(null);
+            return compareSwaggerGroup(group, swaggerOld, noHashes, swaggerNew, noHashes);
+        }
+
+        CompletableFuture<SpecHashes> hashesNew = swaggerNew.thenApply(swagger -> toSpecHashes(group, swagger));
+
+        SpecHashes lockHashes = locks.readHashes(group);
+        if (lockHashes == null) {
+            CompletableFuture<Swagger> swaggerOld = CompletableFuture.supplyAsync(() -> parseSwagger(group, true), executor);
+            return compareSwaggerGroup(group, swaggerOld, swaggerOld.thenApply(swagger -> toSpecHashes(group, swagger)),
+                    swaggerNew, hashesNew);
+        }
+
+        return hashesNew.thenCompose(newHashes -> {
+            if (newHashes != null && newHashes.getRootHash().equals(lockHashes.getRootHash())) {
+                return CompletableFuture.completedFuture(passEquivalentSwaggerGroup(group, swaggerNew.join(), newHashes));
+            }
+
+            CompletableFuture<Swagger> swaggerOld = CompletableFuture.supplyAsync(() -> parseSwagger(group, true), executor);
+            return compareSwaggerGroup(group, swaggerOld, CompletableFuture.completedFuture(lockHashes),
+                    swaggerNew, hashesNew);
+        });
+    }
+
+    /**
+     * Compares the specs once parsed, skipping the parts having the same hashes
+     * when the hashes of both specs are known
+     */
+    private CompletableFuture<GroupCheckResult> compareSwaggerGroup(SwaggerGroup group,
+                                                                    CompletableFuture<Swagger> swaggerOld, CompletableFuture<SpecHashes> hashesOld,
+                                                                    CompletableFuture<Swagger> swaggerNew, CompletableFuture<SpecHashes> hashesNew) {
+        CompletableFuture<SpecHashes[]> hashes = hashesOld.thenCombine(hashesNew,
+                (oldHashes, newHashes) -> new SpecHashes[] { oldHashes, newHashes });
+
+        if (compactModel) {
+            CompletableFuture<CompactSpec> compactOld = swaggerOld.thenApply(swagger -> toCompactSpec(group, swagger, true));
+            CompletableFuture<CompactSpec> compactNew = toCompactNewSwagger(group);
+
+            return compactOld.thenCombine(compactNew, (oldSpec, newSpec) -> new CompactSpec[] { oldSpec, newSpec })
+                    .thenCombineAsync(hashes, (specs, specHashes) -> compareSwaggerGroup(group, null, specs[0], specs[1],
+                            withoutNodes(specHashes[0]), withoutNodes(specHashes[1])), executor);
+        }
+
+        return swaggerOld.thenCombine(swaggerNew, (oldSpec, newSpec) -> new Swagger[] { oldSpec, newSpec })
+                .thenCombineAsync(hashes, (specs, specHashes) -> compareSwaggerGroup(group, null, specs[0], specs[1],
+                        specHashes[0], specHashes[1]), executor);
+    }
+
+    /**
+     * Compares the snapshot stored in the lock with the compact representation of the spec,
+     * skipping the paths having the same hashes when the hashes of the lock are known
+     */
+    private CompletableFuture<GroupCheckResult> compareSnapshotGroup(SwaggerGroup group, CompletableFuture<Swagger> swaggerNew) {
+        SpecHashes lockHashes = locks.isHashed() ? locks.readHashes(group) : null;
+        CompletableFuture<SpecHashes> hashesNew = locks.isHashed()
+                ? swaggerNew.thenApply(swagger -> toSpecHashes(group, swagger))
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<CompactSpec> compactOld = lockHashes == null
+                ? CompletableFuture.supplyAsync(() -> locks.readSnapshot(group, group.lockPath), executor)
+                : null;
+
+        return hashesNew.thenCompose(newHashes -> {
+            if (lockHashes != null && newHashes != null && newHashes.getRootHash().equals(lockHashes.getRootHash())) {
+                return CompletableFuture.completedFuture(passEquivalentSwaggerGroup(group, swaggerNew.join(), newHashes));
+            }
+
+            CompletableFuture<CompactSpec> oldSpec = compactOld != null
+                    ? compactOld
+                    : CompletableFuture.supplyAsync(() -> locks.readSnapshot(group, group.lockPath), executor);
+            return oldSpec.thenCombineAsync(toCompactNewSwagger(group), (specOld, specNew) -> compareSwaggerGroup(group, null, specOld, specNew,
+                    lockHashes, withoutNodes(newHashes)), executor);
+        });
+    }
+
+    /**
+     * Passes a spec having the same structural hash as the lock, only differing
+     * from it by its formatting or the order of its keys
+     */
+    private GroupCheckResult passEquivalentSwaggerGroup(SwaggerGroup group, Swagger swagger, SpecHashes hashes) {
+        GroupCheckResult result = new GroupCheckResult();
+        result.lockUpdate = locks.update(group, () -> GroupLocks.toSnapshot(group, swagger), hashes);
+        result.log.info("Backwards compatibility check passed for group '" + group.name + "' (equivalent).");
+        result.outcome = "equivalent";
+        return result;
+    }
+
+    private static SpecHashes toSpecHashes(SwaggerGroup group, Swagger swagger) {
+        if (swagger == null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        SpecHashes hashes = SpecHashes.of(swagger);
+        group.metrics.record(Phase.HASH, start);
+        return hashes;
+    }
+
+    private static SpecHashes withoutNodes(SpecHashes hashes) {
+        return hashes != null ? hashes.withoutNodes() : null;
+    }
+
+    private CompactSpec toCompactSpec(SwaggerGroup group, Swagger swagger, boolean lock) {
+        if (swagger == null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        CompactSpec compactSpec = CompactSpec.of(swagger);
+        group.metrics.record(Phase.COMPACT, start);
+
+        if (collectMetrics) {
+            setSpecSize(group, lock, compactSpec.getEstimatedSize());
+        }
+        return compactSpec;
+    }
+
+    private static void setSpecSize(SwaggerGroup group, boolean lock, long size) {
+        if (lock) {
+            group.metrics.setOldSpecSize(size);
+        } else {
+            group.metrics.setNewSpecSize(size);
+        }
+    }
+
+    private GroupCheckResult initializeSwaggerGroup(SwaggerGroup group) {
+        group.metrics.start();
+
+        GroupCheckResult result = new GroupCheckResult();
+        if (!locks.isUpdated()) {
+            result.log.info("No lock file for group '" + group.name + "', nothing to check.");
+            result.outcome = "new";
+            return result;
+        }
+
+        Runnable lockUpdate = locks.update(group, () -> GroupLocks.toSnapshot(group, parseNewSwaggerNow(group)), null);
+        result.lockUpdate = () -> {
+            group.lockPath = group.module.lockDir.resolve(group.name + ".lock");
+            lockUpdate.run();
+        };
+        result.log.info("Initialized compatibility check for group '" + group.name + "'.");
+        result.outcome = "initialized";
+        return result;
+    }
+
+    /**
+     * @return the spec of the group, parsed once for the comparisons with the lock and with the baselines
+     */
+    private CompletableFuture<Swagger> parseNewSwagger(SwaggerGroup group) {
+        synchronized (group) {
+            if (group.swaggerNew == null) {
+                group.swaggerNew = CompletableFuture.supplyAsync(() -> parseSwagger(group, false), executor);
+            }
+            return group.swaggerNew;
+        }
+    }
+
+    /**
+     * Parses the spec of the group on the calling thread, unless it was parsed for a baseline
+     *
+     * Only called once the baselines are checked, so the spec is either parsed or not requested.
+     */
+    private Swagger parseNewSwaggerNow(SwaggerGroup group) {
+        CompletableFuture<Swagger> parsed;
+        synchronized (group) {
+            parsed = group.swaggerNew;
+        }
+        if (parsed != null) {
+            return parsed.join();
+        }
+
+        Swagger swagger = parseSwagger(group, false);
+        synchronized (group) {
+            group.swaggerNew = CompletableFuture.completedFuture(swagger);
+        }
+        return swagger;
+    }
+
+    /**
+     * @return the compact representation of the spec of the group, shared by the comparisons
+     *         with the lock and with the baselines
+     */
+    private CompletableFuture<CompactSpec> toCompactNewSwagger(SwaggerGroup group) {
+        synchronized (group) {
+            if (group.compactNew == null) {
+                group.compactNew = parseNewSwagger(group).thenApply(swagger -> toCompactSpec(group, swagger, false));
+            }
+            return group.compactNew;
+        }
+    }
+
+    private Swagger parseSwagger(SwaggerGroup group, boolean lock) {
+        return lock ? parseSwagger(group, group.lockPath, group.lockDigest, true)
+                : parseSwagger(group, group.jsonPath, group.jsonDigest, false);
+    }
+
+    /**
+     * @param digest the digest of the file, only used when the parsed specs are cached
+     */
+    private Swagger parseSwagger(SwaggerGroup group, Path path, String digest, boolean lock) {
+        long start = System.nanoTime();
+        Object event = CheckEvents.beginSpecParse();
+        Swagger swagger;
+        try {
+            swagger = caches.load(loader, path, digest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CheckEvents.commitSpecParse(event, group.name, group.getRole(path, lock), path, swagger);
+        group.metrics.record(lock ? Phase.PARSE_OLD : Phase.PARSE_NEW, start);
+
+        if (collectMetrics && !compactModel && swagger != null) {
+            setSpecSize(group, lock, SpecFootprint.estimate(swagger));
+        }
+        return swagger;
+    }
+
+    private GroupCheckResult compareSwaggerGroup(SwaggerGroup group, SwaggerBaseline baseline, Swagger swaggerOld, Swagger swaggerNew,
+                                                 SpecHashes hashesOld, SpecHashes hashesNew) {
+        int paths = swaggerOld != null && swaggerNew != null ? countPaths(swaggerOld, swaggerNew) : 0;
+        Predicate<GroupViolationSink> parallelWalk = null;
+        if (walkPool != null && swaggerOld != null && swaggerNew != null && paths >= parallelWalkPaths) {
+            parallelWalk = sink -> {
+                ParallelSwaggerDiffWalker walker = new ParallelSwaggerDiffWalker(walkPool);
+                walker.setStopCondition(budget.getStopCondition(group.deadline));
+                for (PartitionRules rules : walker.walk(() -> new PartitionRules(group, budget), swaggerOld, swaggerNew,
+                        hashesOld, hashesNew)) {
+                    rules.violations.forEach(sink::acceptCounted);
+                }
+                return !walker.isStopped();
+            };
+        }
+
+        return compareSwaggerGroup(group, baseline, swaggerOld != null, swaggerNew != null, () -> GroupLocks.toSnapshot(group, swaggerNew), hashesNew,
+                "object", paths, rules -> {
+            SwaggerDiffWalker walker = new SwaggerDiffWalker();
+            walker.setStopCondition(budget.getStopCondition(group.deadline));
+            walker.walk(rules, swaggerOld, swaggerNew, hashesOld, hashesNew);
+            return !walker.isStopped();
+        }, parallelWalk);
+    }
+
+    private static int countPaths(Swagger swaggerOld, Swagger swaggerNew) {
+        return Math.max(swaggerOld.getPaths() != null ? swaggerOld.getPaths().size() : 0,
+                swaggerNew.getPaths() != null ? swaggerNew.getPaths().size() : 0);
+    }
+
+    private GroupCheckResult compareSwaggerGroup(SwaggerGroup group, SwaggerBaseline baseline, CompactSpec swaggerOld, CompactSpec swaggerNew,
+                                                 SpecHashes hashesOld, SpecHashes hashesNew) {
+        int paths = swaggerOld != null && swaggerNew != null
+                ? Math.max(swaggerOld.getChildCount(swaggerOld.getRoot()), swaggerNew.getChildCount(swaggerNew.getRoot()))
+                : 0;
+        return compareSwaggerGroup(group, baseline, swaggerOld != null, swaggerNew != null, () -> swaggerNew, hashesNew,
+                "compact", paths, rules -> {
+            CompactSwaggerDiffWalker walker = new CompactSwaggerDiffWalker();
+            walker.setStopCondition(budget.getStopCondition(group.deadline));
+            walker.walk(rules, swaggerOld, swaggerNew, hashesOld, hashesNew);
+            return !walker.isStopped();
+        }, null);
+    }
+
+    /**
+     * Compares the spec with the lock of the group or with one of its baselines,
+     * updating the lock when the spec is compatible with it
+     *
+     * @param baseline the baseline compared with the spec, or null for the lock
+     * @param snapshot supplies the compact representation of the new spec, written to binary locks
+     * @param walker the kind of walker comparing the specs, and the number of paths of the
+     *               largest spec, recorded by the walk event
+     * @param walk walks the specs with the specified visitor, returning whether the walk completed
+     * @param parallelWalk walks the specs on several threads with rules of its own, adding their violations
+     *                     to the budget as they are found and passing them to the specified sink once
+     *                     the walk is done, or null to walk the specs on this thread
+     */
+    private GroupCheckResult compareSwaggerGroup(SwaggerGroup group, SwaggerBaseline baseline, boolean oldParsed, boolean newParsed,
+                                                 Supplier<CompactSpec> snapshot, SpecHashes hashesNew, String walker, int paths,
+                                                 Predicate<SwaggerDiffVisitor> walk, Predicate<GroupViolationSink> parallelWalk) {
+        GroupCheckResult result = new GroupCheckResult();
+        String against = baseline != null ? " against baseline '" + baseline.name + "'" : "";
+
+        if (!oldParsed) {
+            Path lockPath = baseline != null ? baseline.lockPath : group.lockPath;
+            if (GroupLocks.isOtherSnapshotVersion(lockPath)) {
+                result.log.error("The Swagger lock file " + lockPath + " is a snapshot written by another version of the plugin, "
+                        + "check the spec it was taken from to update it, or delete it to initialize the check again.");
+            } else {
+                result.log.error("Unable to parse Swagger lock file: " + lockPath);
+            }
+            result.failed = true;
+            result.outcome = "unparseable";
+            return result;
+        }
+
+        if (!newParsed) {
+            result.log.error("Unable to parse Swagger spec: " + group.jsonPath);
+            result.failed = true;
+            result.outcome = "unparseable";
+            return result;
+        }
+
+        if (budget.isStopped()) {
+            return baseline != null ? skipBaseline(group, baseline) : skipSwaggerGroup(group);
+        }
+
+        boolean completed;
+        long violations;
+        long start = System.nanoTime();
+        Object event = CheckEvents.beginWalk();
+        try (GroupViolationSink sink = new GroupViolationSink(group.name, baseline != null ? baseline.name : null, result.log,
+                maxLoggedViolations, createReportWriters(group, baseline), budget)) {
+            if (collectMetrics) {
+                ProfiledRule[] profiledRules = Arrays.stream(createRules()).map(ProfiledRule::new).toArray(ProfiledRule[]::new);
+                CompositeRule rules = new CompositeRule(CheckEvents.recordRuleCallbacks(group.name, profiledRules));
+                rules.setSink(sink);
+                ProfiledRule profiledComposite = new ProfiledRule(rules);
+                completed = walk.test(profiledComposite);
+                if (baseline == null) {
+                    group.metrics.recordWalk(profiledComposite, profiledRules);
+                }
+            } else if (parallelWalk != null) {
+                walker = "parallel";
+                completed = parallelWalk.test(sink);
+            } else {
+                CompositeRule rules = new CompositeRule(CheckEvents.recordRuleCallbacks(group.name, createRules()));
+                rules.setSink(sink);
+                completed = walk.test(rules);
+            }
+            violations = sink.getCount();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CheckEvents.commitWalk(event, group.name, baseline != null ? baseline.name : null, walker, paths, violations, completed);
+        group.metrics.record(Phase.WALK, start);
+        result.violations = violations;
+
+        if (!completed) {
+            result.partial = true;
+            result.log.warn("Backwards compatibility check stopped for group '" + group.name + "'" + against + ", "
+                    + violations + " violation(s) found in the parts of the specs compared.");
+        }
+
+        if (violations > 0) {
+            result.failed = true;
+            result.outcome = "failed";
+        } else if (!completed) {
+            result.outcome = "stopped";
+        } else {
+            try {
+                if (baseline != null) {
+                    caches.markCompatible(baseline.lockDigest, group.jsonDigest);
+                } else {
+                    if (caches.cachesResults()) {
+                        group.computeDigests();
+                        caches.markCompatible(group.lockDigest, group.jsonDigest);
+                    }
+
+                    result.lockUpdate = locks.update(group, snapshot, hashesNew);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            result.log.info("Backwards compatibility check passed for group '" + group.name + "'" + against + ".");
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates the writers of the reports of a group, the reports of a baseline being named {@code group@baseline}
+     */
+    private List<ViolationWriter> createReportWriters(SwaggerGroup group, SwaggerBaseline baseline) throws IOException {
+        if (reports.isEmpty() || group.module.reportDir == null) {
+            return Collections.emptyList();
+        }
+
+        String reportName = baseline != null ? group.name + "@" + baseline.name : group.name;
+        List<String> ruleIds = Arrays.stream(createRules())
+                .map(rule -> rule.getClass().getSimpleName())
+                .collect(Collectors.toList());
+
+        List<ViolationWriter> writers = new ArrayList<>();
+        try {
+            for (ReportFormat format : reports) {
+                writers.add(format.createWriter(group.module.reportDir, reportName, group.jsonPath, ruleIds));
+            }
+        } catch (IOException e) {
+            for (ViolationWriter writer : writers) {
+                try {
+                    writer.close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            throw e;
+        }
+        return writers;
+    }
+
+    /**
+     * Rules of a partition of a parallel walk, keeping their violations in the order they are found
+     *
+     * The violations are added to the budget right away, so that the fail fast and maximum violation
+     * limits stop the other partitions, and only passed to the reports once the walk is done.
+     */
+    private static final class PartitionRules extends CompositeRule {
+        private final List<Violation> violations = new ArrayList<>();
+
+        private PartitionRules(SwaggerGroup group, CheckBudget budget) {
+            super(CheckEvents.recordRuleCallbacks(group.name, createRules()));
+            setSink(violation -> {
+                violations.add(violation);
+                budget.addViolation();
+            });
+        }
+    }
+
+    public static Rule[] createRules() {
+        return new Rule[] {
+                new AddedEnumValueInResponseRule(),
+                new AddedRequiredRequestParameterRule(),
+                new ParameterLocationChangedRule(),
+                new PropertyRemovedInResponseRule(),
+                new PropertyTypeChangedRule(),
+                new RemovedEnumValueInRequestRule(),
+                new RemovedOperationRule()
+        };
+    }
+
+    /**
+     * Identifies the implementation of the check, cached results are discarded
+     * whenever the rules or the walker change.
+     *
+     * When running from the plugin jar, the whole jar is used, so that any change
+     * to the classes involved in the check is taken into account.
+     */
+    public static String getRuleSetFingerprint() throws IOException {
+        CodeSource codeSource = CompatibilityChecker.class.getProtectionDomain().getCodeSource();
+        if (codeSource != null) {
+            try {
+                Path pluginJar = Paths.get(codeSource.getLocation().toURI());
+                if (Files.isRegularFile(pluginJar)) {
+                    return Digests.sha256(pluginJar);
+                }
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // Fall back to the main classes of the check
+            }
+        }
+
+        Class<?>[] classes = Stream.concat(
+                Arrays.stream(createRules()).map(Object::getClass),
+                Stream.of(Rule.class, CompositeRule.class, SwaggerDiffWalker.class, CompactSwaggerDiffWalker.class, Location.class)
+        ).toArray(Class<?>[]::new);
+
+        return Digests.sha256(classes);
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digests of files and strings, rendered as lowercase hex strings
+ */
+final class Digests {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Digests() {
+    }
+
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                // Called on Buffer, the ByteBuffer overrides added by Java 9 are missing from Java 8
+                ((Buffer) buffer).flip();
+                digest.update(buffer);
+                ((Buffer) buffer).clear();
+            }
+        }
+
+        return toHex(digest.digest());
+    }
+
+    public static String sha256(String value) {
+        return toHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Digest of the bytecode of the specified classes, changes whenever
+     * the implementation of one of the classes changes.
+     */
+    public static String sha256(Class<?>... classes) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        for (Class<?> clazz : classes) {
+            digest.update(clazz.getName().getBytes(StandardCharsets.UTF_8));
+
+            String resource = clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class";
+            try (InputStream is = clazz.getResourceAsStream(resource)) {
+                if (is == null) {
+                    continue;
+                }
+                int length;
+                while ((length = is.read(buffer)) > 0) {
+                    digest.update(buffer, 0, length);
+                }
+            }
+        }
+
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,16 @@
+package io.kemtoa.swagger.compat;
+
+/**
+ * Result of the check of a group, with its buffered log output
+ */
+class GroupCheckResult {
+    final BufferedLog log = new BufferedLog();
+    boolean failed;
+    // Whether the group was skipped or its walk stopped, the violations found being only a part of them
+    boolean partial;
+    // Violations found against the lock and the baselines
+    long violations;
+    String outcome = "passed";
+    // Update of the lock, run once the group passed against the lock and all its baselines, or null
+    Runnable lockUpdate;
+}
@@ -0,0 +1,226 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Supplier;
+
+import io.kemtoa.swagger.compat.GroupMetrics.Phase;
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.kemtoa.swagger.compat.compact.CompactSpecFormat;
+import io.kemtoa.swagger.compat.jfr.CheckEvents;
+import io.kemtoa.swagger.compat.walker.SpecHashes;
+import io.swagger.models.Swagger;
+
+/**
+ * Reads and writes the locks of the groups checked by a {@link CompatibilityChecker}
+ *
+ * A lock is either a copy of the spec it was updated from, or a compact binary
+ * snapshot of it when {@link #binary(boolean)} is set, see {@link CompactSpecFormat}.
+ * Locks of both formats are read. The structural hashes of a lock can be kept
+ * in a sidecar file, see {@link LockHashes}.
+ *
+ * The locks are only written once their group passed the check, through the
+ * updates returned by {@link #update(SwaggerGroup, Supplier, SpecHashes)}.
+ */
+final class GroupLocks {
+
+    private boolean binary;
+    private boolean updated = true;
+    private boolean hashed;
+    private boolean collectMetrics;
+
+    /**
+     * Writes the locks as compact binary snapshots of the specs instead of copies of the specs
+     */
+    void binary(boolean binary) {
+        this.binary = binary;
+    }
+
+    /**
+     * Updates the locks, and their sidecar files, of the groups that pass the check
+     */
+    void updated(boolean updated) {
+        this.updated = updated;
+    }
+
+    /**
+     * Reads and writes the structural hashes of the locks in sidecar files
+     */
+    void hashed(boolean hashed) {
+        this.hashed = hashed;
+    }
+
+    /**
+     * Records the size of the snapshots read in the group metrics
+     */
+    void collectMetrics(boolean collectMetrics) {
+        this.collectMetrics = collectMetrics;
+    }
+
+    boolean isUpdated() {
+        return updated;
+    }
+
+    boolean isHashed() {
+        return hashed;
+    }
+
+    /**
+     * @return the digest of the spec a lock snapshot was taken from, or null if the lock is a copy of a spec
+     */
+    static String getSnapshotSource(Path lockPath) throws IOException {
+        return CompactSpecFormat.readSource(lockPath);
+    }
+
+    /**
+     * @return whether the lock is a snapshot written by another version of the plugin
+     */
+    static boolean isOtherSnapshotVersion(Path lockPath) {
+        try {
+            return CompactSpecFormat.isOtherVersion(lockPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the snapshot stored in the lock, or null if it is malformed
+     */
+    CompactSpec readSnapshot(SwaggerGroup group, Path lockPath) {
+        long start = System.nanoTime();
+        Object event = CheckEvents.beginSpecParse();
+        CompactSpec spec;
+        try {
+            spec = CompactSpecFormat.read(lockPath);
+        } catch (StreamCorruptedException | EOFException e) {
+            spec = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CheckEvents.commitSnapshotRead(event, group.name, group.getRole(lockPath, true), lockPath, spec);
+        group.metrics.record(Phase.PARSE_OLD, start);
+
+        if (collectMetrics && spec != null) {
+            group.metrics.setOldSpecSize(spec.getEstimatedSize());
+        }
+        return spec;
+    }
+
+    /**
+     * @return the hashes of the lock of the group, or null if its sidecar file is missing or out of date
+     */
+    SpecHashes readHashes(SwaggerGroup group) {
+        try {
+            group.computeDigests();
+            return LockHashes.read(group.lockPath, group.lockDigest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the compact representation of the spec written to a binary lock, or null if the spec was not parsed
+     */
+    static CompactSpec toSnapshot(SwaggerGroup group, Swagger swagger) {
+        if (swagger == null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        CompactSpec compactSpec = CompactSpec.of(swagger);
+        group.metrics.record(Phase.COMPACT, start);
+        return compactSpec;
+    }
+
+    /**
+     * Runs the update of the lock of a group once its spec passed against the lock and all the baselines,
+     * so that the lock is left untouched when the build fails
+     */
+    static void applyUpdate(SwaggerGroup group, GroupCheckResult result) {
+        if (result.lockUpdate == null) {
+            return;
+        }
+
+        if (result.failed || result.partial) {
+            result.log.info("The lock of group '" + group.name + "' was not updated, the group did not pass against all its baselines.");
+        } else {
+            result.lockUpdate.run();
+        }
+        result.lockUpdate = null;
+    }
+
+    /**
+     * @param snapshot supplies the compact representation of the spec, only used when
+     *                 writing binary locks, the spec is copied when it supplies null
+     * @param hashes the hashes of the spec, or null to leave the sidecar file untouched
+     * @return the update of the lock file, run by {@link #applyUpdate(SwaggerGroup, GroupCheckResult)},
+     *         or null when the locks are not updated
+     */
+    Runnable update(SwaggerGroup group, Supplier<CompactSpec> snapshot, SpecHashes hashes) {
+        if (!updated) {
+            return null;
+        }
+
+        return () -> {
+            try {
+                write(group, snapshot, hashes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Updates the lock file and stores the hashes of the new lock in its sidecar file
+     */
+    private void write(SwaggerGroup group, Supplier<CompactSpec> snapshot, SpecHashes hashes) throws IOException {
+        Files.createDirectories(group.module.lockDir);
+        boolean snapshotWritten = binary && writeSnapshot(group, snapshot);
+        if (!snapshotWritten) {
+            long start = System.nanoTime();
+            Object event = CheckEvents.beginLockWrite();
+            Files.copy(group.jsonPath, group.lockPath, StandardCopyOption.REPLACE_EXISTING);
+            CheckEvents.commitLockWrite(event, group.name, group.lockPath, null);
+            group.metrics.record(Phase.LOCK_WRITE, start);
+        }
+
+        if (hashes != null) {
+            group.computeDigests();
+
+            long start = System.nanoTime();
+            String lockDigest = snapshotWritten ? Digests.sha256(group.lockPath) : group.jsonDigest;
+            LockHashes.write(group.lockPath, lockDigest, hashes);
+            group.metrics.record(Phase.LOCK_WRITE, start);
+        }
+    }
+
+    /**
+     * Writes the snapshot of the spec to the lock file, recording the digest of the spec as its source
+     *
+     * @return whether the snapshot was written, false when the spec cannot be parsed
+     */
+    private static boolean writeSnapshot(SwaggerGroup group, Supplier<CompactSpec> snapshot) throws IOException {
+        long start = System.nanoTime();
+        group.computeJsonDigest();
+        group.metrics.record(Phase.DIGEST, start);
+
+        CompactSpec spec = snapshot.get();
+        if (spec == null) {
+            return false;
+        }
+
+        start = System.nanoTime();
+        Object event = CheckEvents.beginLockWrite();
+        Path temporary = group.lockPath.resolveSibling(group.lockPath.getFileName() + ".tmp");
+        CompactSpecFormat.write(spec, group.jsonDigest, temporary);
+        Files.move(temporary, group.lockPath, StandardCopyOption.REPLACE_EXISTING);
+        CheckEvents.commitLockWrite(event, group.name, group.lockPath, spec);
+        group.metrics.record(Phase.LOCK_WRITE, start);
+        return true;
+    }
+}
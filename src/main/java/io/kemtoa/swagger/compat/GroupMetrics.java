@@ -0,0 +1,170 @@
+package io.kemtoa.swagger.compat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.kemtoa.swagger.compat.rules.ProfiledRule;
+import io.kemtoa.swagger.compat.walker.DiffEvent;
+
+/**
+ * Timings and sizes collected while checking a group
+ *
+ * The phases of a group may run concurrently on different threads, the
+ * durations are accumulated atomically.
+ */
+class GroupMetrics {
+
+    enum Phase {
+        DIGEST("digest"),
+        PARSE_OLD("parseOld"),
+        PARSE_NEW("parseNew"),
+        HASH("hash"),
+        COMPACT("compact"),
+        WALK("walk"),
+        LOCK_WRITE("lockWrite");
+
+        private final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Calls made to a rule while walking the specs
+     */
+    static class RuleMetrics {
+        private final String name;
+        private final long calls;
+        private final long nanos;
+
+        private RuleMetrics(String name, long calls, long nanos) {
+            this.name = name;
+            this.calls = calls;
+            this.nanos = nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    private final String name;
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private volatile long startNanos;
+    private volatile long totalNanos;
+    private volatile String outcome;
+    private volatile long oldSpecSize = -1;
+    private volatile long newSpecSize = -1;
+    private volatile long[] visitedNodes;
+    private volatile List<RuleMetrics> rules = Collections.emptyList();
+
+    GroupMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    public void finish(String outcome) {
+        this.totalNanos = System.nanoTime() - startNanos;
+        this.outcome = outcome;
+    }
+
+    /**
+     * Adds the time elapsed since the specified start to a phase
+     */
+    public void record(Phase phase, long start) {
+        phaseNanos.addAndGet(phase.ordinal(), System.nanoTime() - start);
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOldSpecSize(long oldSpecSize) {
+        this.oldSpecSize = oldSpecSize;
+    }
+
+    public void setNewSpecSize(long newSpecSize) {
+        this.newSpecSize = newSpecSize;
+    }
+
+    /**
+     * @return the estimated memory retained by the parsed lock, or -1 if it was not parsed
+     */
+    public long getOldSpecSize() {
+        return oldSpecSize;
+    }
+
+    /**
+     * @return the estimated memory retained by the parsed spec, or -1 if it was not parsed
+     */
+    public long getNewSpecSize() {
+        return newSpecSize;
+    }
+
+    /**
+     * Records the calls made while walking the specs
+     *
+     * @param composite the profiled composite of all the rules, counting the visited nodes
+     * @param profiledRules the profiled rules
+     */
+    public void recordWalk(ProfiledRule composite, ProfiledRule[] profiledRules) {
+        long[] nodes = new long[DiffEvent.values().length];
+        for (DiffEvent event : DiffEvent.values()) {
+            nodes[event.ordinal()] = composite.getCallCount(event);
+        }
+
+        List<RuleMetrics> ruleMetrics = new ArrayList<>();
+        for (ProfiledRule rule : profiledRules) {
+            ruleMetrics.add(new RuleMetrics(rule.getRule().getClass().getSimpleName(), rule.getCallCount(), rule.getNanos()));
+        }
+
+        this.visitedNodes = nodes;
+        this.rules = ruleMetrics;
+    }
+
+    /**
+     * @return the number of nodes visited by kind, or -1 if the specs were not walked
+     */
+    public long getVisitedNodes(DiffEvent event) {
+        long[] nodes = visitedNodes;
+        return nodes != null ? nodes[event.ordinal()] : -1;
+    }
+
+    public boolean isWalked() {
+        return visitedNodes != null;
+    }
+
+    public List<RuleMetrics> getRules() {
+        return rules;
+    }
+}
@@ -0,0 +1,101 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import io.kemtoa.swagger.compat.report.ViolationWriter;
+import io.kemtoa.swagger.compat.rules.Violation;
+import io.kemtoa.swagger.compat.rules.ViolationSink;
+
+/**
+ * Receives the violations found in a group while its specs are walked
+ *
+ * The violations are counted, the first ones are logged and all of them are
+ * forwarded to the report writers, so that memory does not grow with the
+ * number of violations.
+ */
+class GroupViolationSink implements ViolationSink, Closeable {
+
+    private final String group;
+    private final String baseline;
+    private final BufferedLog log;
+    private final int maxLogged;
+    private final List<ViolationWriter> writers;
+    private final CheckBudget budget;
+    private long count;
+
+    /**
+     * @param baseline the name of the baseline the spec is compared with, or null for the lock of the group
+     * @param maxLogged the maximum number of violations logged, or a value
+     *                  lower than 1 to log all of them
+     * @param budget the limits of the check, counting the violations of all the groups
+     */
+    GroupViolationSink(String group, String baseline, BufferedLog log, int maxLogged, List<ViolationWriter> writers,
+                       CheckBudget budget) {
+        this.group = group;
+        this.baseline = baseline;
+        this.log = log;
+        this.maxLogged = maxLogged;
+        this.writers = writers;
+        this.budget = budget;
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        acceptCounted(violation);
+        budget.addViolation();
+    }
+
+    /**
+     * Receives a violation already added to the budget, by a partition of a
+     * parallel walk as soon as it was found
+     */
+    void acceptCounted(Violation violation) {
+        count++;
+        if (count == 1) {
+            String against = baseline != null ? " against baseline '" + baseline + "'" : "";
+            log.error("Backwards incompatible changes were found for group '" + group + "'" + against + ":");
+        }
+        if (baseline != null) {
+            violation = violation.withBaseline(baseline);
+        }
+        if (maxLogged < 1 || count <= maxLogged) {
+            log.error(violation.toString());
+        }
+
+        for (ViolationWriter writer : writers) {
+            writer.accept(violation);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Logs the number of violations not logged and completes the reports
+     */
+    @Override
+    public void close() throws IOException {
+        if (maxLogged >= 1 && count > maxLogged) {
+            log.error("... and " + (count - maxLogged) + " more.");
+        }
+
+        IOException exception = null;
+        for (ViolationWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
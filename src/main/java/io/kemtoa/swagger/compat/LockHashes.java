@@ -0,0 +1,96 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.kemtoa.swagger.compat.walker.SpecHashes;
+
+/**
+ * Sidecar file storing the structural hashes of a lock file
+ *
+ * The sidecar of {@code group.lock} is named {@code group.lock.hashes}. It
+ * records the version of its format and of the hash function, the digest of
+ * the lock it was computed from, the root hash and the hash of each path, one
+ * per line:
+ *
+ * <pre>
+ * format &lt;format version&gt; hashes &lt;hash function version&gt;
+ * lock &lt;sha-256 of the lock file&gt;
+ * root &lt;hex hash&gt;
+ * path &lt;hex hash&gt; &lt;path key&gt;
+ * </pre>
+ *
+ * The hashes are written as 32 hexadecimal digits, see {@link SpecHashes.Hash}.
+ *
+ * A sidecar written with other versions, or whose digest does not match the
+ * current lock, is ignored.
+ */
+final class LockHashes {
+
+    private static final String SUFFIX = ".hashes";
+    private static final int FORMAT_VERSION = 1;
+    private static final String HEADER = "format " + FORMAT_VERSION + " hashes " + SpecHashes.VERSION;
+
+    private LockHashes() {
+    }
+
+    static Path getPath(Path lockPath) {
+        return lockPath.resolveSibling(lockPath.getFileName() + SUFFIX);
+    }
+
+    /**
+     * @return the hashes of the lock, or null if the sidecar is missing, malformed,
+     *         written with other versions or computed from another version of the lock
+     */
+    static SpecHashes read(Path lockPath, String lockDigest) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(getPath(lockPath), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        if (lines.size() < 3 || !lines.get(0).equals(HEADER) || !lines.get(1).equals("lock " + lockDigest)
+                || !lines.get(2).startsWith("root ")) {
+            return null;
+        }
+
+        try {
+            SpecHashes.Hash rootHash = SpecHashes.Hash.parse(lines.get(2).substring(5));
+            Map<String, SpecHashes.Hash> pathHashes = new LinkedHashMap<>();
+            for (String line : lines.subList(3, lines.size())) {
+                int separator = line.indexOf(' ', 5);
+                if (!line.startsWith("path ") || separator < 0) {
+                    return null;
+                }
+                pathHashes.put(line.substring(separator + 1), SpecHashes.Hash.parse(line.substring(5, separator)));
+            }
+            return SpecHashes.ofPaths(rootHash, pathHashes);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static void write(Path lockPath, String lockDigest, SpecHashes hashes) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.add("lock " + lockDigest);
+        lines.add("root " + hashes.getRootHash());
+        for (Map.Entry<String, SpecHashes.Hash> entry : hashes.getPathHashes().entrySet()) {
+            lines.add("path " + entry.getValue() + ' ' + entry.getKey());
+        }
+
+        Path path = getPath(lockPath);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, lines, StandardCharsets.UTF_8);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,234 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.swagger.models.Swagger;
+
+/**
+ * Parsed specs shared by all the executions of the check in the JVM
+ *
+ * On a long-lived JVM, such as the Maven daemon or an embedded build, the
+ * locks rarely change from one build to the next and are parsed only once.
+ * The specs are identified by their absolute path, size, modification time
+ * and content digest, and by the loader that parsed them. The path is part of
+ * the key since a spec may reference other files relatively to its location.
+ *
+ * The cache is bounded by the estimated memory retained by the specs, the
+ * least recently used specs being evicted first. The specs are also softly
+ * referenced, so that the garbage collector can reclaim them when the memory
+ * runs low. The parsed specs are only read by the checks, so that they can
+ * be compared concurrently.
+ */
+final class ParsedSpecCache {
+
+    private static final ParsedSpecCache SHARED = new ParsedSpecCache();
+
+    /**
+     * Counters of the cache, since the start of the JVM
+     */
+    static final class Statistics {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final long bytes;
+
+        private Statistics(long hits, long misses, long evictions, int size, long bytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.bytes = bytes;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        @Override
+        public String toString() {
+            return hits + " hits, " + misses + " misses, " + evictions + " evictions, "
+                    + size + " specs (" + (bytes >> 20) + " MB estimated)";
+        }
+
+        /**
+         * @return the counters of the cache since the specified statistics, and its current size
+         */
+        public Statistics since(Statistics start) {
+            return new Statistics(hits - start.hits, misses - start.misses, evictions - start.evictions, size, bytes);
+        }
+    }
+
+    private static final class SpecKey {
+        private final String loader;
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final String digest;
+
+        private SpecKey(String loader, Path path, long size, long lastModified, String digest) {
+            this.loader = loader;
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.digest = digest;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SpecKey)) {
+                return false;
+            }
+            SpecKey other = (SpecKey) o;
+            return size == other.size && lastModified == other.lastModified && loader.equals(other.loader)
+                    && path.equals(other.path) && digest.equals(other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(loader, path, size, lastModified, digest);
+        }
+    }
+
+    private static final class Entry {
+        private final SoftReference<Swagger> swagger;
+        private final long bytes;
+
+        private Entry(Swagger swagger, long bytes) {
+            this.swagger = new SoftReference<>(swagger);
+            this.bytes = bytes;
+        }
+    }
+
+    // In access order, the least recently used entry first
+    private final Map<SpecKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes;
+    private long bytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    ParsedSpecCache() {
+        this(Long.MAX_VALUE);
+    }
+
+    ParsedSpecCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the cache shared by all the executions of the check in the JVM
+     */
+    static ParsedSpecCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Sets the maximum estimated memory retained by the cached specs, evicting
+     * the least recently used specs if needed
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    /**
+     * Returns the parsed spec of the specified file, loading it unless the
+     * same file was already loaded by the same kind of loader
+     *
+     * @param digest the digest of the content of the file
+     * @return the parsed spec, or null if it cannot be parsed
+     */
+    public Swagger load(SpecLoader loader, Path path, String digest) throws IOException {
+        Path absolutePath = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+        SpecKey key = new SpecKey(loader.getClass().getName(), absolutePath, attributes.size(),
+                attributes.lastModifiedTime().toMillis(), digest);
+
+        Swagger swagger = get(key);
+        if (swagger != null) {
+            hits.incrementAndGet();
+            return swagger;
+        }
+
+        misses.incrementAndGet();
+        swagger = loader.load(path);
+        if (swagger != null) {
+            put(key, swagger, SpecFootprint.estimate(swagger));
+        }
+        return swagger;
+    }
+
+    private synchronized Swagger get(SpecKey key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        Swagger swagger = entry.swagger.get();
+        if (swagger == null) {
+            // Reclaimed by the garbage collector
+            remove(key, entry);
+        }
+        return swagger;
+    }
+
+    private synchronized void put(SpecKey key, Swagger swagger, long size) {
+        if (size > maxBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(key, new Entry(swagger, size));
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += size;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<SpecKey, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            iterator.remove();
+            bytes -= entry.bytes;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(SpecKey key, Entry entry) {
+        entries.remove(key);
+        bytes -= entry.bytes;
+        evictions.incrementAndGet();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized Statistics getStatistics() {
+        return new Statistics(hits.get(), misses.get(), evictions.get(), entries.size(), bytes);
+    }
+}
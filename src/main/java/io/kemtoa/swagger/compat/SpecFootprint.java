@@ -0,0 +1,175 @@
+package io.kemtoa.swagger.compat;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.AbstractSerializableParameter;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.StringProperty;
+
+/**
+ * Estimation of the memory retained by a parsed specification
+ *
+ * The estimation only accounts for the nodes involved in the check, using
+ * typical shallow sizes of the swagger-models objects on a 64-bit JVM with
+ * compressed references. It is meant to compare specs with each other, not
+ * to predict the heap usage precisely.
+ */
+final class SpecFootprint {
+
+    private static final int PATH_SIZE = 80;
+    private static final int OPERATION_SIZE = 120;
+    private static final int PARAMETER_SIZE = 120;
+    private static final int RESPONSE_SIZE = 64;
+    private static final int MODEL_SIZE = 120;
+    private static final int PROPERTY_SIZE = 96;
+    private static final int MAP_ENTRY_SIZE = 40;
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long size;
+
+    private SpecFootprint() {
+    }
+
+    static long estimate(Swagger swagger) {
+        SpecFootprint footprint = new SpecFootprint();
+        footprint.addSwagger(swagger);
+        return footprint.size;
+    }
+
+    private void addSwagger(Swagger swagger) {
+        if (swagger.getPaths() != null) {
+            for (Map.Entry<String, Path> entry : swagger.getPaths().entrySet()) {
+                addEntry(entry.getKey());
+                addPath(entry.getValue());
+            }
+        }
+
+        if (swagger.getDefinitions() != null) {
+            for (Map.Entry<String, Model> entry : swagger.getDefinitions().entrySet()) {
+                addEntry(entry.getKey());
+                addModel(entry.getValue());
+            }
+        }
+    }
+
+    private void addPath(Path path) {
+        size += PATH_SIZE;
+
+        for (Operation operation : path.getOperations()) {
+            size += OPERATION_SIZE;
+
+            if (operation.getParameters() != null) {
+                for (Parameter parameter : operation.getParameters()) {
+                    addParameter(parameter);
+                }
+            }
+
+            if (operation.getResponses() != null) {
+                for (Map.Entry<String, Response> entry : operation.getResponses().entrySet()) {
+                    addEntry(entry.getKey());
+                    size += RESPONSE_SIZE;
+                    addString(entry.getValue().getDescription());
+                    addModel(entry.getValue().getResponseSchema());
+                }
+            }
+        }
+    }
+
+    private void addParameter(Parameter parameter) {
+        size += PARAMETER_SIZE;
+        addString(parameter.getName());
+        addString(parameter.getIn());
+
+        if (parameter instanceof BodyParameter) {
+            addModel(((BodyParameter) parameter).getSchema());
+        } else if (parameter instanceof AbstractSerializableParameter) {
+            addStrings(((AbstractSerializableParameter<?>) parameter).getEnum());
+        }
+    }
+
+    private void addModel(Model model) {
+        if (model == null || !visited.add(model)) {
+            return;
+        }
+
+        size += MODEL_SIZE;
+        addProperties(model.getProperties());
+
+        if (model instanceof ModelImpl) {
+            addString(((ModelImpl) model).getType());
+            addStrings(((ModelImpl) model).getEnum());
+        } else if (model instanceof ArrayModel) {
+            addProperty(((ArrayModel) model).getItems());
+        } else if (model instanceof ComposedModel) {
+            for (Model component : ((ComposedModel) model).getAllOf()) {
+                addModel(component);
+            }
+        }
+    }
+
+    private void addProperties(Map<String, Property> properties) {
+        if (properties == null) {
+            return;
+        }
+
+        for (Map.Entry<String, Property> entry : properties.entrySet()) {
+            addEntry(entry.getKey());
+            addProperty(entry.getValue());
+        }
+    }
+
+    private void addProperty(Property property) {
+        if (property == null || !visited.add(property)) {
+            return;
+        }
+
+        size += PROPERTY_SIZE;
+
+        if (property instanceof ObjectProperty) {
+            addProperties(((ObjectProperty) property).getProperties());
+        } else if (property instanceof ArrayProperty) {
+            addProperty(((ArrayProperty) property).getItems());
+        } else if (property instanceof MapProperty) {
+            addProperty(((MapProperty) property).getAdditionalProperties());
+        } else if (property instanceof StringProperty) {
+            addStrings(((StringProperty) property).getEnum());
+        }
+    }
+
+    private void addEntry(String key) {
+        size += MAP_ENTRY_SIZE;
+        addString(key);
+    }
+
+    private void addStrings(List<String> values) {
+        if (values != null) {
+            for (String value : values) {
+                addString(value);
+            }
+        }
+    }
+
+    private void addString(String value) {
+        if (value != null) {
+            // String object and its byte array, assuming compact strings
+            size += 24 + ((16 + value.length() + 7) & ~7);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Watches the '.json' specs of a source directory
+ *
+ * Editors often write a file several times when saving it, through a
+ * temporary file or in several chunks. The changes are therefore debounced:
+ * they are reported once no spec changed during the debounce delay.
+ */
+class SpecWatcher implements Closeable {
+
+    private final Path directory;
+    private final long debounceMillis;
+    private final WatchService watchService;
+
+    SpecWatcher(Path directory, long debounceMillis) throws IOException {
+        this.directory = directory;
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Waits until at least one spec changed and no spec changed since the debounce delay
+     *
+     * @return the names of the groups whose spec changed, all the groups if some changes were lost
+     */
+    public Set<String> awaitChanges() throws IOException, InterruptedException {
+        Set<String> groups = new TreeSet<>();
+        WatchKey key = watchService.take();
+        while (true) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    addAllGroups(groups);
+                } else {
+                    String fileName = event.context().toString();
+                    if (fileName.endsWith(".json")) {
+                        groups.add(FilenameUtils.removeExtension(fileName));
+                    }
+                }
+            }
+            if (!key.reset()) {
+                throw new IOException("The directory " + directory + " is no longer accessible");
+            }
+
+            key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+            if (key == null) {
+                if (!groups.isEmpty()) {
+                    return groups;
+                }
+                key = watchService.take();
+            }
+        }
+    }
+
+    private void addAllGroups(Set<String> groups) throws IOException {
+        try (DirectoryStream<Path> jsonFiles = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path jsonFile : jsonFiles) {
+                groups.add(FilenameUtils.removeExtension(jsonFile.getFileName().toString()));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
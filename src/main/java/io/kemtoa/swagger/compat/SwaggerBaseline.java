@@ -0,0 +1,19 @@
+package io.kemtoa.swagger.compat;
+
+import java.nio.file.Path;
+
+/**
+ * Historical lock of a group, such as the spec of a released version of the API
+ *
+ * Unlike the lock of the group, a baseline is never updated.
+ */
+class SwaggerBaseline {
+    final String name;
+    final Path lockPath;
+    String lockDigest;
+
+    SwaggerBaseline(String name, Path lockPath) {
+        this.name = name;
+        this.lockPath = lockPath;
+    }
+}
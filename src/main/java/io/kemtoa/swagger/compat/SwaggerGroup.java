@@ -0,0 +1,60 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.kemtoa.swagger.compat.GroupMetrics.Phase;
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.swagger.models.Swagger;
+
+/**
+ * Spec of a group and its lock, any of them possibly missing
+ */
+class SwaggerGroup {
+    String name;
+    SwaggerModule module;
+    Path jsonPath;
+    Path lockPath;
+    // Whether the lock is a compact snapshot rather than a copy of the spec
+    boolean snapshotLock;
+    String jsonDigest;
+    String lockDigest;
+    GroupMetrics metrics;
+    long deadline;
+    // In the order of the baseline directories
+    final List<SwaggerBaseline> baselines = new ArrayList<>();
+    // The spec, parsed once and compared with the lock and all the baselines, released once the group is checked
+    CompletableFuture<Swagger> swaggerNew;
+    CompletableFuture<CompactSpec> compactNew;
+
+    void computeJsonDigest() throws IOException {
+        if (jsonDigest == null) {
+            jsonDigest = Digests.sha256(jsonPath);
+        }
+    }
+
+    /**
+     * Computes the digests of the spec and of the lock not known yet, recording the time taken in the metrics
+     */
+    void computeDigests() throws IOException {
+        long start = System.nanoTime();
+        computeJsonDigest();
+        if (lockDigest == null) {
+            lockDigest = Digests.sha256(lockPath);
+        }
+        metrics.record(Phase.DIGEST, start);
+    }
+
+    /**
+     * @return the role of a file of the group in the recorded events: spec, lock or baseline
+     */
+    String getRole(Path path, boolean lock) {
+        if (!lock) {
+            return "spec";
+        }
+        return path.equals(lockPath) ? "lock" : "baseline";
+    }
+}
@@ -0,0 +1,106 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Swagger groups of a Maven module
+ *
+ * The groups are found by listing the '.json' specs of the source directory
+ * and the '.lock' files of the lock directory. The '.lock' files of the
+ * baseline directories having a spec are the baselines of its group, named
+ * after their directory.
+ */
+class SwaggerModule {
+
+    // Null when checking a single module
+    final String name;
+    final Path sourceDir;
+    final Path lockDir;
+    // Null when no violation report is written
+    final Path reportDir;
+    // Sorted by name
+    final Map<String, SwaggerGroup> groups = new TreeMap<>();
+
+    private SwaggerModule(String name, Path sourceDir, Path lockDir, Path reportDir) {
+        this.name = name;
+        this.sourceDir = sourceDir;
+        this.lockDir = lockDir;
+        this.reportDir = reportDir;
+    }
+
+    static SwaggerModule load(String name, Path sourceDir, Path lockDir, List<Path> baselineDirs, Path reportDir) throws IOException {
+        SwaggerModule module = new SwaggerModule(name, sourceDir, lockDir, reportDir);
+
+        try (DirectoryStream<Path> jsonFilesStream = Files.newDirectoryStream(sourceDir, "*.json")) {
+            for (Path jsonPath : jsonFilesStream) {
+                SwaggerGroup group = module.getOrCreateGroup(FilenameUtils.removeExtension(jsonPath.getFileName().toString()));
+                group.jsonPath = jsonPath;
+            }
+        }
+
+        if (Files.isDirectory(lockDir)) {
+            try (DirectoryStream<Path> lockFilesStream = Files.newDirectoryStream(lockDir, "*.lock")) {
+                for (Path lockPath : lockFilesStream) {
+                    SwaggerGroup group = module.getOrCreateGroup(FilenameUtils.removeExtension(lockPath.getFileName().toString()));
+                    group.lockPath = lockPath;
+                }
+            }
+        }
+
+        for (Path baselineDir : baselineDirs) {
+            String baseline = baselineDir.getFileName().toString();
+            for (SwaggerGroup group : module.groups.values()) {
+                Path lockPath = baselineDir.resolve(group.name + ".lock");
+                if (group.jsonPath != null && Files.isRegularFile(lockPath)) {
+                    group.baselines.add(new SwaggerBaseline(baseline, lockPath));
+                }
+            }
+        }
+
+        for (SwaggerGroup group : module.groups.values()) {
+            group.metrics = new GroupMetrics(name != null ? name + ":" + group.name : group.name);
+        }
+        return module;
+    }
+
+    /**
+     * Only keeps the specified groups
+     */
+    void retainGroups(Collection<String> groupNames) {
+        groups.keySet().retainAll(groupNames);
+    }
+
+    /**
+     * Resolves a comma-separated list of directories, relatively to a base directory
+     */
+    static List<Path> resolveDirectories(Path basedir, String directories) {
+        List<Path> paths = new ArrayList<>();
+        if (directories != null) {
+            for (String directory : directories.split(",")) {
+                if (!directory.trim().isEmpty()) {
+                    paths.add(basedir.resolve(directory.trim()).normalize());
+                }
+            }
+        }
+        return paths;
+    }
+
+    private SwaggerGroup getOrCreateGroup(String groupName) {
+        return groups.computeIfAbsent(groupName, n -> {
+            SwaggerGroup group = new SwaggerGroup();
+            group.name = n;
+            group.module = this;
+            return group;
+        });
+    }
+}
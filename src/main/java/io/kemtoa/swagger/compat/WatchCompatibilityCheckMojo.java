@@ -0,0 +1,95 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+/**
+ * Continuous Swagger spec backwards compatibility check
+ *
+ * This Mojo checks all the groups once, then watches the source directory and
+ * checks again the groups whose '.json' spec is saved, until the build is
+ * interrupted. It reports whether a change is breaking without running a
+ * build.
+ *
+ * The lock files are never updated, so that the specs are always compared
+ * with the same locks: the locks and baselines are parsed once and kept in
+ * memory, see {@link ParsedSpecCache}, and only the saved spec is parsed
+ * again. Failed checks are logged and do not stop the goal.
+ *
+ * The directories and options are the ones of the
+ * {@link BackwardsCompatibilityCheckMojo}.
+ */
+@Mojo(
+    name = "watch",
+    requiresDependencyResolution = ResolutionScope.COMPILE,
+    requiresDirectInvocation = true,
+    threadSafe = true
+)
+public class WatchCompatibilityCheckMojo extends BackwardsCompatibilityCheckMojo {
+
+    /**
+     * Delay, in milliseconds, without any change to the specs before checking them again.
+     */
+    @Parameter(property = "swaggerWatchDebounce", defaultValue = "100")
+    private long debounceMillis;
+
+    @Override
+    void checkModules(List<SwaggerModule> modules, Function<CheckBudget, CompatibilityChecker> checkers,
+                      long start, long discoveryNanos) throws IOException {
+        Function<CheckBudget, CompatibilityChecker> readOnlyCheckers = checkers.andThen(checker -> checker.updateLocks(false));
+        checkAndLog(modules, readOnlyCheckers, start, discoveryNanos);
+
+        SwaggerModule module = modules.get(0);
+        try (SpecWatcher watcher = new SpecWatcher(module.sourceDir, debounceMillis)) {
+            getLog().info("Watching " + module.sourceDir + " for changes, press Ctrl-C to stop.");
+            while (true) {
+                Set<String> changedGroups = watcher.awaitChanges();
+
+                long checkStart = System.nanoTime();
+                try {
+                    List<SwaggerModule> changedModules = findModules();
+                    for (SwaggerModule changedModule : changedModules) {
+                        changedModule.retainGroups(changedGroups);
+                    }
+                    long checkDiscoveryNanos = System.nanoTime() - checkStart;
+
+                    checkAndLog(changedModules, readOnlyCheckers, checkStart, checkDiscoveryNanos);
+                } catch (IOException e) {
+                    // Such as a spec replaced by an editor while it was being read
+                    logError(e);
+                }
+                getLog().info(String.format(Locale.ROOT, "Checked %s in %.0f ms.", String.join(", ", changedGroups),
+                        (System.nanoTime() - checkStart) / 1e6));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks the groups, logging the failed checks and the errors rather than stopping the goal
+     */
+    private void checkAndLog(List<SwaggerModule> modules, Function<CheckBudget, CompatibilityChecker> checkers,
+                             long start, long discoveryNanos) {
+        try {
+            super.checkModules(modules, checkers, start, discoveryNanos);
+        } catch (MojoFailureException e) {
+            getLog().error(e.getMessage());
+        } catch (IOException | MojoExecutionException | RuntimeException e) {
+            logError(e);
+        }
+    }
+
+    private void logError(Exception e) {
+        getLog().error("An error occurred while running the Swagger compatibility check, still watching for changes.", e);
+    }
+}
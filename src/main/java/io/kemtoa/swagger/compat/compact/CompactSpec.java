@@ -0,0 +1,269 @@
+package io.kemtoa.swagger.compat.compact;
+
+import io.swagger.models.Swagger;
+
+/**
+ * Compact, array-backed representation of the contract of a Swagger specification
+ *
+ * The nodes of the document are stored in parallel primitive arrays indexed by
+ * node number, and all the names and values are stored once in a string table.
+ * The children of a node are stored contiguously, so that a node only needs
+ * the index of its first child and its child count.
+ *
+ * Node layout, by kind:
+ * <ul>
+ *     <li>{@link #ROOT}: node 0, the children are the paths.</li>
+ *     <li>{@link #PATH}: the children are the operations, in {@link io.swagger.models.HttpMethod} order.</li>
+ *     <li>{@link #OPERATION}: the children are the parameters followed by the responses,
+ *     extra is the number of parameters.</li>
+ *     <li>{@link #PARAMETER}: extra is the location of the parameter, the single child of
+ *     a body parameter is its schema.</li>
+ *     <li>{@link #RESPONSE}: the optional single child is the schema.</li>
+ *     <li>Schemas: the children are the properties for objects, the items for arrays
+ *     and the components for composed models. Extra is the reference for references,
+ *     and the offset of the enum values for strings and models.</li>
+ * </ul>
+ *
+ * The definitions are stored in a contiguous block of schema nodes. References
+ * are resolved when building the specification, the target definition of a
+ * reference is available using {@link #getRefTarget(int)}.
+ */
+public final class CompactSpec {
+
+    public static final int ROOT = 0;
+    public static final int PATH = 1;
+    public static final int OPERATION = 2;
+    public static final int PARAMETER = 3;
+    public static final int RESPONSE = 4;
+    public static final int MODEL_IMPL = 5;
+    public static final int MODEL_ARRAY = 6;
+    public static final int MODEL_REF = 7;
+    public static final int MODEL_COMPOSED = 8;
+    public static final int PROPERTY_REF = 9;
+    public static final int PROPERTY_OBJECT = 10;
+    public static final int PROPERTY_ARRAY = 11;
+    public static final int PROPERTY_STRING = 12;
+    public static final int PROPERTY_MAP = 13;
+    public static final int PROPERTY_OTHER = 14;
+
+    static final int FLAG_REQUIRED = 1;
+    static final int FLAG_HAS_PROPERTIES = 2;
+
+    /** Below this child count, children are looked up using a linear scan */
+    private static final int LINEAR_SCAN_LIMIT = 8;
+
+    // Package-private, read by CompactSpecFormat
+    final String[] strings;
+    final int nodeCount;
+    final byte[] kinds;
+    final byte[] flags;
+    final int[] names;
+    final int[] types;
+    final int[] formats;
+    final int[] extras;
+    final int[] refTargets;
+    final int[] firstChildren;
+    final int[] childCounts;
+    final int[] sortedChildren;
+    final int[] enumValues;
+    final int definitionsStart;
+    final int definitionCount;
+
+    CompactSpec(String[] strings, int nodeCount, byte[] kinds, byte[] flags, int[] names, int[] types, int[] formats,
+                int[] extras, int[] refTargets, int[] firstChildren, int[] childCounts, int[] sortedChildren,
+                int[] enumValues, int definitionsStart, int definitionCount) {
+        this.strings = strings;
+        this.nodeCount = nodeCount;
+        this.kinds = kinds;
+        this.flags = flags;
+        this.names = names;
+        this.types = types;
+        this.formats = formats;
+        this.extras = extras;
+        this.refTargets = refTargets;
+        this.firstChildren = firstChildren;
+        this.childCounts = childCounts;
+        this.sortedChildren = sortedChildren;
+        this.enumValues = enumValues;
+        this.definitionsStart = definitionsStart;
+        this.definitionCount = definitionCount;
+    }
+
+    /**
+     * Builds the compact representation of a specification
+     *
+     * The specification object is not referenced by the result and can be
+     * garbage collected as soon as this method returns.
+     */
+    public static CompactSpec of(Swagger swagger) {
+        return new CompactSpecBuilder().build(swagger);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return an estimation of the memory retained by this object, in bytes,
+     *         assuming a 64-bit JVM with compressed references
+     */
+    public long getEstimatedSize() {
+        long size = arraySize(kinds.length, 1) + arraySize(flags.length, 1);
+        for (int[] array : new int[][] { names, types, formats, extras, refTargets, firstChildren, childCounts, sortedChildren, enumValues }) {
+            size += arraySize(array.length, 4);
+        }
+
+        size += arraySize(strings.length, 4);
+        for (String string : strings) {
+            if (string != null) {
+                // String object and its byte array, assuming compact strings
+                size += 24 + arraySize(string.length(), 1);
+            }
+        }
+
+        return size;
+    }
+
+    private static long arraySize(int length, int elementSize) {
+        return (16 + (long) length * elementSize + 7) & ~7L;
+    }
+
+    public int getRoot() {
+        return 0;
+    }
+
+    public int getKind(int node) {
+        return kinds[node];
+    }
+
+    public boolean isModel(int node) {
+        return kinds[node] >= MODEL_IMPL && kinds[node] <= MODEL_COMPOSED;
+    }
+
+    public String getName(int node) {
+        return getString(names[node]);
+    }
+
+    public String getType(int node) {
+        return getString(types[node]);
+    }
+
+    public String getFormat(int node) {
+        return getString(formats[node]);
+    }
+
+    public boolean isRequired(int node) {
+        return (flags[node] & FLAG_REQUIRED) != 0;
+    }
+
+    /**
+     * @return whether an object schema has a properties map, possibly empty
+     */
+    public boolean hasProperties(int node) {
+        return (flags[node] & FLAG_HAS_PROPERTIES) != 0;
+    }
+
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int getChildCount(int node) {
+        return childCounts[node];
+    }
+
+    public int getParameterCount(int operation) {
+        return extras[operation];
+    }
+
+    public String getIn(int parameter) {
+        return getString(extras[parameter]);
+    }
+
+    public String getRef(int node) {
+        return getString(extras[node]);
+    }
+
+    /**
+     * @return the definition node referenced by a reference node, or -1 if the reference cannot be resolved
+     */
+    public int getRefTarget(int node) {
+        return refTargets[node];
+    }
+
+    /**
+     * @return the number of enum values of a schema node, or -1 if the schema is not an enumeration
+     */
+    public int getEnumCount(int node) {
+        int offset = getEnumOffset(node);
+        return offset >= 0 ? enumValues[offset] : -1;
+    }
+
+    public String getEnumValue(int node, int index) {
+        return getString(enumValues[getEnumOffset(node) + 1 + index]);
+    }
+
+    private int getEnumOffset(int node) {
+        int kind = kinds[node];
+        return kind == MODEL_IMPL || kind == PROPERTY_STRING ? extras[node] : -1;
+    }
+
+    public int getDefinitionsStart() {
+        return definitionsStart;
+    }
+
+    public int getDefinitionCount() {
+        return definitionCount;
+    }
+
+    /**
+     * Finds a node by name among the consecutive siblings in the [from, to) range
+     *
+     * When several siblings have the same name, the first one is returned.
+     *
+     * @return the index of the node, or -1 if there is no node with this name
+     */
+    public int findChild(int from, int to, String name) {
+        if (to - from <= LINEAR_SCAN_LIMIT) {
+            for (int node = from; node < to; node++) {
+                if (name.equals(getString(names[node]))) {
+                    return node;
+                }
+            }
+            return -1;
+        }
+
+        // Leftmost match in the sorted permutation, the sort being stable it is also the first sibling
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String midName = getString(names[sortedChildren[mid]]);
+            if (midName == null || midName.compareTo(name) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low < to && name.equals(getString(names[sortedChildren[low]])) ? sortedChildren[low] : -1;
+    }
+
+    public int findDefinition(String name) {
+        return findChild(definitionsStart, definitionsStart + definitionCount, name);
+    }
+
+    /**
+     * @return an estimation of the heap space used by this representation, in bytes
+     */
+    public long estimateRetainedSize() {
+        long size = 2L * nodeCount + 8L * 4 * nodeCount + 4L * enumValues.length;
+        for (String string : strings) {
+            size += string != null ? 40 + 2L * string.length() : 0;
+        }
+        return size + 8L * strings.length;
+    }
+
+    private String getString(int id) {
+        return id >= 0 ? strings[id] : null;
+    }
+}
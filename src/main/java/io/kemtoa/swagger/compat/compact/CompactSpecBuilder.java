@@ -0,0 +1,377 @@
+package io.kemtoa.swagger.compat.compact;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.kemtoa.swagger.compat.walker.ModelFlattener;
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.SerializableParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
+/**
+ * Builds a {@link CompactSpec} from a Swagger specification object graph
+ *
+ * Nodes are allocated breadth first: when a node is expanded, a contiguous
+ * block is reserved for all of its children, then each child is queued to
+ * be expanded in turn.
+ *
+ * Composed models are stored flattened, see {@link ModelFlattener}.
+ */
+class CompactSpecBuilder {
+
+    private static final HttpMethod[] METHODS = {
+            HttpMethod.GET, HttpMethod.PUT, HttpMethod.POST, HttpMethod.DELETE,
+            HttpMethod.PATCH, HttpMethod.HEAD, HttpMethod.OPTIONS
+    };
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    private int nodeCount;
+    private byte[] kinds = new byte[256];
+    private byte[] flags = new byte[256];
+    private int[] names = new int[256];
+    private int[] types = new int[256];
+    private int[] formats = new int[256];
+    private int[] extras = new int[256];
+    private int[] refTargets = new int[256];
+    private int[] firstChildren = new int[256];
+    private int[] childCounts = new int[256];
+    private Object[] sources = new Object[256];
+
+    private int[] enumValues = new int[64];
+    private int enumValuesLength;
+
+    private final Map<String, Integer> definitionNodes = new HashMap<>();
+    private final Deque<Integer> pending = new ArrayDeque<>();
+    private ModelFlattener flattener;
+
+    public CompactSpec build(Swagger swagger) {
+        flattener = new ModelFlattener(swagger);
+        int root = allocate(1);
+        set(root, CompactSpec.ROOT, null, swagger);
+
+        Map<String, Model> definitions = swagger.getDefinitions() != null ? swagger.getDefinitions() : Collections.emptyMap();
+        int definitionsStart = allocate(definitions.size());
+        int node = definitionsStart;
+        for (Map.Entry<String, Model> entry : definitions.entrySet()) {
+            definitionNodes.put(entry.getKey(), node++);
+        }
+        node = definitionsStart;
+        for (Map.Entry<String, Model> entry : definitions.entrySet()) {
+            setModel(node++, entry.getKey(), entry.getValue());
+        }
+
+        while (!pending.isEmpty()) {
+            expand(pending.poll());
+        }
+
+        int[] sortedChildren = sortChildren(definitionsStart, definitions.size());
+
+        return new CompactSpec(
+                strings.toArray(new String[0]), nodeCount,
+                Arrays.copyOf(kinds, nodeCount), Arrays.copyOf(flags, nodeCount),
+                Arrays.copyOf(names, nodeCount), Arrays.copyOf(types, nodeCount),
+                Arrays.copyOf(formats, nodeCount), Arrays.copyOf(extras, nodeCount),
+                Arrays.copyOf(refTargets, nodeCount), Arrays.copyOf(firstChildren, nodeCount),
+                Arrays.copyOf(childCounts, nodeCount), sortedChildren,
+                Arrays.copyOf(enumValues, enumValuesLength), definitionsStart, definitions.size()
+        );
+    }
+
+    private void expand(int node) {
+        Object source = sources[node];
+        sources[node] = null;
+
+        switch (kinds[node]) {
+            case CompactSpec.ROOT: {
+                Map<String, Path> paths = ((Swagger) source).getPaths();
+                if (paths == null) {
+                    return;
+                }
+                int child = allocateChildren(node, paths.size());
+                for (Map.Entry<String, Path> entry : paths.entrySet()) {
+                    set(child++, CompactSpec.PATH, entry.getKey(), entry.getValue());
+                }
+                break;
+            }
+            case CompactSpec.PATH: {
+                Map<HttpMethod, Operation> operations = ((Path) source).getOperationMap();
+                int child = allocateChildren(node, operations.size());
+                for (HttpMethod method : METHODS) {
+                    Operation operation = operations.get(method);
+                    if (operation != null) {
+                        set(child++, CompactSpec.OPERATION, method.name(), operation);
+                    }
+                }
+                break;
+            }
+            case CompactSpec.OPERATION: {
+                Operation operation = (Operation) source;
+                List<Parameter> parameters = operation.getParameters() != null ? operation.getParameters() : Collections.emptyList();
+                Map<String, Response> responses = operation.getResponses() != null ? operation.getResponses() : Collections.emptyMap();
+
+                extras[node] = parameters.size();
+                int child = allocateChildren(node, parameters.size() + responses.size());
+                for (Parameter parameter : parameters) {
+                    setParameter(child++, parameter);
+                }
+                for (Map.Entry<String, Response> entry : responses.entrySet()) {
+                    set(child++, CompactSpec.RESPONSE, entry.getKey(), entry.getValue());
+                }
+                break;
+            }
+            case CompactSpec.PARAMETER: {
+                Model schema = ((BodyParameter) source).getSchema();
+                if (schema != null) {
+                    setModel(allocateChildren(node, 1), null, schema);
+                }
+                break;
+            }
+            case CompactSpec.RESPONSE: {
+                Model schema = ((Response) source).getResponseSchema();
+                if (schema != null) {
+                    setModel(allocateChildren(node, 1), null, schema);
+                }
+                break;
+            }
+            case CompactSpec.MODEL_IMPL:
+            case CompactSpec.PROPERTY_OBJECT: {
+                Map<String, Property> properties = source instanceof Model
+                        ? ((Model) source).getProperties()
+                        : ((ObjectProperty) source).getProperties();
+                if (properties == null) {
+                    return;
+                }
+                flags[node] |= CompactSpec.FLAG_HAS_PROPERTIES;
+                int child = allocateChildren(node, properties.size());
+                for (Map.Entry<String, Property> entry : properties.entrySet()) {
+                    setProperty(child++, entry.getKey(), entry.getValue());
+                }
+                break;
+            }
+            case CompactSpec.MODEL_ARRAY:
+            case CompactSpec.PROPERTY_ARRAY: {
+                Property items = source instanceof ArrayModel
+                        ? ((ArrayModel) source).getItems()
+                        : ((ArrayProperty) source).getItems();
+                if (items != null) {
+                    setProperty(allocateChildren(node, 1), "items", items);
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private void setParameter(int node, Parameter parameter) {
+        set(node, CompactSpec.PARAMETER, parameter.getName(), parameter instanceof BodyParameter ? parameter : null);
+        extras[node] = intern(parameter.getIn());
+        if (parameter.getRequired()) {
+            flags[node] |= CompactSpec.FLAG_REQUIRED;
+        }
+        if (parameter instanceof SerializableParameter) {
+            SerializableParameter serializable = (SerializableParameter) parameter;
+            types[node] = intern(serializable.getType());
+            formats[node] = intern(serializable.getFormat());
+        }
+    }
+
+    private void setModel(int node, String name, Model model) {
+        if (model instanceof RefModel) {
+            set(node, CompactSpec.MODEL_REF, name, null);
+            setRef(node, ((RefModel) model).getSimpleRef());
+        } else if (model instanceof ArrayModel) {
+            set(node, CompactSpec.MODEL_ARRAY, name, model);
+            types[node] = intern(((ArrayModel) model).getType());
+        } else if (model instanceof ComposedModel) {
+            setModel(node, name, flattener.flatten(model));
+        } else {
+            set(node, CompactSpec.MODEL_IMPL, name, model);
+            if (model instanceof ModelImpl) {
+                ModelImpl impl = (ModelImpl) model;
+                types[node] = intern(impl.getType());
+                formats[node] = intern(impl.getFormat());
+                extras[node] = addEnumValues(impl.getEnum());
+            }
+        }
+    }
+
+    private void setProperty(int node, String name, Property property) {
+        if (property instanceof RefProperty) {
+            set(node, CompactSpec.PROPERTY_REF, name, null);
+            setRef(node, ((RefProperty) property).getSimpleRef());
+        } else if (property instanceof ObjectProperty) {
+            set(node, CompactSpec.PROPERTY_OBJECT, name, property);
+        } else if (property instanceof ArrayProperty) {
+            set(node, CompactSpec.PROPERTY_ARRAY, name, property);
+        } else if (property instanceof StringProperty) {
+            set(node, CompactSpec.PROPERTY_STRING, name, null);
+            extras[node] = addEnumValues(((StringProperty) property).getEnum());
+        } else if (property instanceof MapProperty) {
+            set(node, CompactSpec.PROPERTY_MAP, name, null);
+        } else {
+            set(node, CompactSpec.PROPERTY_OTHER, name, null);
+        }
+
+        types[node] = intern(property.getType());
+        formats[node] = intern(property.getFormat());
+        if (property.getRequired()) {
+            flags[node] |= CompactSpec.FLAG_REQUIRED;
+        }
+    }
+
+    private void setRef(int node, String simpleRef) {
+        extras[node] = intern(simpleRef);
+        Integer target = simpleRef != null ? definitionNodes.get(simpleRef) : null;
+        refTargets[node] = target != null ? target : -1;
+    }
+
+    private void set(int node, int kind, String name, Object expandable) {
+        kinds[node] = (byte) kind;
+        names[node] = intern(name);
+        if (expandable != null) {
+            sources[node] = expandable;
+            pending.add(node);
+        }
+    }
+
+    private int allocateChildren(int parent, int count) {
+        int first = allocate(count);
+        firstChildren[parent] = first;
+        childCounts[parent] = count;
+        return first;
+    }
+
+    private int allocate(int count) {
+        int first = nodeCount;
+        nodeCount += count;
+
+        if (nodeCount > kinds.length) {
+            int capacity = Math.max(nodeCount, kinds.length * 2);
+            kinds = Arrays.copyOf(kinds, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            names = Arrays.copyOf(names, capacity);
+            types = Arrays.copyOf(types, capacity);
+            formats = Arrays.copyOf(formats, capacity);
+            extras = Arrays.copyOf(extras, capacity);
+            refTargets = Arrays.copyOf(refTargets, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+            sources = Arrays.copyOf(sources, capacity);
+        }
+
+        for (int node = first; node < nodeCount; node++) {
+            types[node] = -1;
+            formats[node] = -1;
+            extras[node] = -1;
+            refTargets[node] = -1;
+        }
+
+        return first;
+    }
+
+    private int addEnumValues(List<String> values) {
+        if (values == null) {
+            return -1;
+        }
+
+        int offset = enumValuesLength;
+        enumValuesLength += values.size() + 1;
+        if (enumValuesLength > enumValues.length) {
+            enumValues = Arrays.copyOf(enumValues, Math.max(enumValuesLength, enumValues.length * 2));
+        }
+
+        enumValues[offset] = values.size();
+        for (int i = 0; i < values.size(); i++) {
+            enumValues[offset + 1 + i] = intern(values.get(i));
+        }
+        return offset;
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return -1;
+        }
+
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.add(value);
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    /**
+     * Builds the permutation used to look up the siblings by name using a binary search
+     */
+    private int[] sortChildren(int definitionsStart, int definitionCount) {
+        int[] sorted = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            sorted[node] = node;
+        }
+
+        sortRange(sorted, definitionsStart, definitionsStart + definitionCount);
+        for (int node = 0; node < nodeCount; node++) {
+            int first = firstChildren[node];
+            int count = childCounts[node];
+            if (kinds[node] == CompactSpec.OPERATION) {
+                sortRange(sorted, first, first + extras[node]);
+                sortRange(sorted, first + extras[node], first + count);
+            } else {
+                sortRange(sorted, first, first + count);
+            }
+        }
+
+        return sorted;
+    }
+
+    private void sortRange(int[] sorted, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+
+        Integer[] range = new Integer[to - from];
+        for (int i = 0; i < range.length; i++) {
+            range[i] = from + i;
+        }
+        Arrays.sort(range, (a, b) -> compareNames(names[a], names[b]));
+        for (int i = 0; i < range.length; i++) {
+            sorted[from + i] = range[i];
+        }
+    }
+
+    private int compareNames(int left, int right) {
+        if (left == right) {
+            return 0;
+        }
+        if (left < 0 || right < 0) {
+            return left < 0 ? -1 : 1;
+        }
+        return strings.get(left).compareTo(strings.get(right));
+    }
+}
@@ -0,0 +1,219 @@
+package io.kemtoa.swagger.compat.compact;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Binary encoding of a {@link CompactSpec}, used as a snapshot of a spec
+ *
+ * The snapshot only holds the contract of the spec, with its references
+ * already resolved, and is read without going through the Swagger parser.
+ * The layout is:
+ *
+ * <pre>
+ * header        magic (4 bytes), format version (2 bytes), source (modified UTF-8)
+ * string table  count, then for each string its UTF-8 length + 1 (0 for null) and its bytes
+ * nodes         count, kinds (1 byte each), flags (1 byte each), then the names, types,
+ *               formats, extras, reference targets, first children, child counts and
+ *               sorted children, one value per node
+ * enum values   count, then the values
+ * definitions   start, count
+ * </pre>
+ *
+ * All the integers but the header are variable-length, zigzag encoded so
+ * that the frequent -1 values only take a single byte. The magic starts with
+ * a byte that cannot start a JSON or YAML document.
+ *
+ * The source identifies the spec the snapshot was taken from, typically the
+ * digest of its file. The header is the same for all the versions of the
+ * format, so that the source of a snapshot can always be read.
+ *
+ * The version changes whenever the nodes stored for a spec change, such as
+ * the composed models being stored flattened since version 2, so that the
+ * snapshots of another version are never compared.
+ */
+public final class CompactSpecFormat {
+
+    private static final byte[] MAGIC = { (byte) 0x89, 'S', 'W', 'C' };
+    private static final int VERSION = 2;
+
+    private CompactSpecFormat() {
+    }
+
+    /**
+     * Reads the header of a file, without reading the snapshot itself
+     *
+     * @return the source of the snapshot, or null if the file is not a snapshot
+     */
+    public static String readSource(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 256))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                return null;
+            }
+            in.readUnsignedShort();
+            return in.readUTF();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return whether the file is a snapshot written with another version of the format, which cannot be read
+     */
+    public static boolean isOtherVersion(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 256))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            return Arrays.equals(magic, MAGIC) && in.readUnsignedShort() != VERSION;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    public static void write(CompactSpec spec, String source, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(spec, source, out);
+        }
+    }
+
+    public static void write(CompactSpec spec, String source, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.write(MAGIC);
+        out.writeShort(VERSION);
+        out.writeUTF(source);
+
+        writeInt(out, spec.strings.length);
+        for (String string : spec.strings) {
+            if (string == null) {
+                writeInt(out, 0);
+            } else {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                writeInt(out, bytes.length + 1);
+                out.write(bytes);
+            }
+        }
+
+        int nodeCount = spec.nodeCount;
+        writeInt(out, nodeCount);
+        out.write(spec.kinds, 0, nodeCount);
+        out.write(spec.flags, 0, nodeCount);
+        for (int[] array : new int[][] { spec.names, spec.types, spec.formats, spec.extras, spec.refTargets,
+                spec.firstChildren, spec.childCounts, spec.sortedChildren }) {
+            for (int node = 0; node < nodeCount; node++) {
+                writeInt(out, array[node]);
+            }
+        }
+
+        writeInt(out, spec.enumValues.length);
+        for (int value : spec.enumValues) {
+            writeInt(out, value);
+        }
+
+        writeInt(out, spec.definitionsStart);
+        writeInt(out, spec.definitionCount);
+        out.flush();
+    }
+
+    public static CompactSpec read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * @throws StreamCorruptedException if the stream is not a snapshot or was written by an unsupported version
+     */
+    public static CompactSpec read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new StreamCorruptedException("Not a compact spec snapshot");
+        }
+        int version = in.readUnsignedShort();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported compact spec snapshot version " + version);
+        }
+        in.readUTF();
+
+        String[] strings = new String[readCount(in)];
+        byte[] buffer = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = readCount(in) - 1;
+            if (length >= 0) {
+                if (length > buffer.length) {
+                    buffer = new byte[Math.max(length, buffer.length * 2)];
+                }
+                in.readFully(buffer, 0, length);
+                strings[i] = new String(buffer, 0, length, StandardCharsets.UTF_8);
+            }
+        }
+
+        int nodeCount = readCount(in);
+        byte[] kinds = new byte[nodeCount];
+        byte[] flags = new byte[nodeCount];
+        in.readFully(kinds);
+        in.readFully(flags);
+        int[][] arrays = new int[8][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = readInts(in, nodeCount);
+        }
+
+        int[] enumValues = readInts(in, readCount(in));
+        int definitionsStart = readInt(in);
+        int definitionCount = readInt(in);
+
+        return new CompactSpec(strings, nodeCount, kinds, flags, arrays[0], arrays[1], arrays[2], arrays[3],
+                arrays[4], arrays[5], arrays[6], arrays[7], enumValues, definitionsStart, definitionCount);
+    }
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = readInt(in);
+        }
+        return values;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = readInt(in);
+        if (count < 0) {
+            throw new StreamCorruptedException("Invalid count " + count + " in compact spec snapshot");
+        }
+        return count;
+    }
+
+    private static void writeInt(DataOutputStream out, int value) throws IOException {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7f) != 0) {
+            out.writeByte((zigzag & 0x7f) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.writeByte(zigzag);
+    }
+
+    private static int readInt(DataInputStream in) throws IOException {
+        int zigzag = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new StreamCorruptedException("Malformed integer in compact spec snapshot");
+    }
+}
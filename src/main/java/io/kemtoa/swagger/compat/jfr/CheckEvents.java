@@ -0,0 +1,118 @@
+package io.kemtoa.swagger.compat.jfr;
+
+import java.nio.file.Path;
+
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.kemtoa.swagger.compat.rules.Rule;
+import io.swagger.models.Swagger;
+
+/**
+ * Flight Recorder events of the compatibility checks
+ *
+ * The events are disabled by default and enabled through the settings of a
+ * recording, see the README. When an event is disabled, or when the runtime
+ * has no Flight Recorder, as the Java 8 releases before 8u262, the begin
+ * methods return null and the commit methods return immediately: the checks
+ * only pay for a call to {@code isEnabled()}.
+ *
+ * The begin methods return the event being timed, an opaque object to pass
+ * to the matching commit method. The file sizes and the other costly fields
+ * are only computed when the event is committed, once its duration is known
+ * to pass the threshold of the recording.
+ *
+ * The classes of the {@code jdk.jfr} package are only referenced by the other
+ * classes of this package, loaded on the first use of an event when the
+ * runtime provides them.
+ */
+public final class CheckEvents {
+    private static final boolean AVAILABLE = isAvailable();
+
+    private CheckEvents() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, CheckEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    public static Object beginGroupCheck() {
+        return AVAILABLE ? JfrEvents.beginGroupCheck() : null;
+    }
+
+    /**
+     * @param spec the spec of the group, or null for an orphan lock
+     * @param lock the lock of the group, or null for a new group
+     */
+    public static void commitGroupCheck(Object event, String group, String outcome, long violations, int baselines,
+                                        Path spec, Path lock) {
+        if (event != null) {
+            JfrEvents.commitGroupCheck(event, group, outcome, violations, baselines, spec, lock);
+        }
+    }
+
+    public static Object beginSpecParse() {
+        return AVAILABLE ? JfrEvents.beginSpecParse() : null;
+    }
+
+    /**
+     * @param role spec, lock or baseline
+     * @param swagger the parsed spec, or null if the file could not be parsed
+     */
+    public static void commitSpecParse(Object event, String group, String role, Path path, Swagger swagger) {
+        if (event != null) {
+            JfrEvents.commitSpecParse(event, group, role, path, swagger);
+        }
+    }
+
+    /**
+     * @param role lock or baseline
+     * @param snapshot the snapshot read, or null if it is malformed
+     */
+    public static void commitSnapshotRead(Object event, String group, String role, Path path, CompactSpec snapshot) {
+        if (event != null) {
+            JfrEvents.commitSnapshotRead(event, group, role, path, snapshot);
+        }
+    }
+
+    public static Object beginWalk() {
+        return AVAILABLE ? JfrEvents.beginWalk() : null;
+    }
+
+    /**
+     * @param baseline the baseline compared with the spec, or null for the lock
+     * @param walker object, compact or parallel
+     */
+    public static void commitWalk(Object event, String group, String baseline, String walker, int paths,
+                                  long violations, boolean completed) {
+        if (event != null) {
+            JfrEvents.commitWalk(event, group, baseline, walker, paths, violations, completed);
+        }
+    }
+
+    /**
+     * Wraps the rules of a walk so that their slow callbacks are recorded,
+     * when the rule callback event is enabled when the walk starts
+     *
+     * @return the wrapped rules, or the rules themselves when the event is disabled
+     */
+    public static Rule[] recordRuleCallbacks(String group, Rule[] rules) {
+        return AVAILABLE ? JfrEvents.recordRuleCallbacks(group, rules) : rules;
+    }
+
+    public static Object beginLockWrite() {
+        return AVAILABLE ? JfrEvents.beginLockWrite() : null;
+    }
+
+    /**
+     * @param snapshot the snapshot written, or null when the spec was copied
+     */
+    public static void commitLockWrite(Object event, String group, Path lock, CompactSpec snapshot) {
+        if (event != null) {
+            JfrEvents.commitLockWrite(event, group, lock, snapshot);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.kemtoa.swagger.compat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.kemtoa.swagger.compat.GroupCheck")
+@Label("Group Check")
+@Category("Swagger Compatibility")
+@Description("Check of a Swagger group against its lock and its baselines")
+@Enabled(false)
+@StackTrace(false)
+class GroupCheckEvent extends jdk.jfr.Event {
+
+    @Label("Group")
+    String group;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Violations")
+    long violations;
+
+    @Label("Baselines")
+    int baselines;
+
+    @Label("Spec Size")
+    @DataAmount
+    long specSize;
+
+    @Label("Lock Size")
+    @DataAmount
+    long lockSize;
+}
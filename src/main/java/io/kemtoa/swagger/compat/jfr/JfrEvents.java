@@ -0,0 +1,163 @@
+package io.kemtoa.swagger.compat.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.kemtoa.swagger.compat.rules.Rule;
+import io.swagger.models.Swagger;
+
+/**
+ * Implementation of {@link CheckEvents}, only loaded when the runtime has a Flight Recorder
+ */
+final class JfrEvents {
+
+    // Used to check whether the rule callback event is enabled, never committed
+    private static final RuleCallbackEvent RULE_CALLBACK_PROBE = new RuleCallbackEvent();
+
+    private JfrEvents() {
+    }
+
+    static Object beginGroupCheck() {
+        GroupCheckEvent event = new GroupCheckEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitGroupCheck(Object begun, String group, String outcome, long violations, int baselines,
+                                 Path spec, Path lock) {
+        GroupCheckEvent event = (GroupCheckEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.group = group;
+            event.outcome = outcome;
+            event.violations = violations;
+            event.baselines = baselines;
+            event.specSize = size(spec);
+            event.lockSize = size(lock);
+            event.commit();
+        }
+    }
+
+    static Object beginSpecParse() {
+        SpecParseEvent event = new SpecParseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitSpecParse(Object begun, String group, String role, Path path, Swagger swagger) {
+        SpecParseEvent event = (SpecParseEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            setSpecParse(event, group, role, "json", path);
+            if (swagger != null) {
+                event.paths = swagger.getPaths() != null ? swagger.getPaths().size() : 0;
+                event.definitions = swagger.getDefinitions() != null ? swagger.getDefinitions().size() : 0;
+                event.parsed = true;
+            }
+            event.commit();
+        }
+    }
+
+    static void commitSnapshotRead(Object begun, String group, String role, Path path, CompactSpec snapshot) {
+        SpecParseEvent event = (SpecParseEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            setSpecParse(event, group, role, "binary", path);
+            if (snapshot != null) {
+                event.paths = snapshot.getChildCount(snapshot.getRoot());
+                event.definitions = snapshot.getDefinitionCount();
+                event.nodes = snapshot.getNodeCount();
+                event.parsed = true;
+            }
+            event.commit();
+        }
+    }
+
+    private static void setSpecParse(SpecParseEvent event, String group, String role, String format, Path path) {
+        event.group = group;
+        event.role = role;
+        event.format = format;
+        event.path = path.toString();
+        event.fileSize = size(path);
+    }
+
+    static Object beginWalk() {
+        WalkEvent event = new WalkEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitWalk(Object begun, String group, String baseline, String walker, int paths,
+                           long violations, boolean completed) {
+        WalkEvent event = (WalkEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.group = group;
+            event.baseline = baseline;
+            event.walker = walker;
+            event.paths = paths;
+            event.violations = violations;
+            event.completed = completed;
+            event.commit();
+        }
+    }
+
+    static Rule[] recordRuleCallbacks(String group, Rule[] rules) {
+        if (!RULE_CALLBACK_PROBE.isEnabled()) {
+            return rules;
+        }
+
+        Rule[] recorded = new Rule[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            recorded[i] = new RecordedRule(group, rules[i]);
+        }
+        return recorded;
+    }
+
+    static Object beginLockWrite() {
+        LockWriteEvent event = new LockWriteEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitLockWrite(Object begun, String group, Path lock, CompactSpec snapshot) {
+        LockWriteEvent event = (LockWriteEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.group = group;
+            event.path = lock.toString();
+            event.format = snapshot != null ? "binary" : "json";
+            event.fileSize = size(lock);
+            event.nodes = snapshot != null ? snapshot.getNodeCount() : 0;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the size of a file, or 0 if it is missing or cannot be read
+     */
+    private static long size(Path path) {
+        if (path == null) {
+            return 0;
+        }
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.kemtoa.swagger.compat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.kemtoa.swagger.compat.LockWrite")
+@Label("Lock Write")
+@Category("Swagger Compatibility")
+@Description("Update of the lock file of a group")
+@Enabled(false)
+@StackTrace(false)
+class LockWriteEvent extends jdk.jfr.Event {
+
+    @Label("Group")
+    String group;
+
+    @Label("Path")
+    String path;
+
+    @Label("Format")
+    @Description("json for a copy of the spec, binary for a snapshot")
+    String format;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+
+    @Label("Nodes")
+    @Description("Nodes of the snapshot, 0 for a copy of the spec")
+    int nodes;
+}
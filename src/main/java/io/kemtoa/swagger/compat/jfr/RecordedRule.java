@@ -0,0 +1,158 @@
+package io.kemtoa.swagger.compat.jfr;
+
+import java.util.List;
+import java.util.Set;
+
+import io.kemtoa.swagger.compat.rules.ProfiledRule;
+import io.kemtoa.swagger.compat.rules.Rule;
+import io.kemtoa.swagger.compat.rules.Violation;
+import io.kemtoa.swagger.compat.rules.ViolationSink;
+import io.kemtoa.swagger.compat.walker.DiffContext;
+import io.kemtoa.swagger.compat.walker.DiffEvent;
+import io.kemtoa.swagger.compat.walker.Location;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.properties.Property;
+
+/**
+ * {@link Rule} decorator recording the calls to a rule taking longer than the
+ * threshold of the rule callback event, with the location of the nodes compared
+ *
+ * The decorated rule observes the same events as the rule it wraps. A
+ * {@link ProfiledRule} is recorded under the name of the rule it profiles.
+ */
+final class RecordedRule extends Rule {
+    private final String group;
+    private final Rule rule;
+    private final String ruleName;
+    private ViolationSink sink;
+    private long reported;
+
+    RecordedRule(String group, Rule rule) {
+        this.group = group;
+        this.rule = rule;
+        Rule named = rule instanceof ProfiledRule ? ((ProfiledRule) rule).getRule() : rule;
+        this.ruleName = named.getClass().getSimpleName();
+    }
+
+    private RuleCallbackEvent begin() {
+        RuleCallbackEvent event = new RuleCallbackEvent();
+        event.begin();
+        return event;
+    }
+
+    private void commit(RuleCallbackEvent event, DiffEvent callback, long violationsBefore) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.group = group;
+            event.rule = ruleName;
+            event.callback = callback.name();
+            event.location = location != null ? location.getFullLocation() : null;
+            event.violations = getViolationCount() - violationsBefore;
+            event.commit();
+        }
+    }
+
+    private long getViolationCount() {
+        return sink != null ? reported : rule.getViolations().size();
+    }
+
+    @Override
+    public List<Violation> getViolations() {
+        return rule.getViolations();
+    }
+
+    @Override
+    public List<String> getErrors() {
+        return rule.getErrors();
+    }
+
+    @Override
+    public void setSink(ViolationSink sink) {
+        super.setSink(sink);
+        this.sink = sink;
+        rule.setSink(sink != null ? violation -> {
+            reported++;
+            sink.accept(violation);
+        } : null);
+    }
+
+    @Override
+    public void setLocation(Location location) {
+        super.setLocation(location);
+        rule.setLocation(location);
+    }
+
+    @Override
+    public boolean observes(DiffEvent event, DiffContext context) {
+        return rule.observes(event, context);
+    }
+
+    @Override
+    public void acceptPath(String key, Path left, Path right) {
+        long violations = getViolationCount();
+        RuleCallbackEvent event = begin();
+        rule.acceptPath(key, left, right);
+        commit(event, DiffEvent.PATH, violations);
+    }
+
+    @Override
+    public void acceptOperation(HttpMethod operationKey, Operation left, Operation right) {
+        long violations = getViolationCount();
+        RuleCallbackEvent event = begin();
+        rule.acceptOperation(operationKey, left, right);
+        commit(event, DiffEvent.OPERATION, violations);
+    }
+
+    @Override
+    public void acceptParameter(Parameter left, Parameter right) {
+        long violations = getViolationCount();
+        RuleCallbackEvent event = begin();
+        rule.acceptParameter(left, right);
+        commit(event, DiffEvent.PARAMETER, violations);
+    }
+
+    @Override
+    public void acceptResponse(String key, Response left, Response right) {
+        long violations = getViolationCount();
+        RuleCallbackEvent event = begin();
+        rule.acceptResponse(key, left, right);
+        commit(event, DiffEvent.RESPONSE, violations);
+    }
+
+    @Override
+    public void acceptModel(Model left, Model right) {
+        long violations = getViolationCount();
+        RuleCallbackEvent event = begin();
+        rule.acceptModel(left, right);
+        commit(event, DiffEvent.MODEL, violations);
+    }
+
+    @Override
+    public void acceptProperty(String key, Property left, Property right) {
+        long violations = getViolationCount();
+        RuleCallbackEvent event = begin();
+        rule.acceptProperty(key, left, right);
+        commit(event, DiffEvent.PROPERTY, violations);
+    }
+
+    @Override
+    public void acceptEnumValue(String left, String right) {
+        long violations = getViolationCount();
+        RuleCallbackEvent event = begin();
+        rule.acceptEnumValue(left, right);
+        commit(event, DiffEvent.ENUM_VALUE, violations);
+    }
+
+    @Override
+    public void acceptEnumValues(Set<String> added, Set<String> removed) {
+        long violations = getViolationCount();
+        RuleCallbackEvent event = begin();
+        rule.acceptEnumValues(added, removed);
+        commit(event, DiffEvent.ENUM_VALUES, violations);
+    }
+}
@@ -0,0 +1,35 @@
+package io.kemtoa.swagger.compat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("io.kemtoa.swagger.compat.RuleCallback")
+@Label("Slow Rule Callback")
+@Category("Swagger Compatibility")
+@Description("Call made by a walker to a rule taking longer than the threshold")
+@Enabled(false)
+@StackTrace(false)
+@Threshold("1 ms")
+class RuleCallbackEvent extends jdk.jfr.Event {
+
+    @Label("Group")
+    String group;
+
+    @Label("Rule")
+    String rule;
+
+    @Label("Callback")
+    String callback;
+
+    @Label("Location")
+    String location;
+
+    @Label("Violations")
+    @Description("Violations reported by the call")
+    long violations;
+}
@@ -0,0 +1,49 @@
+package io.kemtoa.swagger.compat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.kemtoa.swagger.compat.SpecParse")
+@Label("Spec Parse")
+@Category("Swagger Compatibility")
+@Description("Parsing of a spec, lock or baseline file, or reading of a binary lock snapshot")
+@Enabled(false)
+@StackTrace(false)
+class SpecParseEvent extends jdk.jfr.Event {
+
+    @Label("Group")
+    String group;
+
+    @Label("Role")
+    @Description("spec, lock or baseline")
+    String role;
+
+    @Label("Format")
+    @Description("json for a parsed file, binary for a lock snapshot")
+    String format;
+
+    @Label("Path")
+    String path;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+
+    @Label("Paths")
+    int paths;
+
+    @Label("Definitions")
+    int definitions;
+
+    @Label("Nodes")
+    @Description("Nodes of a lock snapshot, 0 for a parsed file")
+    int nodes;
+
+    @Label("Parsed")
+    boolean parsed;
+}
@@ -0,0 +1,37 @@
+package io.kemtoa.swagger.compat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.kemtoa.swagger.compat.Walk")
+@Label("Walk")
+@Category("Swagger Compatibility")
+@Description("Comparison of a spec with the lock or a baseline of its group by the rules")
+@Enabled(false)
+@StackTrace(false)
+class WalkEvent extends jdk.jfr.Event {
+
+    @Label("Group")
+    String group;
+
+    @Label("Baseline")
+    @Description("Baseline compared with the spec, null for the lock")
+    String baseline;
+
+    @Label("Walker")
+    @Description("object, compact or parallel")
+    String walker;
+
+    @Label("Paths")
+    int paths;
+
+    @Label("Violations")
+    long violations;
+
+    @Label("Completed")
+    boolean completed;
+}
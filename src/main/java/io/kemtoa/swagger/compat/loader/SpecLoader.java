@@ -0,0 +1,32 @@
+package io.kemtoa.swagger.compat.loader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import io.swagger.models.Swagger;
+
+/**
+ * Reads Swagger API 2.0 json specification documents
+ */
+public interface SpecLoader {
+
+    /**
+     * @return the parsed specification, or null if the document is not a valid Swagger 2.0 specification
+     */
+    Swagger load(Path path) throws IOException;
+
+    /**
+     * Looks up a loader by name
+     *
+     * @param name 'parser' for the full swagger-parser pipeline, 'streaming' for {@link StreamingSpecLoader}
+     */
+    static SpecLoader forName(String name) {
+        if (name == null || "parser".equals(name)) {
+            return new SwaggerParserSpecLoader();
+        } else if ("streaming".equals(name)) {
+            return new StreamingSpecLoader();
+        }
+
+        throw new IllegalArgumentException("Unknown Swagger spec loader '" + name + "', expected 'parser' or 'streaming'");
+    }
+}
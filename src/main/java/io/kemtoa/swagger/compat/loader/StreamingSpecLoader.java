@@ -0,0 +1,714 @@
+package io.kemtoa.swagger.compat.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.RefModel;
+import io.swagger.models.RefResponse;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.AbstractSerializableParameter;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.CookieParameter;
+import io.swagger.models.parameters.FormParameter;
+import io.swagger.models.parameters.HeaderParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.PathParameter;
+import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.parameters.RefParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.ComposedProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.PropertyBuilder;
+import io.swagger.models.properties.RefProperty;
+
+/**
+ * Loads only the contract of a specification using the Jackson streaming API
+ *
+ * Only the elements visited by {@link io.kemtoa.swagger.compat.walker.SwaggerDiffWalker}
+ * are built: paths, operations, parameters, responses, definitions, properties,
+ * types, formats, enums, required flags and references. Everything else, such
+ * as descriptions, examples and vendor extensions, is skipped by the tokenizer
+ * without ever being materialized.
+ *
+ * Like swagger-parser, path level parameters are merged into the operations,
+ * and references to the document's parameters and responses are inlined.
+ * Remote references are not supported.
+ *
+ * The file is read through a buffered stream rather than a memory mapping,
+ * so that the lock file can be replaced right after the check on all platforms.
+ */
+public class StreamingSpecLoader implements SpecLoader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public Swagger load(Path path) throws IOException {
+        try (InputStream is = Files.newInputStream(path);
+             JsonParser parser = JSON_FACTORY.createParser(is)) {
+            return new Reader(parser).readSwagger();
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Contract-only subset of a json schema, converted to a {@link Model}
+     * or a {@link Property} once completely read, as the kind of object
+     * to create depends on fields that may appear in any order.
+     */
+    private static class Schema {
+        private String ref;
+        private String type;
+        private String format;
+        private List<String> enumValues;
+        private List<String> required;
+        private Map<String, Schema> properties;
+        private Schema items;
+        private Schema additionalProperties;
+        private List<Schema> allOf;
+    }
+
+    private static class Reader {
+        private final JsonParser parser;
+        private final Map<String, Parameter> parameters = new HashMap<>();
+        private final Map<String, Response> responses = new HashMap<>();
+
+        private Reader(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        private Swagger readSwagger() throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            Swagger swagger = new Swagger();
+            String version = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "swagger":
+                        version = parser.getValueAsString();
+                        break;
+                    case "paths":
+                        swagger.setPaths(readPaths());
+                        break;
+                    case "definitions":
+                        swagger.setDefinitions(readDefinitions());
+                        break;
+                    case "parameters":
+                        readParameterDefinitions();
+                        break;
+                    case "responses":
+                        readResponseDefinitions();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            if (version == null) {
+                return null;
+            }
+
+            if (swagger.getPaths() != null) {
+                swagger.getPaths().values().forEach(this::resolvePath);
+            }
+
+            return swagger;
+        }
+
+        private Map<String, io.swagger.models.Path> readPaths() throws IOException {
+            Map<String, io.swagger.models.Path> paths = new LinkedHashMap<>();
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return paths;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                parser.nextToken();
+                paths.put(key, readPath());
+            }
+
+            return paths;
+        }
+
+        private io.swagger.models.Path readPath() throws IOException {
+            io.swagger.models.Path path = new io.swagger.models.Path();
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return path;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "get":
+                    case "put":
+                    case "post":
+                    case "delete":
+                    case "patch":
+                    case "head":
+                    case "options":
+                        path.set(field, readOperation());
+                        break;
+                    case "parameters":
+                        path.setParameters(readParameterList());
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            return path;
+        }
+
+        private Operation readOperation() throws IOException {
+            Operation operation = new Operation();
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return operation;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "parameters":
+                        operation.setParameters(readParameterList());
+                        break;
+                    case "responses":
+                        operation.setResponses(readResponses());
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            return operation;
+        }
+
+        private List<Parameter> readParameterList() throws IOException {
+            List<Parameter> list = new ArrayList<>();
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return list;
+            }
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                Parameter parameter = readParameter();
+                if (parameter != null) {
+                    list.add(parameter);
+                }
+            }
+
+            return list;
+        }
+
+        private void readParameterDefinitions() throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+
+                Parameter parameter = readParameter();
+                if (parameter != null) {
+                    parameters.put(name, parameter);
+                }
+            }
+        }
+
+        private Parameter readParameter() throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return null;
+            }
+
+            String ref = null;
+            String name = null;
+            String in = null;
+            String type = null;
+            String format = null;
+            boolean required = false;
+            List<String> enumValues = null;
+            Property items = null;
+            Model schema = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "$ref":
+                        ref = parser.getValueAsString();
+                        break;
+                    case "name":
+                        name = parser.getValueAsString();
+                        break;
+                    case "in":
+                        in = parser.getValueAsString();
+                        break;
+                    case "type":
+                        type = parser.getValueAsString();
+                        break;
+                    case "format":
+                        format = parser.getValueAsString();
+                        break;
+                    case "required":
+                        required = parser.getValueAsBoolean();
+                        break;
+                    case "enum":
+                        enumValues = readEnum();
+                        break;
+                    case "items":
+                        items = toProperty(readSchema());
+                        break;
+                    case "schema":
+                        schema = toModel(readSchema());
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            if (ref != null) {
+                return new RefParameter(ref);
+            }
+
+            if ("body".equals(in)) {
+                BodyParameter parameter = new BodyParameter();
+                parameter.setName(name);
+                parameter.setRequired(required);
+                parameter.setSchema(schema);
+                return parameter;
+            }
+
+            AbstractSerializableParameter<?> parameter;
+            if ("query".equals(in)) {
+                parameter = new QueryParameter();
+            } else if ("header".equals(in)) {
+                parameter = new HeaderParameter();
+            } else if ("path".equals(in)) {
+                parameter = new PathParameter();
+            } else if ("formData".equals(in)) {
+                parameter = new FormParameter();
+            } else if ("cookie".equals(in)) {
+                parameter = new CookieParameter();
+            } else {
+                return null;
+            }
+
+            parameter.setName(name);
+            parameter.setRequired(required);
+            parameter.setType(type);
+            parameter.setFormat(format);
+            parameter.setEnum(enumValues);
+            parameter.setItems(items);
+            return parameter;
+        }
+
+        private Map<String, Response> readResponses() throws IOException {
+            Map<String, Response> map = new LinkedHashMap<>();
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return map;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                parser.nextToken();
+
+                Response response = readResponse();
+                if (response != null) {
+                    map.put(key, response);
+                }
+            }
+
+            return map;
+        }
+
+        private void readResponseDefinitions() throws IOException {
+            responses.putAll(readResponses());
+        }
+
+        private Response readResponse() throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return null;
+            }
+
+            Response response = new Response();
+            String ref = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "$ref":
+                        ref = parser.getValueAsString();
+                        break;
+                    case "schema":
+                        response.setResponseSchema(toModel(readSchema()));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            return ref != null ? new RefResponse(ref) : response;
+        }
+
+        private Map<String, Model> readDefinitions() throws IOException {
+            Map<String, Model> definitions = new LinkedHashMap<>();
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return definitions;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+
+                Model model = toModel(readSchema());
+                if (model != null) {
+                    definitions.put(name, model);
+                }
+            }
+
+            return definitions;
+        }
+
+        private Schema readSchema() throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return null;
+            }
+
+            Schema schema = new Schema();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "$ref":
+                        schema.ref = parser.getValueAsString();
+                        break;
+                    case "type":
+                        schema.type = parser.getValueAsString();
+                        break;
+                    case "format":
+                        schema.format = parser.getValueAsString();
+                        break;
+                    case "enum":
+                        schema.enumValues = readEnum();
+                        break;
+                    case "required":
+                        schema.required = readStringList();
+                        break;
+                    case "properties":
+                        schema.properties = readSchemaMap();
+                        break;
+                    case "items":
+                        schema.items = readSchema();
+                        break;
+                    case "additionalProperties":
+                        schema.additionalProperties = readSchema();
+                        break;
+                    case "allOf":
+                        schema.allOf = readSchemaList();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            return schema;
+        }
+
+        private Map<String, Schema> readSchemaMap() throws IOException {
+            Map<String, Schema> map = new LinkedHashMap<>();
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return map;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                parser.nextToken();
+
+                Schema schema = readSchema();
+                if (schema != null) {
+                    map.put(key, schema);
+                }
+            }
+
+            return map;
+        }
+
+        private List<Schema> readSchemaList() throws IOException {
+            List<Schema> list = new ArrayList<>();
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return list;
+            }
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                Schema schema = readSchema();
+                if (schema != null) {
+                    list.add(schema);
+                }
+            }
+
+            return list;
+        }
+
+        private List<String> readEnum() throws IOException {
+            List<String> values = new ArrayList<>();
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return null;
+            }
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken().isScalarValue() && !parser.currentToken().isBoolean()
+                        && parser.currentToken() != JsonToken.VALUE_NULL) {
+                    values.add(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            return values.isEmpty() ? null : values;
+        }
+
+        private List<String> readStringList() throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return null;
+            }
+
+            List<String> values = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken().isScalarValue()) {
+                    values.add(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            return values;
+        }
+
+        /**
+         * Builds a schema the same way as swagger-models' ModelDeserializer
+         */
+        private Model toModel(Schema schema) {
+            if (schema == null) {
+                return null;
+            }
+
+            if (schema.ref != null) {
+                return new RefModel(schema.ref);
+            }
+
+            if (schema.allOf != null) {
+                List<Model> allOf = new ArrayList<>();
+                for (Schema component : schema.allOf) {
+                    allOf.add(toModel(component));
+                }
+
+                ComposedModel model = new ComposedModel();
+                model.setAllOf(allOf);
+                if (!allOf.isEmpty()) {
+                    model.setParent(allOf.get(0));
+                    if (allOf.size() >= 2) {
+                        model.setChild(allOf.get(allOf.size() - 1));
+                        List<RefModel> interfaces = new ArrayList<>();
+                        for (Model component : allOf.subList(1, allOf.size() - 1)) {
+                            if (component instanceof RefModel) {
+                                interfaces.add((RefModel) component);
+                            }
+                        }
+                        model.setInterfaces(interfaces);
+                    } else {
+                        model.setChild(new ModelImpl());
+                    }
+                }
+                return model;
+            }
+
+            if ("array".equals(schema.type)) {
+                ArrayModel model = new ArrayModel();
+                model.setItems(toProperty(schema.items));
+                return model;
+            }
+
+            ModelImpl model = new ModelImpl();
+            model.setType(schema.type);
+            model.setFormat(schema.format);
+            model.setEnum(schema.enumValues);
+            if (schema.properties != null) {
+                model.setProperties(toProperties(schema.properties));
+            }
+            model.setRequired(schema.required);
+            if (schema.additionalProperties != null) {
+                model.setAdditionalProperties(toProperty(schema.additionalProperties));
+            }
+            return model;
+        }
+
+        /**
+         * Builds a property the same way as swagger-models' PropertyDeserializer
+         */
+        private Property toProperty(Schema schema) {
+            if (schema == null) {
+                return null;
+            }
+
+            if (schema.ref != null) {
+                return new RefProperty(schema.ref);
+            }
+
+            if (ObjectProperty.isType(schema.type) || schema.properties != null || schema.allOf != null) {
+                if (schema.additionalProperties != null) {
+                    Property items = toProperty(schema.additionalProperties);
+                    if (items != null) {
+                        return new MapProperty(items);
+                    }
+                } else if (schema.properties == null && schema.allOf != null) {
+                    List<Property> allOf = new ArrayList<>();
+                    for (Schema component : schema.allOf) {
+                        allOf.add(toProperty(component));
+                    }
+
+                    ComposedProperty property = new ComposedProperty();
+                    property.setAllOf(allOf);
+                    return property;
+                } else {
+                    ObjectProperty property = new ObjectProperty(schema.properties != null
+                            ? toProperties(schema.properties)
+                            : new LinkedHashMap<>());
+                    property.setRequiredProperties(schema.required != null ? schema.required : Collections.emptyList());
+                    return property;
+                }
+            }
+
+            if (ArrayProperty.isType(schema.type) && schema.items != null) {
+                return new ArrayProperty(toProperty(schema.items));
+            }
+
+            Map<PropertyBuilder.PropertyId, Object> args = new EnumMap<>(PropertyBuilder.PropertyId.class);
+            args.put(PropertyBuilder.PropertyId.ENUM, schema.enumValues);
+            return PropertyBuilder.build(schema.type, schema.format, args);
+        }
+
+        private Map<String, Property> toProperties(Map<String, Schema> schemas) {
+            Map<String, Property> properties = new LinkedHashMap<>();
+            for (Map.Entry<String, Schema> entry : schemas.entrySet()) {
+                Property property = toProperty(entry.getValue());
+                if (property != null) {
+                    properties.put(entry.getKey(), property);
+                }
+            }
+            return properties;
+        }
+
+        /**
+         * Inlines the parameter and response references, and merges the path
+         * level parameters into the operations, as swagger-parser does.
+         */
+        private void resolvePath(io.swagger.models.Path path) {
+            List<Parameter> pathParameters = resolveParameters(path.getParameters());
+            path.setParameters(null);
+
+            for (Operation operation : path.getOperations()) {
+                List<Parameter> operationParameters = resolveParameters(operation.getParameters());
+
+                List<Parameter> merged = new ArrayList<>();
+                for (Parameter pathParameter : pathParameters) {
+                    if (!isOverridden(pathParameter, operationParameters)) {
+                        merged.add(pathParameter);
+                    }
+                }
+                merged.addAll(operationParameters);
+                operation.setParameters(merged);
+
+                if (operation.getResponses() != null) {
+                    Map<String, Response> resolved = new LinkedHashMap<>();
+                    for (Map.Entry<String, Response> entry : operation.getResponses().entrySet()) {
+                        Response response = entry.getValue();
+                        if (response instanceof RefResponse) {
+                            response = responses.get(((RefResponse) response).getSimpleRef());
+                        }
+                        if (response != null) {
+                            resolved.put(entry.getKey(), response);
+                        }
+                    }
+                    operation.setResponses(resolved);
+                }
+            }
+        }
+
+        private List<Parameter> resolveParameters(List<Parameter> list) {
+            if (list == null) {
+                return Collections.emptyList();
+            }
+
+            List<Parameter> resolved = new ArrayList<>(list.size());
+            for (Parameter parameter : list) {
+                if (parameter instanceof RefParameter) {
+                    parameter = parameters.get(((RefParameter) parameter).getSimpleRef());
+                }
+                if (parameter != null) {
+                    resolved.add(parameter);
+                }
+            }
+            return resolved;
+        }
+
+        private static boolean isOverridden(Parameter pathParameter, List<Parameter> operationParameters) {
+            for (Parameter parameter : operationParameters) {
+                if (parameter.getName() != null && parameter.getName().equals(pathParameter.getName())
+                        && parameter.getIn() != null && parameter.getIn().equals(pathParameter.getIn())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.kemtoa.swagger.compat.loader;
+
+import java.nio.file.Path;
+
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+
+/**
+ * Loads specifications using the complete swagger-parser pipeline
+ *
+ * Supports remote and relative references, and keeps all the information
+ * found in the document.
+ */
+public class SwaggerParserSpecLoader implements SpecLoader {
+
+    @Override
+    public Swagger load(Path path) {
+        return new SwaggerParser().read(path.toAbsolutePath().toString());
+    }
+}
@@ -0,0 +1,83 @@
+package io.kemtoa.swagger.compat.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import io.kemtoa.swagger.compat.rules.Violation;
+
+/**
+ * Writes the violations of a group as a JUnit XML test report
+ *
+ * The group is a test suite and each violation a failed test case, named
+ * after the rule and the location of the violation. A group without
+ * violations has a single successful test case. The suite has no test and
+ * failure counts, since they are only known once all the test cases are
+ * written.
+ */
+class JUnitViolationWriter implements ViolationWriter {
+
+    private static final String PASSED_TEST_NAME = "backwards-compatibility";
+
+    private final OutputStream output;
+    private final XMLStreamWriter writer;
+    private final String group;
+    private boolean empty = true;
+
+    JUnitViolationWriter(Path file, String group) throws IOException {
+        this.group = group;
+        this.output = Files.newOutputStream(file);
+        try {
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(output, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("testsuite");
+            writer.writeAttribute("name", group);
+        } catch (XMLStreamException e) {
+            output.close();
+            throw new IOException("Unable to write the JUnit report " + file, e);
+        }
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        try {
+            empty = false;
+            writer.writeStartElement("testcase");
+            writer.writeAttribute("classname", group);
+            String baseline = violation.getBaseline() != null ? " (" + violation.getBaseline() + ")" : "";
+            writer.writeAttribute("name", violation.getRuleId() + " " + violation.getLocation().getFullLocation() + baseline);
+            writer.writeStartElement("failure");
+            writer.writeAttribute("type", violation.getRuleId());
+            writer.writeAttribute("message", violation.getMessage());
+            writer.writeCharacters(violation.toString());
+            writer.writeEndElement();
+            writer.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new UncheckedIOException(new IOException("Unable to write the JUnit report", e));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (empty) {
+                writer.writeEmptyElement("testcase");
+                writer.writeAttribute("classname", group);
+                writer.writeAttribute("name", PASSED_TEST_NAME);
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to write the JUnit report", e);
+        } finally {
+            output.close();
+        }
+    }
+}
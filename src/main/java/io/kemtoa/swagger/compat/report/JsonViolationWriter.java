@@ -0,0 +1,106 @@
+package io.kemtoa.swagger.compat.report;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.kemtoa.swagger.compat.rules.Violation;
+import io.kemtoa.swagger.compat.walker.Location;
+
+/**
+ * Writes the violations of a group as a JSON document:
+ *
+ * <pre>
+ * {
+ *   "group" : "pets",
+ *   "spec" : "src/main/swagger/pets.json",
+ *   "violations" : [ {
+ *     "ruleId" : "RemovedOperationRule",
+ *     "severity" : "error",
+ *     "location" : {
+ *       "path" : "Path /pets, Operation GET",
+ *       "pointer" : "/paths/~1pets/get",
+ *       "segments" : [ { "kind" : "path", "key" : "/pets" }, { "kind" : "operation", "key" : "GET" } ]
+ *     },
+ *     "message" : "The operation was removed in the new spec.",
+ *     "oldValue" : "GET"
+ *   } ],
+ *   "violationCount" : 1
+ * }
+ * </pre>
+ */
+class JsonViolationWriter implements ViolationWriter {
+
+    private final Writer writer;
+    private final JsonGenerator generator;
+    private long count;
+
+    JsonViolationWriter(Path file, String group, Path spec) throws IOException {
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        generator = new JsonFactory().createGenerator(writer);
+        generator.useDefaultPrettyPrinter();
+
+        generator.writeStartObject();
+        generator.writeStringField("group", group);
+        generator.writeStringField("spec", spec.toString());
+        generator.writeArrayFieldStart("violations");
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("ruleId", violation.getRuleId());
+            generator.writeStringField("severity", violation.getSeverity().name().toLowerCase(Locale.ROOT));
+            if (violation.getBaseline() != null) {
+                generator.writeStringField("baseline", violation.getBaseline());
+            }
+            writeLocation(violation.getLocation());
+            generator.writeStringField("message", violation.getMessage());
+            if (violation.getOldValue() != null) {
+                generator.writeStringField("oldValue", violation.getOldValue());
+            }
+            if (violation.getNewValue() != null) {
+                generator.writeStringField("newValue", violation.getNewValue());
+            }
+            generator.writeEndObject();
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLocation(Location location) throws IOException {
+        generator.writeObjectFieldStart("location");
+        generator.writeStringField("path", location.getFullLocation());
+        generator.writeStringField("pointer", location.getJsonPointer());
+        generator.writeArrayFieldStart("segments");
+        for (int i = 0; i < location.getSegmentCount(); i++) {
+            generator.writeStartObject();
+            generator.writeStringField("kind", location.getSegmentKind(i).name().toLowerCase(Locale.ROOT));
+            generator.writeStringField("key", location.getSegmentKey(i));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            generator.writeEndArray();
+            generator.writeNumberField("violationCount", count);
+            generator.writeEndObject();
+            generator.close();
+        } finally {
+            writer.close();
+        }
+    }
+}
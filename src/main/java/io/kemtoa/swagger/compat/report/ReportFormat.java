@@ -0,0 +1,61 @@
+package io.kemtoa.swagger.compat.report;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Formats of the violation reports
+ */
+public enum ReportFormat {
+    /** Plain JSON document, {@code <group>.violations.json} */
+    JSON,
+    /** SARIF 2.1.0 log, {@code <group>.sarif} */
+    SARIF,
+    /** JUnit XML test report, {@code TEST-<group>.xml} */
+    JUNIT;
+
+    /**
+     * Looks up a format by name, ignoring case
+     */
+    public static ReportFormat forName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown violation report format '" + name + "', expected 'json', 'sarif' or 'junit'");
+        }
+    }
+
+    public String getFileName(String group) {
+        switch (this) {
+            case JSON:
+                return group + ".violations.json";
+            case SARIF:
+                return group + ".sarif";
+            default:
+                return "TEST-" + group + ".xml";
+        }
+    }
+
+    /**
+     * Creates a writer for the report of a group in the specified directory
+     *
+     * @param spec the spec file of the group
+     * @param ruleIds the identifiers of the rules used to check the group
+     */
+    public ViolationWriter createWriter(Path directory, String group, Path spec, List<String> ruleIds) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(getFileName(group));
+
+        switch (this) {
+            case JSON:
+                return new JsonViolationWriter(file, group, spec);
+            case SARIF:
+                return new SarifViolationWriter(file, spec, ruleIds);
+            default:
+                return new JUnitViolationWriter(file, group);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package io.kemtoa.swagger.compat.report;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.kemtoa.swagger.compat.rules.Violation;
+
+/**
+ * Writes the violations of a group as a SARIF 2.1.0 log
+ *
+ * The log holds a single run, with a result per violation. Since the specs
+ * are compared once parsed, results have no line numbers: the spec file is
+ * the physical location, and the location in the spec is given both as a
+ * logical location and as a JSON pointer in the result properties.
+ */
+class SarifViolationWriter implements ViolationWriter {
+
+    private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String TOOL_NAME = "swagger-backwards-compat-maven-plugin";
+
+    private final Writer writer;
+    private final JsonGenerator generator;
+    private final String specUri;
+
+    SarifViolationWriter(Path file, Path spec, List<String> ruleIds) throws IOException {
+        specUri = spec.toUri().toString();
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        generator = new JsonFactory().createGenerator(writer);
+        generator.useDefaultPrettyPrinter();
+
+        generator.writeStartObject();
+        generator.writeStringField("$schema", SCHEMA);
+        generator.writeStringField("version", "2.1.0");
+        generator.writeArrayFieldStart("runs");
+        generator.writeStartObject();
+
+        generator.writeObjectFieldStart("tool");
+        generator.writeObjectFieldStart("driver");
+        generator.writeStringField("name", TOOL_NAME);
+        generator.writeArrayFieldStart("rules");
+        for (String ruleId : ruleIds) {
+            generator.writeStartObject();
+            generator.writeStringField("id", ruleId);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndObject();
+
+        generator.writeArrayFieldStart("results");
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("ruleId", violation.getRuleId());
+            generator.writeStringField("level", violation.getSeverity() == Violation.Severity.ERROR ? "error" : "warning");
+            generator.writeObjectFieldStart("message");
+            generator.writeStringField("text", violation.getMessage());
+            generator.writeEndObject();
+
+            generator.writeArrayFieldStart("locations");
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("physicalLocation");
+            generator.writeObjectFieldStart("artifactLocation");
+            generator.writeStringField("uri", specUri);
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeArrayFieldStart("logicalLocations");
+            generator.writeStartObject();
+            generator.writeStringField("fullyQualifiedName", violation.getLocation().getFullLocation());
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndArray();
+
+            generator.writeObjectFieldStart("properties");
+            generator.writeStringField("jsonPointer", violation.getLocation().getJsonPointer());
+            if (violation.getBaseline() != null) {
+                generator.writeStringField("baseline", violation.getBaseline());
+            }
+            if (violation.getOldValue() != null) {
+                generator.writeStringField("oldValue", violation.getOldValue());
+            }
+            if (violation.getNewValue() != null) {
+                generator.writeStringField("newValue", violation.getNewValue());
+            }
+            generator.writeEndObject();
+
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.close();
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.kemtoa.swagger.compat.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import io.kemtoa.swagger.compat.rules.ViolationSink;
+
+/**
+ * Writes the violations of a group to a report file as they are found
+ *
+ * The beginning of the report is written when the writer is created, each
+ * violation is written when accepted, and the report is completed when the
+ * writer is closed. Violations are not retained in memory.
+ *
+ * Accepting a violation throws an {@link java.io.UncheckedIOException} when
+ * the report cannot be written.
+ */
+public interface ViolationWriter extends ViolationSink, Closeable {
+
+    @Override
+    void close() throws IOException;
+}
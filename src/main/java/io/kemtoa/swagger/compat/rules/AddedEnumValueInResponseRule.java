@@ -1,16 +1,25 @@
 package io.kemtoa.swagger.compat.rules;
 
+import java.util.Set;
+
+import io.kemtoa.swagger.compat.walker.DiffContext;
+
 /**
  * Adding an enum value to a request response is backward incompatible
  * as clients using the 'old' version of the Swagger specs, will not be
  * able to properly validate the response.
  */
+@ObservedContexts(DiffContext.RESPONSE)
 public class AddedEnumValueInResponseRule extends Rule {
 
     @Override
-    public void acceptEnumValue(String left, String right) {
-        if (left == null && location.isResponse()) {
-            addError("The enum value '" + right + "' has been added in the new spec.");
+    public void acceptEnumValues(Set<String> added, Set<String> removed) {
+        if (!location.isResponse()) {
+            return;
+        }
+
+        for (String value : added) {
+            addError("The enum value '" + value + "' has been added in the new spec.", null, value);
         }
     }
 }
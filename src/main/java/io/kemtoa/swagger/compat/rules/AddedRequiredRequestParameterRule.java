@@ -1,5 +1,6 @@
 package io.kemtoa.swagger.compat.rules;
 
+import io.kemtoa.swagger.compat.walker.DiffContext;
 import io.swagger.models.parameters.Parameter;
 import io.swagger.models.properties.Property;
 
@@ -7,19 +8,20 @@ import io.swagger.models.properties.Property;
  * Adding a required property to a request parameter causes client requests
  * to fail if the property is not present.
  */
+@ObservedContexts(DiffContext.REQUEST)
 public class AddedRequiredRequestParameterRule extends Rule {
 
     @Override
     public void acceptParameter(Parameter left, Parameter right) {
         if (left == null && right.getRequired()) {
-            addError("The required parameter '" + right.getName() + "' has been added in the new spec.");
+            addError("The required parameter '" + right.getName() + "' has been added in the new spec.", null, right.getName());
         }
     }
 
     @Override
     public void acceptProperty(String key, Property left, Property right) {
         if (left == null && right.getRequired() && location.isRequest()) {
-            addError("The required property '" + key + "' has been added in the new spec.");
+            addError("The required property '" + key + "' has been added in the new spec.", null, key);
         }
     }
 }
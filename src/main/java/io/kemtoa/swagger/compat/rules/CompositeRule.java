@@ -3,7 +3,10 @@ package io.kemtoa.swagger.compat.rules;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
+import io.kemtoa.swagger.compat.walker.DiffContext;
+import io.kemtoa.swagger.compat.walker.DiffEvent;
 import io.kemtoa.swagger.compat.walker.Location;
 import io.swagger.models.HttpMethod;
 import io.swagger.models.Model;
@@ -19,12 +22,44 @@ import io.swagger.models.properties.Property;
  * Delegates all operations to a set of specified Rules. Using this class
  * allows to process multiple rules while walking the Swagger documents
  * only once.
+ *
+ * Each call is only delegated to the rules observing it in the current
+ * context, using dispatch tables built when the composite is created.
  */
 public class CompositeRule extends Rule {
+    private static final int CONTEXT_COUNT = DiffContext.values().length;
+
     private final List<Rule> rules;
+    private final Rule[][] dispatch;
 
     public CompositeRule(Rule... rules) {
         this.rules = Arrays.asList(rules);
+
+        this.dispatch = new Rule[DiffEvent.values().length * CONTEXT_COUNT][];
+        for (DiffEvent event : DiffEvent.values()) {
+            for (DiffContext context : DiffContext.values()) {
+                dispatch[index(event, context)] = Arrays.stream(rules)
+                        .filter(rule -> rule.observes(event, context))
+                        .toArray(Rule[]::new);
+            }
+        }
+    }
+
+    private static int index(DiffEvent event, DiffContext context) {
+        return event.ordinal() * CONTEXT_COUNT + context.ordinal();
+    }
+
+    private Rule[] getObservers(DiffEvent event) {
+        return dispatch[index(event, DiffContext.of(location))];
+    }
+
+    @Override
+    public List<Violation> getViolations() {
+        List<Violation> violations = new ArrayList<>();
+
+        rules.forEach(v -> violations.addAll(v.getViolations()));
+
+        return violations;
     }
 
     @Override
@@ -36,43 +71,76 @@ public class CompositeRule extends Rule {
         return errors;
     }
 
+    @Override
+    public void setSink(ViolationSink sink) {
+        super.setSink(sink);
+        rules.forEach(v -> v.setSink(sink));
+    }
+
     @Override
     public void setLocation(Location location) {
+        super.setLocation(location);
         rules.forEach(v -> v.setLocation(location));
     }
 
+    @Override
+    public boolean observes(DiffEvent event, DiffContext context) {
+        return dispatch[index(event, context)].length > 0;
+    }
+
     @Override
     public void acceptPath(String key, Path left, Path right) {
-        rules.forEach(v -> v.acceptPath(key, left, right));
+        for (Rule rule : getObservers(DiffEvent.PATH)) {
+            rule.acceptPath(key, left, right);
+        }
     }
 
     @Override
     public void acceptOperation(HttpMethod operationKey, Operation left, Operation right) {
-        rules.forEach(v -> v.acceptOperation(operationKey, left, right));
+        for (Rule rule : getObservers(DiffEvent.OPERATION)) {
+            rule.acceptOperation(operationKey, left, right);
+        }
     }
 
     @Override
     public void acceptParameter(Parameter left, Parameter right) {
-        rules.forEach(v -> v.acceptParameter(left, right));
+        for (Rule rule : getObservers(DiffEvent.PARAMETER)) {
+            rule.acceptParameter(left, right);
+        }
     }
 
     @Override
     public void acceptResponse(String key, Response left, Response right) {
-        rules.forEach(v -> v.acceptResponse(key, left, right));
+        for (Rule rule : getObservers(DiffEvent.RESPONSE)) {
+            rule.acceptResponse(key, left, right);
+        }
     }
 
     @Override
     public void acceptModel(Model left, Model right) {
-        rules.forEach(v -> v.acceptModel(left, right));
+        for (Rule rule : getObservers(DiffEvent.MODEL)) {
+            rule.acceptModel(left, right);
+        }
     }
 
     @Override
     public void acceptProperty(String key, Property left, Property right) {
-        rules.forEach(v -> v.acceptProperty(key, left, right));
+        for (Rule rule : getObservers(DiffEvent.PROPERTY)) {
+            rule.acceptProperty(key, left, right);
+        }
     }
 
     @Override
     public void acceptEnumValue(String left, String right) {
-        rules.forEach(v -> v.acceptEnumValue(left, right));
+        for (Rule rule : getObservers(DiffEvent.ENUM_VALUE)) {
+            rule.acceptEnumValue(left, right);
+        }
+    }
+
+    @Override
+    public void acceptEnumValues(Set<String> added, Set<String> removed) {
+        for (Rule rule : getObservers(DiffEvent.ENUM_VALUES)) {
+            rule.acceptEnumValues(added, removed);
+        }
     }
 }
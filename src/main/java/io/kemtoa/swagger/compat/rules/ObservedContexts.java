@@ -0,0 +1,23 @@
+package io.kemtoa.swagger.compat.rules;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import io.kemtoa.swagger.compat.walker.DiffContext;
+
+/**
+ * Restricts the contexts in which a {@link Rule} is called
+ *
+ * Rules without this annotation are called in all the contexts.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ObservedContexts {
+    DiffContext[] value();
+}
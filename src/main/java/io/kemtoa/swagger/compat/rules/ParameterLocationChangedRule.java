@@ -2,6 +2,7 @@ package io.kemtoa.swagger.compat.rules;
 
 import org.apache.commons.lang3.StringUtils;
 
+import io.kemtoa.swagger.compat.walker.DiffContext;
 import io.swagger.models.parameters.Parameter;
 
 /**
@@ -11,6 +12,7 @@ import io.swagger.models.parameters.Parameter;
  * For instance, changing a parameter from being in a 'header' to
  * being in the 'query' causes this rule to fail.
  */
+@ObservedContexts(DiffContext.REQUEST)
 public class ParameterLocationChangedRule extends Rule {
 
     @Override
@@ -21,7 +23,7 @@ public class ParameterLocationChangedRule extends Rule {
 
         if (!StringUtils.equals(left.getIn(), right.getIn())) {
             addError("The location of parameter '" + left.getName() + "' has changed in the new spec: '"
-                    + right.getIn() + "' previously was '" + left.getIn() + "'.");
+                    + right.getIn() + "' previously was '" + left.getIn() + "'.", left.getIn(), right.getIn());
         }
     }
 }
@@ -0,0 +1,142 @@
+package io.kemtoa.swagger.compat.rules;
+
+import java.util.List;
+import java.util.Set;
+
+import io.kemtoa.swagger.compat.walker.DiffContext;
+import io.kemtoa.swagger.compat.walker.DiffEvent;
+import io.kemtoa.swagger.compat.walker.Location;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.properties.Property;
+
+/**
+ * {@link Rule} decorator counting the calls made to a rule and the time spent in them
+ *
+ * The decorated rule observes the same events as the rule it wraps. Wrapping
+ * a {@link CompositeRule} counts the nodes visited by the walker, by kind.
+ */
+public class ProfiledRule extends Rule {
+    private final Rule rule;
+    private final long[] calls = new long[DiffEvent.values().length];
+    private long nanos;
+
+    public ProfiledRule(Rule rule) {
+        this.rule = rule;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    public long getCallCount(DiffEvent event) {
+        return calls[event.ordinal()];
+    }
+
+    public long getCallCount() {
+        long count = 0;
+        for (long eventCalls : calls) {
+            count += eventCalls;
+        }
+        return count;
+    }
+
+    /**
+     * @return the cumulative time spent in the calls to the rule, in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    private void record(DiffEvent event, long start) {
+        nanos += System.nanoTime() - start;
+        calls[event.ordinal()]++;
+    }
+
+    @Override
+    public List<Violation> getViolations() {
+        return rule.getViolations();
+    }
+
+    @Override
+    public List<String> getErrors() {
+        return rule.getErrors();
+    }
+
+    @Override
+    public void setSink(ViolationSink sink) {
+        super.setSink(sink);
+        rule.setSink(sink);
+    }
+
+    @Override
+    public void setLocation(Location location) {
+        super.setLocation(location);
+        rule.setLocation(location);
+    }
+
+    @Override
+    public boolean observes(DiffEvent event, DiffContext context) {
+        return rule.observes(event, context);
+    }
+
+    @Override
+    public void acceptPath(String key, Path left, Path right) {
+        long start = System.nanoTime();
+        rule.acceptPath(key, left, right);
+        record(DiffEvent.PATH, start);
+    }
+
+    @Override
+    public void acceptOperation(HttpMethod operationKey, Operation left, Operation right) {
+        long start = System.nanoTime();
+        rule.acceptOperation(operationKey, left, right);
+        record(DiffEvent.OPERATION, start);
+    }
+
+    @Override
+    public void acceptParameter(Parameter left, Parameter right) {
+        long start = System.nanoTime();
+        rule.acceptParameter(left, right);
+        record(DiffEvent.PARAMETER, start);
+    }
+
+    @Override
+    public void acceptResponse(String key, Response left, Response right) {
+        long start = System.nanoTime();
+        rule.acceptResponse(key, left, right);
+        record(DiffEvent.RESPONSE, start);
+    }
+
+    @Override
+    public void acceptModel(Model left, Model right) {
+        long start = System.nanoTime();
+        rule.acceptModel(left, right);
+        record(DiffEvent.MODEL, start);
+    }
+
+    @Override
+    public void acceptProperty(String key, Property left, Property right) {
+        long start = System.nanoTime();
+        rule.acceptProperty(key, left, right);
+        record(DiffEvent.PROPERTY, start);
+    }
+
+    @Override
+    public void acceptEnumValue(String left, String right) {
+        long start = System.nanoTime();
+        rule.acceptEnumValue(left, right);
+        record(DiffEvent.ENUM_VALUE, start);
+    }
+
+    @Override
+    public void acceptEnumValues(Set<String> added, Set<String> removed) {
+        long start = System.nanoTime();
+        rule.acceptEnumValues(added, removed);
+        record(DiffEvent.ENUM_VALUES, start);
+    }
+}
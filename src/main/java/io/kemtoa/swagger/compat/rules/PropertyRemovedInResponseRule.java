@@ -1,5 +1,6 @@
 package io.kemtoa.swagger.compat.rules;
 
+import io.kemtoa.swagger.compat.walker.DiffContext;
 import io.swagger.models.properties.Property;
 
 /**
@@ -10,12 +11,13 @@ import io.swagger.models.properties.Property;
  * validation and this could lead to unexpected errors while parsing the
  * response and/or using the missing property.
  */
+@ObservedContexts(DiffContext.RESPONSE)
 public class PropertyRemovedInResponseRule extends Rule {
 
     @Override
     public void acceptProperty(String key, Property left, Property right) {
         if (right == null && location.isResponse()) {
-            addError("The property '" + key + "' has been removed in the new spec.");
+            addError("The property '" + key + "' has been removed in the new spec.", key, null);
         }
     }
 }
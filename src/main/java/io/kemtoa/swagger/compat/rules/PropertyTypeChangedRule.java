@@ -28,7 +28,7 @@ public class PropertyTypeChangedRule extends Rule {
 
         if (!StringUtils.equals(leftType, rightType)) {
             addError("The type changed in the new spec: '"
-                    + rightType + "' was previously '" + leftType + "'.");
+                    + rightType + "' was previously '" + leftType + "'.", leftType, rightType);
         }
 
         if (left instanceof ModelImpl && right instanceof ModelImpl) {
@@ -37,7 +37,8 @@ public class PropertyTypeChangedRule extends Rule {
 
             if (!StringUtils.equals(leftModel.getFormat(), rightModel.getFormat())) {
                 addError("The format changed in the new spec: '"
-                        + rightModel.getFormat() + "' was previously '" + leftModel.getFormat() + "'.");
+                        + rightModel.getFormat() + "' was previously '" + leftModel.getFormat() + "'.",
+                        leftModel.getFormat(), rightModel.getFormat());
             }
         }
     }
@@ -60,12 +61,12 @@ public class PropertyTypeChangedRule extends Rule {
 
         if (!StringUtils.equals(left.getType(), right.getType())) {
             addError("The type of property '" + key + "' has changed in the new spec: '"
-                    + right.getType() + "' was previously '" + left.getType() + "'.");
+                    + right.getType() + "' was previously '" + left.getType() + "'.", left.getType(), right.getType());
         }
 
         if (!StringUtils.equals(left.getFormat(), right.getFormat())) {
             addError("The format of property '" + key + "' has changed in the new spec: '"
-                    + right.getFormat() + "' was previously '" + left.getFormat() + "'.");
+                    + right.getFormat() + "' was previously '" + left.getFormat() + "'.", left.getFormat(), right.getFormat());
         }
     }
 }
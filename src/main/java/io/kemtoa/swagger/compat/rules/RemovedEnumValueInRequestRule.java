@@ -1,17 +1,26 @@
 package io.kemtoa.swagger.compat.rules;
 
+import java.util.Set;
+
+import io.kemtoa.swagger.compat.walker.DiffContext;
+
 /**
  * Removing an enum value from a request parameter is backward incompatible
  * as a previously valid request will not be valid. This happens because
  * a request containing the removed enum value, valid according to the 'old'
  * Swagger spec, is not valid according to the new specs.
  */
+@ObservedContexts(DiffContext.REQUEST)
 public class RemovedEnumValueInRequestRule extends Rule {
 
     @Override
-    public void acceptEnumValue(String left, String right) {
-        if (right == null && location.isRequest()) {
-            addError("The enum value '" + left + "' has been removed in the new spec.");
+    public void acceptEnumValues(Set<String> added, Set<String> removed) {
+        if (!location.isRequest()) {
+            return;
+        }
+
+        for (String value : removed) {
+            addError("The enum value '" + value + "' has been removed in the new spec.", value, null);
         }
     }
 }
@@ -1,8 +1,13 @@
 package io.kemtoa.swagger.compat.rules;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
+import io.kemtoa.swagger.compat.walker.DiffContext;
+import io.kemtoa.swagger.compat.walker.DiffEvent;
 import io.kemtoa.swagger.compat.walker.Location;
 import io.kemtoa.swagger.compat.walker.SwaggerDiffVisitor;
 
@@ -11,21 +16,95 @@ import io.kemtoa.swagger.compat.walker.SwaggerDiffVisitor;
  *
  * Two Swagger specifications are deemed compatible when a set
  * of rules are verified when comparing the documents.
+ *
+ * A rule only observes the events it overrides the visitor method of,
+ * in the contexts declared with {@link ObservedContexts}.
+ *
+ * The violations found are kept by the rule, unless a {@link ViolationSink}
+ * is set, in which case they are passed to the sink and not retained.
  */
 public abstract class Rule implements SwaggerDiffVisitor {
+    private static final ClassValue<Subscription> SUBSCRIPTIONS = new ClassValue<Subscription>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Subscription computeValue(Class<?> type) {
+            return new Subscription((Class<? extends Rule>) type);
+        }
+    };
+
     protected Location location;
-    private final List<String> errors = new ArrayList<>();
+    private final List<Violation> violations = new ArrayList<>();
+    private ViolationSink sink;
 
     @Override
     public void setLocation(Location location) {
         this.location = location;
     }
 
+    @Override
+    public boolean observes(DiffEvent event, DiffContext context) {
+        Subscription subscription = SUBSCRIPTIONS.get(getClass());
+        return subscription.events.contains(event) && subscription.contexts.contains(context);
+    }
+
+    public void setSink(ViolationSink sink) {
+        this.sink = sink;
+    }
+
     public void addError(String message) {
-        errors.add(location.getFullLocation() + " : " + message);
+        addError(message, null, null);
+    }
+
+    /**
+     * Reports a violation at the current location
+     *
+     * @param oldValue the value of the changed node in the old specification, if any
+     * @param newValue the value of the changed node in the new specification, if any
+     */
+    public void addError(String message, String oldValue, String newValue) {
+        Violation violation = new Violation(getClass().getSimpleName(), Violation.Severity.ERROR, location.copy(),
+                message, oldValue, newValue);
+        if (sink != null) {
+            sink.accept(violation);
+        } else {
+            violations.add(violation);
+        }
+    }
+
+    /**
+     * @return the violations found, when no sink is set
+     */
+    public List<Violation> getViolations() {
+        return violations;
     }
 
     public List<String> getErrors() {
+        List<String> errors = new ArrayList<>(violations.size());
+        for (Violation violation : violations) {
+            errors.add(violation.toString());
+        }
         return errors;
     }
+
+    /**
+     * Events and contexts observed by a rule class
+     */
+    private static final class Subscription {
+        private final Set<DiffEvent> events = EnumSet.noneOf(DiffEvent.class);
+        private final Set<DiffContext> contexts = EnumSet.allOf(DiffContext.class);
+
+        private Subscription(Class<? extends Rule> type) {
+            for (DiffEvent event : DiffEvent.values()) {
+                if (event.isHandledBy(type)) {
+                    events.add(event);
+                }
+            }
+
+            ObservedContexts observedContexts = type.getAnnotation(ObservedContexts.class);
+            if (observedContexts != null) {
+                contexts.clear();
+                contexts.addAll(Arrays.asList(observedContexts.value()));
+            }
+        }
+    }
 }
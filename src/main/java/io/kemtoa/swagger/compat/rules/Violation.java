@@ -0,0 +1,94 @@
+package io.kemtoa.swagger.compat.rules;
+
+import io.kemtoa.swagger.compat.walker.Location;
+
+/**
+ * Backwards incompatible change found by a {@link Rule}
+ *
+ * The old and new values are the values of the changed node in both
+ * specifications, such as the types of a property whose type changed,
+ * or null when the node does not exist in one of the specifications.
+ *
+ * When a spec is checked against several baselines, the violations found
+ * against a historical baseline are tagged with the name of the baseline.
+ */
+public final class Violation {
+
+    public enum Severity {
+        ERROR,
+        WARNING
+    }
+
+    private final String ruleId;
+    private final Severity severity;
+    private final Location location;
+    private final String message;
+    private final String oldValue;
+    private final String newValue;
+    private final String baseline;
+
+    public Violation(String ruleId, Severity severity, Location location, String message, String oldValue, String newValue) {
+        this(ruleId, severity, location, message, oldValue, newValue, null);
+    }
+
+    private Violation(String ruleId, Severity severity, Location location, String message, String oldValue, String newValue,
+                      String baseline) {
+        this.ruleId = ruleId;
+        this.severity = severity;
+        this.location = location;
+        this.message = message;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.baseline = baseline;
+    }
+
+    /**
+     * @return a copy of this violation tagged with the specified baseline
+     */
+    public Violation withBaseline(String baseline) {
+        return new Violation(ruleId, severity, location, message, oldValue, newValue, baseline);
+    }
+
+    /**
+     * @return the identifier of the rule, its simple class name
+     */
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getOldValue() {
+        return oldValue;
+    }
+
+    public String getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * @return the name of the baseline the violation was found against, or null for the lock of the group
+     */
+    public String getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * @return the violation in a human readable form, such as
+     *         {@code Path /pets, Operation GET : The operation was removed in the new spec.}
+     */
+    @Override
+    public String toString() {
+        return location.getFullLocation() + " : " + message;
+    }
+}
@@ -0,0 +1,10 @@
+package io.kemtoa.swagger.compat.rules;
+
+/**
+ * Receives the violations as soon as they are found by the rules
+ */
+@FunctionalInterface
+public interface ViolationSink {
+
+    void accept(Violation violation);
+}
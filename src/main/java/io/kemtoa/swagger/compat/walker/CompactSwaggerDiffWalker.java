@@ -0,0 +1,610 @@
+package io.kemtoa.swagger.compat.walker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Response;
+import io.swagger.models.parameters.AbstractSerializableParameter;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.CookieParameter;
+import io.swagger.models.parameters.FormParameter;
+import io.swagger.models.parameters.HeaderParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.PathParameter;
+import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.properties.AbstractProperty;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
+/**
+ * Variant of {@link SwaggerDiffWalker} comparing two {@link CompactSpec} documents.
+ *
+ * Calls the specified instance of {@link SwaggerDiffVisitor} for the same nodes
+ * and in the same order as {@link SwaggerDiffWalker} would for the original
+ * documents, so that the existing visitors can be used unchanged.
+ *
+ * The objects passed to the visitor are shallow, contract-only copies of the
+ * compared nodes, created on demand. Paths, operations and responses are empty,
+ * parameters, models and properties only carry their name, location, type,
+ * format, required flag and reference.
+ *
+ * As {@link SwaggerDiffWalker}, compares each pair of definitions once per context
+ * and replays the recorded visitor calls for later references to the same pair,
+ * the pairs part of a cycle being compared once per parameter or response.
+ */
+public class CompactSwaggerDiffWalker {
+
+    private CompactSpec swaggerLeft;
+    private CompactSpec swaggerRight;
+    private Location location = new Location();
+
+    // Depth at which the nodes being compared were reached, 0 when not being compared, used to prevent infinite recursion
+    private int[] depthsLeft;
+    private int[] depthsRight;
+    private int modelDepth;
+    // Lowest depth of the models on which the recursion was stopped since the current definition pair was reached
+    private int lowestCutDepth = Integer.MAX_VALUE;
+
+    private final Map<Long, DiffRecording> requestRecordings = new HashMap<>();
+    private final Map<Long, DiffRecording> responseRecordings = new HashMap<>();
+    private DiffRecording recording;
+    // Depth of the outermost definition pair being recorded, see SwaggerDiffWalker
+    private int recordingDepth = Integer.MAX_VALUE;
+    // Definition pairs compared since the current parameter or response was reached
+    private final Set<Long> comparedPairs = new HashSet<>();
+
+    private ObservedEvents observed;
+    private SpecHashes hashesLeft;
+    private SpecHashes hashesRight;
+    private final ParameterMatcher parameterMatcher = new ParameterMatcher();
+
+    private BooleanSupplier stopCondition = () -> false;
+    private boolean stopped;
+
+    /**
+     * Sets the condition checked before each path and operation, stopping the
+     * walk when it becomes true
+     *
+     * The walk is never stopped within an operation, so that the calls made
+     * to the visitor for a given operation are always complete.
+     */
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * @return whether the last walk was stopped before all the nodes were visited
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public void walk(SwaggerDiffVisitor visitor, CompactSpec swaggerLeft, CompactSpec swaggerRight) {
+        walk(visitor, swaggerLeft, swaggerRight, null, null);
+    }
+
+    /**
+     * Compares two documents, skipping the paths having the same hash in both documents
+     *
+     * Only the path hashes are used, the compact documents not retaining the
+     * nodes the other hashes are computed from.
+     *
+     * @param hashesLeft the hashes of the left document, or null to visit every path
+     * @param hashesRight the hashes of the right document, or null to visit every path
+     */
+    public void walk(SwaggerDiffVisitor visitor, CompactSpec swaggerLeft, CompactSpec swaggerRight,
+                     SpecHashes hashesLeft, SpecHashes hashesRight) {
+        this.swaggerLeft = swaggerLeft;
+        this.swaggerRight = swaggerRight;
+        this.hashesLeft = hashesLeft;
+        this.hashesRight = hashesRight;
+        this.depthsLeft = new int[swaggerLeft.getNodeCount()];
+        this.depthsRight = new int[swaggerRight.getNodeCount()];
+        this.requestRecordings.clear();
+        this.responseRecordings.clear();
+        this.observed = new ObservedEvents(visitor);
+        this.stopped = false;
+
+        visitor.setLocation(location);
+
+        int leftFirst = swaggerLeft.getFirstChild(swaggerLeft.getRoot());
+        int leftEnd = leftFirst + swaggerLeft.getChildCount(swaggerLeft.getRoot());
+        int rightFirst = swaggerRight.getFirstChild(swaggerRight.getRoot());
+        int rightEnd = rightFirst + swaggerRight.getChildCount(swaggerRight.getRoot());
+
+        for (int left = leftFirst; left < leftEnd; left++) {
+            if (shouldStop()) {
+                return;
+            }
+            String key = swaggerLeft.getName(left);
+            doVisitPath(visitor, key, left, swaggerRight.findChild(rightFirst, rightEnd, key));
+        }
+        for (int right = rightFirst; right < rightEnd; right++) {
+            String key = swaggerRight.getName(right);
+            if (swaggerLeft.findChild(leftFirst, leftEnd, key) < 0) {
+                if (shouldStop()) {
+                    return;
+                }
+                doVisitPath(visitor, key, -1, right);
+            }
+        }
+    }
+
+    private boolean shouldStop() {
+        if (!stopped && stopCondition.getAsBoolean()) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private void doVisitPath(SwaggerDiffVisitor visitor, String pathKey, int left, int right) {
+        if (left >= 0 && right >= 0 && SpecHashes.arePathsIdentical(hashesLeft, hashesRight, pathKey)) {
+            return;
+        }
+
+        location.push(Location.Kind.PATH, pathKey);
+
+        try {
+            visitor.acceptPath(pathKey, left >= 0 ? new Path() : null, right >= 0 ? new Path() : null);
+
+            if (left < 0 || right < 0 || !observed.operations()) {
+                return;
+            }
+
+            int leftFirst = swaggerLeft.getFirstChild(left);
+            int leftEnd = leftFirst + swaggerLeft.getChildCount(left);
+            int rightFirst = swaggerRight.getFirstChild(right);
+            int rightEnd = rightFirst + swaggerRight.getChildCount(right);
+
+            for (int leftOperation = leftFirst; leftOperation < leftEnd; leftOperation++) {
+                if (shouldStop()) {
+                    return;
+                }
+                String key = swaggerLeft.getName(leftOperation);
+                doVisitOperation(visitor, HttpMethod.valueOf(key), leftOperation, swaggerRight.findChild(rightFirst, rightEnd, key));
+            }
+            for (int rightOperation = rightFirst; rightOperation < rightEnd; rightOperation++) {
+                String key = swaggerRight.getName(rightOperation);
+                if (swaggerLeft.findChild(leftFirst, leftEnd, key) < 0) {
+                    if (shouldStop()) {
+                        return;
+                    }
+                    doVisitOperation(visitor, HttpMethod.valueOf(key), -1, rightOperation);
+                }
+            }
+        } finally {
+            location.pop();
+        }
+    }
+
+    private void doVisitOperation(SwaggerDiffVisitor visitor, HttpMethod operationKey, int left, int right) {
+        location.push(Location.Kind.OPERATION, operationKey.name());
+
+        try {
+            visitor.acceptOperation(operationKey, left >= 0 ? new Operation() : null, right >= 0 ? new Operation() : null);
+
+            if (left < 0 || right < 0) {
+                return;
+            }
+
+            int leftFirst = swaggerLeft.getFirstChild(left);
+            int leftParametersEnd = leftFirst + swaggerLeft.getParameterCount(left);
+            int leftEnd = leftFirst + swaggerLeft.getChildCount(left);
+            int rightFirst = swaggerRight.getFirstChild(right);
+            int rightParametersEnd = rightFirst + swaggerRight.getParameterCount(right);
+            int rightEnd = rightFirst + swaggerRight.getChildCount(right);
+
+            if (observed.parameters()) {
+                doVisitParameters(visitor, leftFirst, leftParametersEnd, rightFirst, rightParametersEnd);
+            }
+
+            if (!observed.responses()) {
+                return;
+            }
+
+            for (int leftResponse = leftParametersEnd; leftResponse < leftEnd; leftResponse++) {
+                String key = swaggerLeft.getName(leftResponse);
+                doVisitResponse(visitor, key, leftResponse, swaggerRight.findChild(rightParametersEnd, rightEnd, key));
+            }
+            for (int rightResponse = rightParametersEnd; rightResponse < rightEnd; rightResponse++) {
+                String key = swaggerRight.getName(rightResponse);
+                if (swaggerLeft.findChild(leftParametersEnd, leftEnd, key) < 0) {
+                    doVisitResponse(visitor, key, -1, rightResponse);
+                }
+            }
+        } finally {
+            location.pop();
+        }
+    }
+
+    private void doVisitParameters(SwaggerDiffVisitor visitor, int leftFirst, int leftEnd, int rightFirst, int rightEnd) {
+        parameterMatcher.reset(leftEnd - leftFirst, rightEnd - rightFirst);
+        for (int parameter = leftFirst; parameter < leftEnd; parameter++) {
+            parameterMatcher.addLeft(swaggerLeft.getName(parameter), swaggerLeft.getIn(parameter));
+        }
+        for (int parameter = rightFirst; parameter < rightEnd; parameter++) {
+            parameterMatcher.addRight(swaggerRight.getName(parameter), swaggerRight.getIn(parameter));
+        }
+        parameterMatcher.match();
+
+        for (int i = 0; i < leftEnd - leftFirst; i++) {
+            if (!parameterMatcher.isDuplicateLeft(i)) {
+                int match = parameterMatcher.getMatch(i);
+                doVisitParameter(visitor, leftFirst + i, match >= 0 ? rightFirst + match : -1);
+            }
+        }
+        for (int i = 0; i < rightEnd - rightFirst; i++) {
+            if (parameterMatcher.isUnmatchedRight(i)) {
+                doVisitParameter(visitor, -1, rightFirst + i);
+            }
+        }
+    }
+
+    private void doVisitParameter(SwaggerDiffVisitor visitor, int left, int right) {
+        location.push(Location.Kind.PARAMETER, left >= 0 ? swaggerLeft.getName(left) : swaggerRight.getName(right));
+        location.setRequest(true);
+
+        try {
+            visitor.acceptParameter(toParameter(swaggerLeft, left), toParameter(swaggerRight, right));
+
+            if (left < 0 || right < 0) {
+                return;
+            }
+
+            boolean leftBody = "body".equals(swaggerLeft.getIn(left));
+            boolean rightBody = "body".equals(swaggerRight.getIn(right));
+            if ((leftBody || rightBody) && observed.schemas(DiffContext.REQUEST)) {
+                comparedPairs.clear();
+                doVisitModel(visitor,
+                        leftBody ? getSingleChild(swaggerLeft, left) : -1,
+                        rightBody ? getSingleChild(swaggerRight, right) : -1
+                );
+            }
+        } finally {
+            location.setRequest(false);
+            location.pop();
+        }
+    }
+
+    private void doVisitResponse(SwaggerDiffVisitor visitor, String key, int left, int right) {
+        location.push(Location.Kind.RESPONSE, key);
+        location.setResponse(true);
+
+        try {
+            visitor.acceptResponse(key, left >= 0 ? new Response() : null, right >= 0 ? new Response() : null);
+
+            if (left < 0 || right < 0) {
+                return;
+            }
+
+            int leftSchema = getSingleChild(swaggerLeft, left);
+            int rightSchema = getSingleChild(swaggerRight, right);
+            if (leftSchema < 0 && rightSchema < 0 || !observed.schemas(DiffContext.RESPONSE)) {
+                return;
+            }
+
+            comparedPairs.clear();
+            doVisitModel(visitor, leftSchema, rightSchema);
+        } finally {
+            location.setResponse(false);
+            location.pop();
+        }
+    }
+
+    private void doVisitModel(SwaggerDiffVisitor visitor, int left, int right) {
+        if (left >= 0 && right >= 0 && depthsLeft[left] > 0 && depthsRight[right] > 0) {
+            // Prevent infinite recursion
+            cut(Math.min(depthsLeft[left], depthsRight[right]));
+            return;
+        }
+
+        Model leftModel = toModel(swaggerLeft, left);
+        Model rightModel = toModel(swaggerRight, right);
+        visitor.acceptModel(leftModel, rightModel);
+        if (recording != null) {
+            recording.model(leftModel, rightModel);
+        }
+
+        if (left < 0 || right < 0) {
+            return;
+        }
+
+        modelDepth++;
+        boolean leftAdded = depthsLeft[left] == 0;
+        boolean rightAdded = depthsRight[right] == 0;
+        if (leftAdded) {
+            depthsLeft[left] = modelDepth;
+        }
+        if (rightAdded) {
+            depthsRight[right] = modelDepth;
+        }
+
+        try {
+            int leftKind = swaggerLeft.getKind(left);
+            int rightKind = swaggerRight.getKind(right);
+            if (leftKind == CompactSpec.MODEL_ARRAY && rightKind == CompactSpec.MODEL_ARRAY) {
+                doVisitProperty(visitor, Location.Kind.ITEMS, "items", getSingleChild(swaggerLeft, left), getSingleChild(swaggerRight, right));
+            } else if (leftKind == CompactSpec.MODEL_IMPL && rightKind == CompactSpec.MODEL_IMPL) {
+                doVisitEnumValues(visitor, left, right);
+                doVisitProperties(visitor, left, right);
+            } else if (leftKind == CompactSpec.MODEL_REF && rightKind == CompactSpec.MODEL_REF) {
+                doVisitDefinitions(visitor, swaggerLeft.getRefTarget(left), swaggerRight.getRefTarget(right));
+            }
+        } finally {
+            if (leftAdded) {
+                depthsLeft[left] = 0;
+            }
+            if (rightAdded) {
+                depthsRight[right] = 0;
+            }
+            modelDepth--;
+        }
+    }
+
+    /**
+     * Compares two referenced definitions, replaying the previous comparison of
+     * the same pair in the same context when available
+     *
+     * See {@link SwaggerDiffWalker} for the conditions under which a comparison
+     * is recorded, and under which a pair is not compared again.
+     */
+    private void doVisitDefinitions(SwaggerDiffVisitor visitor, int left, int right) {
+        if (left < 0 || right < 0 || depthsLeft[left] > 0 && depthsRight[right] > 0) {
+            doVisitModel(visitor, left, right);
+            return;
+        }
+
+        Map<Long, DiffRecording> recordings = location.isRequest() ? requestRecordings : responseRecordings;
+        Long pair = ((long) left << 32) | right;
+
+        DiffRecording pairRecording = recordings.get(pair);
+        if (pairRecording != null) {
+            pairRecording.replay(visitor, location);
+            if (recording != null) {
+                recording.nested(pairRecording);
+            }
+            return;
+        }
+        if (!comparedPairs.add(pair)) {
+            // Already compared from the same parameter or response, the skipped comparison depending on it
+            cut(0);
+            return;
+        }
+
+        int pairDepth = modelDepth + 1;
+        DiffRecording parentRecording = recording;
+        int parentCutDepth = lowestCutDepth;
+        lowestCutDepth = Integer.MAX_VALUE;
+        pairRecording = new DiffRecording();
+        recording = pairRecording;
+        if (parentRecording == null) {
+            recordingDepth = pairDepth;
+        }
+
+        try {
+            doVisitModel(visitor, left, right);
+
+            if (lowestCutDepth > pairDepth) {
+                recordings.put(pair, pairRecording);
+            }
+        } finally {
+            lowestCutDepth = Math.min(parentCutDepth, lowestCutDepth);
+            if (parentRecording == null) {
+                recordingDepth = Integer.MAX_VALUE;
+            }
+            recording = recordingDepth < pairDepth ? parentRecording : null;
+        }
+
+        if (recording != null) {
+            recording.nested(pairRecording);
+        }
+    }
+
+    /**
+     * Stops the recursion on a model reached at the specified depth, discarding
+     * the recordings in progress when none of them can be kept anymore
+     */
+    private void cut(int depth) {
+        lowestCutDepth = Math.min(lowestCutDepth, depth);
+        if (depth <= recordingDepth) {
+            recording = null;
+            recordingDepth = Integer.MAX_VALUE;
+        }
+    }
+
+    private void doVisitProperties(SwaggerDiffVisitor visitor, int left, int right) {
+        if (!swaggerLeft.hasProperties(left) || !swaggerRight.hasProperties(right)) {
+            return;
+        }
+
+        int leftFirst = swaggerLeft.getFirstChild(left);
+        int leftEnd = leftFirst + swaggerLeft.getChildCount(left);
+        int rightFirst = swaggerRight.getFirstChild(right);
+        int rightEnd = rightFirst + swaggerRight.getChildCount(right);
+
+        for (int leftProperty = leftFirst; leftProperty < leftEnd; leftProperty++) {
+            String key = swaggerLeft.getName(leftProperty);
+            doVisitProperty(visitor, Location.Kind.PROPERTY, key, leftProperty, swaggerRight.findChild(rightFirst, rightEnd, key));
+        }
+        for (int rightProperty = rightFirst; rightProperty < rightEnd; rightProperty++) {
+            String key = swaggerRight.getName(rightProperty);
+            if (swaggerLeft.findChild(leftFirst, leftEnd, key) < 0) {
+                doVisitProperty(visitor, Location.Kind.PROPERTY, key, -1, rightProperty);
+            }
+        }
+    }
+
+    private void doVisitProperty(SwaggerDiffVisitor visitor, Location.Kind kind, String name, int left, int right) {
+        location.push(kind, name);
+
+        try {
+            Property leftProperty = toProperty(swaggerLeft, left);
+            Property rightProperty = toProperty(swaggerRight, right);
+            if (recording != null) {
+                recording.enterProperty(kind, name, leftProperty, rightProperty);
+            }
+            visitor.acceptProperty(name, leftProperty, rightProperty);
+
+            if (left < 0 || right < 0) {
+                return;
+            }
+
+            int leftKind = swaggerLeft.getKind(left);
+            int rightKind = swaggerRight.getKind(right);
+            if (leftKind == CompactSpec.PROPERTY_REF && rightKind == CompactSpec.PROPERTY_REF) {
+                doVisitDefinitions(visitor, swaggerLeft.getRefTarget(left), swaggerRight.getRefTarget(right));
+            } else if (leftKind == CompactSpec.PROPERTY_OBJECT && rightKind == CompactSpec.PROPERTY_OBJECT) {
+                doVisitProperties(visitor, left, right);
+            } else if (leftKind == CompactSpec.PROPERTY_ARRAY && rightKind == CompactSpec.PROPERTY_ARRAY) {
+                doVisitProperty(visitor, Location.Kind.ITEMS, "items", getSingleChild(swaggerLeft, left), getSingleChild(swaggerRight, right));
+            } else if (leftKind == CompactSpec.PROPERTY_STRING && rightKind == CompactSpec.PROPERTY_STRING) {
+                doVisitEnumValues(visitor, left, right);
+            }
+        } finally {
+            if (recording != null) {
+                recording.exitProperty();
+            }
+            location.pop();
+        }
+    }
+
+    private void doVisitEnumValues(SwaggerDiffVisitor visitor, int left, int right) {
+        DiffContext context = DiffContext.of(location);
+        if (observed.enumValues(context)) {
+            EnumDiff.visit(visitor, observed, context, recording,
+                    getEnumValues(swaggerLeft, left), getEnumValues(swaggerRight, right));
+        }
+    }
+
+    private static List<String> getEnumValues(CompactSpec spec, int node) {
+        int count = spec.getEnumCount(node);
+        if (count < 0) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(spec.getEnumValue(node, i));
+        }
+        return values;
+    }
+
+    private static int getSingleChild(CompactSpec spec, int node) {
+        return spec.getChildCount(node) > 0 ? spec.getFirstChild(node) : -1;
+    }
+
+    private static Parameter toParameter(CompactSpec spec, int node) {
+        if (node < 0) {
+            return null;
+        }
+
+        String in = spec.getIn(node);
+        if ("body".equals(in)) {
+            BodyParameter parameter = new BodyParameter();
+            parameter.setName(spec.getName(node));
+            parameter.setRequired(spec.isRequired(node));
+            return parameter;
+        }
+
+        AbstractSerializableParameter<?> parameter;
+        if ("header".equals(in)) {
+            parameter = new HeaderParameter();
+        } else if ("path".equals(in)) {
+            parameter = new PathParameter();
+        } else if ("formData".equals(in)) {
+            parameter = new FormParameter();
+        } else if ("cookie".equals(in)) {
+            parameter = new CookieParameter();
+        } else {
+            parameter = new QueryParameter();
+        }
+
+        parameter.setIn(in);
+        parameter.setName(spec.getName(node));
+        parameter.setRequired(spec.isRequired(node));
+        parameter.setType(spec.getType(node));
+        parameter.setFormat(spec.getFormat(node));
+        return parameter;
+    }
+
+    private static Model toModel(CompactSpec spec, int node) {
+        if (node < 0) {
+            return null;
+        }
+
+        switch (spec.getKind(node)) {
+            case CompactSpec.MODEL_ARRAY:
+                ArrayModel arrayModel = new ArrayModel();
+                arrayModel.setType(spec.getType(node));
+                return arrayModel;
+            case CompactSpec.MODEL_REF:
+                return new RefModel(spec.getRef(node));
+            case CompactSpec.MODEL_COMPOSED:
+                return new ComposedModel();
+            default:
+                ModelImpl model = new ModelImpl();
+                model.setType(spec.getType(node));
+                model.setFormat(spec.getFormat(node));
+                return model;
+        }
+    }
+
+    private static Property toProperty(CompactSpec spec, int node) {
+        if (node < 0) {
+            return null;
+        }
+
+        AbstractProperty property;
+        switch (spec.getKind(node)) {
+            case CompactSpec.PROPERTY_REF:
+                property = new RefProperty(spec.getRef(node));
+                break;
+            case CompactSpec.PROPERTY_OBJECT:
+                property = new ObjectProperty();
+                break;
+            case CompactSpec.PROPERTY_ARRAY:
+                property = new ArrayProperty();
+                break;
+            case CompactSpec.PROPERTY_STRING:
+                property = new StringProperty();
+                break;
+            case CompactSpec.PROPERTY_MAP:
+                property = new MapProperty();
+                break;
+            default:
+                property = new ContractProperty(spec.getType(node));
+                break;
+        }
+
+        property.setFormat(spec.getFormat(node));
+        property.setRequired(spec.isRequired(node));
+        return property;
+    }
+
+    /**
+     * Property of a type without a dedicated swagger-models class
+     */
+    private static class ContractProperty extends AbstractProperty {
+        private ContractProperty(String type) {
+            setType(type);
+        }
+    }
+}
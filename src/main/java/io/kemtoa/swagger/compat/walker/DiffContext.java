@@ -0,0 +1,20 @@
+package io.kemtoa.swagger.compat.walker;
+
+/**
+ * Part of an operation in which a {@link DiffEvent} occurs
+ */
+public enum DiffContext {
+    /** Paths and operations themselves */
+    OPERATION,
+    /** Parameters of an operation, and their schemas */
+    REQUEST,
+    /** Responses of an operation, and their schemas */
+    RESPONSE;
+
+    public static DiffContext of(Location location) {
+        if (location.isRequest()) {
+            return REQUEST;
+        }
+        return location.isResponse() ? RESPONSE : OPERATION;
+    }
+}
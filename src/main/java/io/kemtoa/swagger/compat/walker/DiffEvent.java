@@ -0,0 +1,44 @@
+package io.kemtoa.swagger.compat.walker;
+
+import java.util.Set;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.properties.Property;
+
+/**
+ * Calls made by the walkers to a {@link SwaggerDiffVisitor}
+ */
+public enum DiffEvent {
+    PATH("acceptPath", String.class, Path.class, Path.class),
+    OPERATION("acceptOperation", HttpMethod.class, Operation.class, Operation.class),
+    PARAMETER("acceptParameter", Parameter.class, Parameter.class),
+    RESPONSE("acceptResponse", String.class, Response.class, Response.class),
+    MODEL("acceptModel", Model.class, Model.class),
+    PROPERTY("acceptProperty", String.class, Property.class, Property.class),
+    ENUM_VALUE("acceptEnumValue", String.class, String.class),
+    ENUM_VALUES("acceptEnumValues", Set.class, Set.class);
+
+    private final String methodName;
+    private final Class<?>[] parameterTypes;
+
+    DiffEvent(String methodName, Class<?>... parameterTypes) {
+        this.methodName = methodName;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * @return whether the visitor class overrides the default, empty, implementation of this event
+     */
+    public boolean isHandledBy(Class<? extends SwaggerDiffVisitor> visitorClass) {
+        try {
+            return visitorClass.getMethod(methodName, parameterTypes).getDeclaringClass() != SwaggerDiffVisitor.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Missing visitor method " + methodName, e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.kemtoa.swagger.compat.walker;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import io.swagger.models.Model;
+import io.swagger.models.properties.Property;
+
+/**
+ * Sequence of the visitor calls made while comparing a pair of definitions
+ *
+ * Recorded by the walkers the first time a pair of definitions is compared,
+ * and replayed under the current location each time the same pair is found
+ * again, instead of walking the definitions another time.
+ *
+ * Recordings of the definitions compared while recording a pair are stored
+ * as references, so the size of a recording is proportional to the size of
+ * the definition pair itself rather than to everything it references.
+ */
+final class DiffRecording {
+    private static final byte MODEL = 0;
+    private static final byte ENTER_PROPERTY = 1;
+    private static final byte ENTER_ITEMS = 2;
+    private static final byte EXIT_PROPERTY = 3;
+    private static final byte ENUM_VALUE = 4;
+    private static final byte NESTED = 5;
+    private static final byte ENUM_VALUES = 6;
+
+    private byte[] kinds = new byte[16];
+    private Object[] names = new Object[16];
+    private Object[] lefts = new Object[16];
+    private Object[] rights = new Object[16];
+    private int size;
+
+    void model(Model left, Model right) {
+        add(MODEL, null, left, right);
+    }
+
+    void enterProperty(Location.Kind kind, String name, Property left, Property right) {
+        add(kind == Location.Kind.ITEMS ? ENTER_ITEMS : ENTER_PROPERTY, name, left, right);
+    }
+
+    void exitProperty() {
+        add(EXIT_PROPERTY, null, null, null);
+    }
+
+    void enumValue(String left, String right) {
+        add(ENUM_VALUE, null, left, right);
+    }
+
+    void enumValues(Set<String> added, Set<String> removed) {
+        add(ENUM_VALUES, null, added, removed);
+    }
+
+    void nested(DiffRecording recording) {
+        add(NESTED, recording, null, null);
+    }
+
+    /**
+     * Calls the visitor as the walker did when recording, with the property
+     * names pushed onto the specified location
+     */
+    void replay(SwaggerDiffVisitor visitor, Location location) {
+        for (int i = 0; i < size; i++) {
+            switch (kinds[i]) {
+                case MODEL:
+                    visitor.acceptModel((Model) lefts[i], (Model) rights[i]);
+                    break;
+                case ENTER_PROPERTY:
+                case ENTER_ITEMS:
+                    location.push(kinds[i] == ENTER_ITEMS ? Location.Kind.ITEMS : Location.Kind.PROPERTY, (String) names[i]);
+                    visitor.acceptProperty((String) names[i], (Property) lefts[i], (Property) rights[i]);
+                    break;
+                case EXIT_PROPERTY:
+                    location.pop();
+                    break;
+                case ENUM_VALUE:
+                    visitor.acceptEnumValue((String) lefts[i], (String) rights[i]);
+                    break;
+                case ENUM_VALUES:
+                    visitor.acceptEnumValues(toSet(lefts[i]), toSet(rights[i]));
+                    break;
+                default:
+                    ((DiffRecording) names[i]).replay(visitor, location);
+                    break;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> toSet(Object values) {
+        return (Set<String>) values;
+    }
+
+    private void add(byte kind, Object name, Object left, Object right) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            names = Arrays.copyOf(names, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+        }
+
+        kinds[size] = kind;
+        names[size] = name;
+        lefts[size] = left;
+        rights[size] = right;
+        size++;
+    }
+}
@@ -0,0 +1,89 @@
+package io.kemtoa.swagger.compat.walker;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Compares the enum values of a pair of nodes for the walkers, in linear time
+ *
+ * The values are looked up in hash sets rather than in the lists declaring
+ * them, as the enums of country codes, currencies or error codes can hold
+ * thousands of values. Identical enums are only compared as lists when no
+ * visitor is called for each value.
+ */
+final class EnumDiff {
+
+    private EnumDiff() {
+    }
+
+    /**
+     * Calls {@link SwaggerDiffVisitor#acceptEnumValue} for each value, when
+     * observed, then {@link SwaggerDiffVisitor#acceptEnumValues} when the
+     * values differ
+     *
+     * @param recording the recording of the definition pair being compared, or null
+     */
+    static void visit(SwaggerDiffVisitor visitor, ObservedEvents observed, DiffContext context, DiffRecording recording,
+                      List<String> leftValues, List<String> rightValues) {
+        boolean eachValue = observed.eachEnumValue(context);
+        boolean changes = observed.enumChanges(context);
+        if (!eachValue && (!changes || Objects.equals(leftValues, rightValues))) {
+            return;
+        }
+
+        Set<String> left = toSet(leftValues);
+        Set<String> right = toSet(rightValues);
+
+        if (eachValue) {
+            for (String value : left) {
+                String rightValue = right.contains(value) ? value : null;
+                visitor.acceptEnumValue(value, rightValue);
+                if (recording != null) {
+                    recording.enumValue(value, rightValue);
+                }
+            }
+            for (String value : right) {
+                if (!left.contains(value)) {
+                    visitor.acceptEnumValue(null, value);
+                    if (recording != null) {
+                        recording.enumValue(null, value);
+                    }
+                }
+            }
+        }
+
+        if (changes) {
+            Set<String> added = difference(right, left);
+            Set<String> removed = difference(left, right);
+            if (!added.isEmpty() || !removed.isEmpty()) {
+                visitor.acceptEnumValues(added, removed);
+                if (recording != null) {
+                    recording.enumValues(added, removed);
+                }
+            }
+        }
+    }
+
+    private static Set<String> toSet(List<String> values) {
+        return values != null ? new LinkedHashSet<>(values) : Collections.emptySet();
+    }
+
+    /**
+     * @return the values of the first set missing from the second one, in order
+     */
+    private static Set<String> difference(Set<String> values, Set<String> excluded) {
+        Set<String> difference = null;
+        for (String value : values) {
+            if (!excluded.contains(value)) {
+                if (difference == null) {
+                    difference = new LinkedHashSet<>();
+                }
+                difference.add(value);
+            }
+        }
+        return difference != null ? Collections.unmodifiableSet(difference) : Collections.emptySet();
+    }
+}
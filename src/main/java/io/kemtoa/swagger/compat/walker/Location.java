@@ -1,16 +1,47 @@
 package io.kemtoa.swagger.compat.walker;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Locale;
 
 /**
  * Position in a Swagger API specification document
+ *
+ * The position is stored as a stack of typed segments, each made of a
+ * {@link Kind} and a key such as a path, a response code or a property name.
+ * Pushing and popping segments does not allocate, the textual representations
+ * are only built when requested.
  */
 public class Location {
+
+    /**
+     * Kind of the nodes of a Swagger API specification document
+     */
+    public enum Kind {
+        PATH("Path", "/paths/"),
+        OPERATION("Operation", "/"),
+        PARAMETER("Parameter", "/parameters/"),
+        RESPONSE("Response", "/responses/"),
+        PROPERTY("Property", "/properties/"),
+        ITEMS("Property", "/"),
+        /** Free-form segment, see {@link Location#pushPath(String)} */
+        TEXT(null, "/");
+
+        private final String label;
+        private final String pointerPrefix;
+
+        Kind(String label, String pointerPrefix) {
+            this.label = label;
+            this.pointerPrefix = pointerPrefix;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
     private boolean isRequest;
     private boolean isResponse;
-    private Deque<String> path = new ArrayDeque<>();
+    private Kind[] kinds = new Kind[INITIAL_CAPACITY];
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int size;
 
     public boolean isRequest() {
         return isRequest;
@@ -20,6 +51,19 @@ public class Location {
         return isResponse;
     }
 
+    /**
+     * @return a copy of this location, not affected by the changes made to this location
+     */
+    public Location copy() {
+        Location copy = new Location();
+        copy.isRequest = isRequest;
+        copy.isResponse = isResponse;
+        copy.kinds = Arrays.copyOf(kinds, size);
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.size = size;
+        return copy;
+    }
+
     public void setRequest(boolean request) {
         isRequest = request;
     }
@@ -28,26 +72,97 @@ public class Location {
         isResponse = response;
     }
 
+    public void push(Kind kind, String key) {
+        if (size == kinds.length) {
+            // The copies are trimmed to their size, down to no segment at all
+            int capacity = Math.max(INITIAL_CAPACITY, 2 * size);
+            kinds = Arrays.copyOf(kinds, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+
+        kinds[size] = kind;
+        keys[size] = key;
+        size++;
+    }
+
+    public void pop() {
+        size--;
+        keys[size] = null;
+    }
+
+    /**
+     * Pushes a free-form segment, rendered as is in the full location
+     */
     public void pushPath(String name) {
-        path.push(name);
+        push(Kind.TEXT, name);
     }
 
     public void popPath() {
-        path.pop();
+        pop();
     }
 
+    public int getSegmentCount() {
+        return size;
+    }
+
+    public Kind getSegmentKind(int index) {
+        return kinds[index];
+    }
+
+    public String getSegmentKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @return the location in a human readable form, such as
+     *         {@code Path /pets, Operation GET, Response 200, Property name}
+     */
     public String getFullLocation() {
         StringBuilder fullLocation = new StringBuilder();
 
-        Iterator<String> iterator = path.descendingIterator();
-        while (iterator.hasNext()) {
-            fullLocation.append(iterator.next());
-
-            if (iterator.hasNext()) {
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
                 fullLocation.append(", ");
             }
+            if (kinds[i].label != null) {
+                fullLocation.append(kinds[i].label).append(' ');
+            }
+            fullLocation.append(keys[i]);
         }
 
         return fullLocation.toString();
     }
+
+    /**
+     * Renders the location as a JSON Pointer
+     *
+     * Parameters are designated by name rather than by index, and the properties
+     * of referenced definitions are found under the referencing node.
+     *
+     * @return the location as a JSON Pointer, such as {@code /paths/~1pets/get/responses/200/properties/name}
+     */
+    public String getJsonPointer() {
+        StringBuilder pointer = new StringBuilder();
+
+        for (int i = 0; i < size; i++) {
+            pointer.append(kinds[i].pointerPrefix);
+
+            String key = String.valueOf(keys[i]);
+            if (kinds[i] == Kind.OPERATION) {
+                key = key.toLowerCase(Locale.ROOT);
+            }
+            for (int j = 0; j < key.length(); j++) {
+                char c = key.charAt(j);
+                if (c == '~') {
+                    pointer.append("~0");
+                } else if (c == '/') {
+                    pointer.append("~1");
+                } else {
+                    pointer.append(c);
+                }
+            }
+        }
+
+        return pointer.toString();
+    }
 }
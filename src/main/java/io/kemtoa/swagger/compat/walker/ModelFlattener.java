@@ -0,0 +1,170 @@
+package io.kemtoa.swagger.compat.walker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.RefModel;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.Property;
+
+/**
+ * Flattens the composed models ('allOf') of a specification into the model
+ * they are equivalent to
+ *
+ * The flattened model holds the properties of all the components, the
+ * referenced definitions included, the first component declaring a property
+ * providing it. A property is required when its component requires it. The
+ * enum values are those allowed by all the components declaring some, and
+ * the type and format are those of the first component declaring them.
+ *
+ * Each composed model is flattened once, the same flattened model being
+ * returned for all the references to it, so that the walkers can compare
+ * models by identity. A definition reached again while it is being flattened,
+ * through a cycle of references, is skipped: its properties are already being
+ * collected. Thread-safe, the flattened models of a specification can be
+ * shared by the walkers comparing it: the models already flattened, and the
+ * models not composed, are returned without locking.
+ */
+public final class ModelFlattener {
+
+    private final Swagger swagger;
+    // By model identity, read without locking
+    private final Map<ModelKey, ModelImpl> flattened = new ConcurrentHashMap<>();
+
+    // Models being flattened, with the depth they were reached at, guarded by this
+    private final Map<Model, Integer> flattening = new IdentityHashMap<>();
+    // Lowest depth of the models on which a cycle was cut since the current model was reached
+    private int lowestCutDepth = Integer.MAX_VALUE;
+
+    public ModelFlattener(Swagger swagger) {
+        this.swagger = swagger;
+    }
+
+    /**
+     * @return whether the models flattened are those of the specified specification
+     */
+    public boolean isFor(Swagger swagger) {
+        return this.swagger == swagger;
+    }
+
+    /**
+     * @return the flattened model of a composed model, the model itself otherwise
+     */
+    public Model flatten(Model model) {
+        if (!(model instanceof ComposedModel)) {
+            return model;
+        }
+
+        ModelImpl result = flattened.get(new ModelKey(model));
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            return flatten((ComposedModel) model);
+        }
+    }
+
+    private ModelImpl flatten(ComposedModel model) {
+        ModelKey key = new ModelKey(model);
+        ModelImpl result = flattened.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        int depth = flattening.size() + 1;
+        int parentCutDepth = lowestCutDepth;
+        lowestCutDepth = Integer.MAX_VALUE;
+        flattening.put(model, depth);
+
+        result = new ModelImpl();
+        Map<String, Property> properties = new LinkedHashMap<>();
+        try {
+            List<Model> components = model.getAllOf() != null ? model.getAllOf() : Collections.emptyList();
+            for (Model component : components) {
+                collect(component, result, properties);
+            }
+            if (model.getProperties() != null) {
+                model.getProperties().forEach(properties::putIfAbsent);
+            }
+        } finally {
+            flattening.remove(model);
+        }
+        result.setProperties(properties);
+
+        // The models flattened while a cycle was cut at a lower depth miss the properties of the models above them
+        if (lowestCutDepth >= depth) {
+            flattened.put(key, result);
+        }
+        lowestCutDepth = Math.min(parentCutDepth, lowestCutDepth);
+        return result;
+    }
+
+    private void collect(Model component, ModelImpl result, Map<String, Property> properties) {
+        if (component instanceof RefModel) {
+            Model definition = swagger.getDefinitions() != null
+                    ? swagger.getDefinitions().get(((RefModel) component).getSimpleRef())
+                    : null;
+            Integer cutDepth = definition != null ? flattening.get(definition) : null;
+            if (cutDepth != null) {
+                lowestCutDepth = Math.min(lowestCutDepth, cutDepth);
+                return;
+            }
+            component = definition;
+        }
+
+        if (component instanceof ComposedModel) {
+            component = flatten((ComposedModel) component);
+        }
+
+        if (!(component instanceof ModelImpl)) {
+            return;
+        }
+
+        ModelImpl impl = (ModelImpl) component;
+        if (impl.getProperties() != null) {
+            impl.getProperties().forEach(properties::putIfAbsent);
+        }
+        if (result.getType() == null) {
+            result.setType(impl.getType());
+        }
+        if (result.getFormat() == null) {
+            result.setFormat(impl.getFormat());
+        }
+        if (impl.getEnum() != null) {
+            if (result.getEnum() == null) {
+                result.setEnum(new ArrayList<>(impl.getEnum()));
+            } else {
+                result.getEnum().retainAll(impl.getEnum());
+            }
+        }
+    }
+
+    /**
+     * Key comparing models by identity, the models comparing equal by value
+     */
+    private static final class ModelKey {
+        private final Model model;
+
+        private ModelKey(Model model) {
+            this.model = model;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ModelKey && ((ModelKey) other).model == model;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(model);
+        }
+    }
+}
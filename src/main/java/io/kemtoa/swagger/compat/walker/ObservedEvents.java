@@ -0,0 +1,59 @@
+package io.kemtoa.swagger.compat.walker;
+
+/**
+ * Parts of the documents a visitor observes, used by the walkers to skip
+ * the subtrees in which no event would be observed
+ */
+final class ObservedEvents {
+    private final boolean[] observed = new boolean[DiffEvent.values().length * DiffContext.values().length];
+
+    ObservedEvents(SwaggerDiffVisitor visitor) {
+        for (DiffEvent event : DiffEvent.values()) {
+            for (DiffContext context : DiffContext.values()) {
+                observed[index(event, context)] = visitor.observes(event, context);
+            }
+        }
+    }
+
+    private static int index(DiffEvent event, DiffContext context) {
+        return event.ordinal() * DiffContext.values().length + context.ordinal();
+    }
+
+    private boolean observes(DiffEvent event, DiffContext context) {
+        return observed[index(event, context)];
+    }
+
+    /**
+     * @return whether anything in the operations of a path is observed
+     */
+    boolean operations() {
+        return observes(DiffEvent.OPERATION, DiffContext.OPERATION) || parameters() || responses();
+    }
+
+    boolean parameters() {
+        return observes(DiffEvent.PARAMETER, DiffContext.REQUEST) || schemas(DiffContext.REQUEST);
+    }
+
+    boolean responses() {
+        return observes(DiffEvent.RESPONSE, DiffContext.RESPONSE) || schemas(DiffContext.RESPONSE);
+    }
+
+    /**
+     * @return whether anything in the schemas of the parameters or responses is observed
+     */
+    boolean schemas(DiffContext context) {
+        return observes(DiffEvent.MODEL, context) || observes(DiffEvent.PROPERTY, context) || enumValues(context);
+    }
+
+    boolean enumValues(DiffContext context) {
+        return eachEnumValue(context) || enumChanges(context);
+    }
+
+    boolean eachEnumValue(DiffContext context) {
+        return observes(DiffEvent.ENUM_VALUE, context);
+    }
+
+    boolean enumChanges(DiffContext context) {
+        return observes(DiffEvent.ENUM_VALUES, context);
+    }
+}
@@ -0,0 +1,142 @@
+package io.kemtoa.swagger.compat.walker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import io.swagger.models.Swagger;
+
+/**
+ * Compares two specification documents on several threads.
+ *
+ * A {@link SwaggerDiffWalker} keeps the state of a walk in its fields, and
+ * the visitors usually do too, so neither can be shared by threads. The keys
+ * of the paths of both documents are taken in the order of a sequential walk
+ * and split into contiguous partitions. Each partition is walked by a
+ * ForkJoin task, with its own walker and its own visitor created by a
+ * factory.
+ *
+ * The visitors are returned in the order of their partitions. Reading what
+ * they collected in that order gives the same result as a sequential walk
+ * with a single visitor, whatever the number of threads.
+ *
+ * Definitions are compared once per partition, so a definition referenced
+ * from several partitions is compared by each of them. Composed models are
+ * only flattened once, by the first partition reaching them.
+ */
+public class ParallelSwaggerDiffWalker {
+
+    // Partitions per thread, so that the threads done with cheap paths take over the remaining ones
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+
+    private BooleanSupplier stopCondition = () -> false;
+    private volatile boolean stopped;
+
+    public ParallelSwaggerDiffWalker(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the condition checked before each path and operation by all the
+     * partitions, see {@link SwaggerDiffWalker#setStopCondition}
+     *
+     * The condition is called from several threads at once.
+     */
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * @return whether a partition of the last walk was stopped before all its nodes were visited
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Compares two documents, see {@link SwaggerDiffWalker#walk(SwaggerDiffVisitor, Swagger, Swagger, SpecHashes, SpecHashes)}
+     *
+     * @param visitors creates the visitor of each partition, called from the threads of the pool
+     * @return the visitors of the partitions, in the order of the paths they visited
+     */
+    public <V extends SwaggerDiffVisitor> List<V> walk(Supplier<V> visitors, Swagger swaggerLeft, Swagger swaggerRight,
+                                                       SpecHashes hashesLeft, SpecHashes hashesRight) {
+        stopped = false;
+
+        List<String> pathKeys = SwaggerDiffWalker.getPathKeys(swaggerLeft, swaggerRight);
+        int partitionSize = Math.max(1, -Math.floorDiv(-pathKeys.size(), pool.getParallelism() * PARTITIONS_PER_THREAD));
+
+        return pool.invoke(new PartitionTask<>(visitors, swaggerLeft, swaggerRight, hashesLeft, hashesRight,
+                new ModelFlattener(swaggerLeft), new ModelFlattener(swaggerRight), pathKeys, partitionSize));
+    }
+
+    /**
+     * Walks a range of paths, splitting it in halves until it fits in a partition
+     */
+    private final class PartitionTask<V extends SwaggerDiffVisitor> extends RecursiveTask<List<V>> {
+        private final Supplier<V> visitors;
+        private final Swagger swaggerLeft;
+        private final Swagger swaggerRight;
+        private final SpecHashes hashesLeft;
+        private final SpecHashes hashesRight;
+        private final ModelFlattener flattenerLeft;
+        private final ModelFlattener flattenerRight;
+        private final List<String> pathKeys;
+        private final int partitionSize;
+
+        private PartitionTask(Supplier<V> visitors, Swagger swaggerLeft, Swagger swaggerRight,
+                              SpecHashes hashesLeft, SpecHashes hashesRight, ModelFlattener flattenerLeft, ModelFlattener flattenerRight,
+                              List<String> pathKeys, int partitionSize) {
+            this.visitors = visitors;
+            this.swaggerLeft = swaggerLeft;
+            this.swaggerRight = swaggerRight;
+            this.hashesLeft = hashesLeft;
+            this.hashesRight = hashesRight;
+            this.flattenerLeft = flattenerLeft;
+            this.flattenerRight = flattenerRight;
+            this.pathKeys = pathKeys;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        protected List<V> compute() {
+            if (pathKeys.size() <= partitionSize) {
+                return Collections.singletonList(walkPartition());
+            }
+
+            int middle = pathKeys.size() / 2;
+            PartitionTask<V> first = split(0, middle);
+            PartitionTask<V> second = split(middle, pathKeys.size());
+            first.fork();
+            List<V> secondVisitors = second.compute();
+            List<V> firstVisitors = first.join();
+
+            List<V> visitors = new ArrayList<>(firstVisitors.size() + secondVisitors.size());
+            visitors.addAll(firstVisitors);
+            visitors.addAll(secondVisitors);
+            return visitors;
+        }
+
+        private PartitionTask<V> split(int from, int to) {
+            return new PartitionTask<>(visitors, swaggerLeft, swaggerRight, hashesLeft, hashesRight,
+                    flattenerLeft, flattenerRight, pathKeys.subList(from, to), partitionSize);
+        }
+
+        private V walkPartition() {
+            V visitor = visitors.get();
+            SwaggerDiffWalker walker = new SwaggerDiffWalker(flattenerLeft, flattenerRight);
+            walker.setStopCondition(stopCondition);
+            walker.walk(visitor, swaggerLeft, swaggerRight, hashesLeft, hashesRight, pathKeys);
+            if (walker.isStopped()) {
+                stopped = true;
+            }
+            return visitor;
+        }
+    }
+}
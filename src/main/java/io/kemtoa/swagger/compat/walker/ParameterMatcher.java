@@ -0,0 +1,154 @@
+package io.kemtoa.swagger.compat.walker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pairs the parameters of two versions of an operation
+ *
+ * A parameter is identified by its name and location. Parameters found on
+ * both sides with the same name and location are paired first, the remaining
+ * parameters are then paired by name only, so that a parameter moved to a
+ * different location is still compared with its previous version.
+ *
+ * When a side declares the same parameter more than once, only the first
+ * declaration is used.
+ *
+ * Instances are reused from one operation to the next to avoid allocating
+ * while walking the documents.
+ */
+final class ParameterMatcher {
+    private final Side left = new Side();
+    private final Side right = new Side();
+
+    private int[] matches = new int[8];
+    private boolean[] rightMatched = new boolean[8];
+
+    void reset(int leftCount, int rightCount) {
+        left.reset(leftCount);
+        right.reset(rightCount);
+
+        if (matches.length < leftCount) {
+            matches = new int[Math.max(leftCount, 2 * matches.length)];
+        }
+        if (rightMatched.length < rightCount) {
+            rightMatched = new boolean[Math.max(rightCount, 2 * rightMatched.length)];
+        }
+        Arrays.fill(matches, 0, leftCount, -1);
+        Arrays.fill(rightMatched, 0, rightCount, false);
+    }
+
+    void addLeft(String name, String in) {
+        left.add(name, in);
+    }
+
+    void addRight(String name, String in) {
+        right.add(name, in);
+    }
+
+    /**
+     * Pairs the added parameters, the results are available using
+     * {@link #getMatch(int)} and {@link #isUnmatchedRight(int)}
+     */
+    void match() {
+        for (int i = 0; i < left.count; i++) {
+            if (!left.duplicates[i]) {
+                pair(i, right.find(left.names[i], left.ins[i], true, rightMatched));
+            }
+        }
+
+        for (int i = 0; i < left.count; i++) {
+            if (!left.duplicates[i] && matches[i] < 0) {
+                pair(i, right.find(left.names[i], null, false, rightMatched));
+            }
+        }
+    }
+
+    private void pair(int leftIndex, int rightIndex) {
+        if (rightIndex >= 0) {
+            matches[leftIndex] = rightIndex;
+            rightMatched[rightIndex] = true;
+        }
+    }
+
+    boolean isDuplicateLeft(int index) {
+        return left.duplicates[index];
+    }
+
+    /**
+     * @return the index of the right parameter paired with a left parameter, or -1 if there is none
+     */
+    int getMatch(int leftIndex) {
+        return matches[leftIndex];
+    }
+
+    boolean isUnmatchedRight(int index) {
+        return !right.duplicates[index] && !rightMatched[index];
+    }
+
+    /**
+     * Parameters of one side, indexed by name
+     *
+     * Parameters with the same name are chained in declaration order
+     * starting from the first one.
+     */
+    private static final class Side {
+        private final Map<String, Integer> firstByName = new HashMap<>();
+        private String[] names = new String[8];
+        private String[] ins = new String[8];
+        private int[] next = new int[8];
+        private int[] last = new int[8];
+        private boolean[] duplicates = new boolean[8];
+        private int count;
+
+        private void reset(int capacity) {
+            if (names.length < capacity) {
+                int length = Math.max(capacity, 2 * names.length);
+                names = new String[length];
+                ins = new String[length];
+                next = new int[length];
+                last = new int[length];
+                duplicates = new boolean[length];
+            }
+            firstByName.clear();
+            count = 0;
+        }
+
+        private void add(String name, String in) {
+            int index = count++;
+            names[index] = name;
+            ins[index] = in;
+            next[index] = -1;
+            duplicates[index] = false;
+
+            Integer first = firstByName.putIfAbsent(name, index);
+            if (first == null) {
+                last[index] = index;
+                return;
+            }
+
+            for (int other = first; other >= 0; other = next[other]) {
+                if (Objects.equals(ins[other], in)) {
+                    duplicates[index] = true;
+                }
+            }
+            next[last[first]] = index;
+            last[first] = index;
+        }
+
+        /**
+         * @return the first parameter with the given name and location, not already matched and not a duplicate
+         */
+        private int find(String name, String in, boolean matchIn, boolean[] matched) {
+            Integer first = firstByName.get(name);
+            for (int index = first != null ? first : -1; index >= 0; index = next[index]) {
+                if (!duplicates[index] && !matched[index] && (!matchIn || Objects.equals(ins[index], in))) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+    }
+}
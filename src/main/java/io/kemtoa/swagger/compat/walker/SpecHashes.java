@@ -0,0 +1,572 @@
+package io.kemtoa.swagger.compat.walker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.AbstractSerializableParameter;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
+/**
+ * Structural hashes of the nodes of a Swagger specification
+ *
+ * The hash of a node covers the contract of the node and of all its
+ * descendants, including the definitions it references. Hashes do not depend
+ * on the order of the keys in the document nor on its formatting, so two nodes
+ * with the same hash can be considered identical and skipped by the walkers.
+ *
+ * Definitions referencing each other are hashed together: the hash of a
+ * definition covers all the definitions of its strongly connected component
+ * in the reference graph.
+ *
+ * Hashes are available for the paths by key, and for the paths, operations,
+ * parameters, responses and definitions by node when computed from a
+ * {@link Swagger} object.
+ *
+ * The hashes are 128 bits wide, made of two 64-bit hashes computed with
+ * different constants. They are not cryptographic, a spec crafted to collide
+ * with another one could defeat them, but the probability that two different
+ * nodes of ordinary specs have the same hash is about 2^-128 per pair compared.
+ * Even a check comparing billions of nodes has a probability of skipping a
+ * changed one far below that of a hardware fault, whereas a single 64-bit
+ * hash would leave about one chance in 2^64 per pair, too close for hashes
+ * stored in lock files and compared over the lifetime of a project.
+ */
+public final class SpecHashes {
+    /** Version of the hash function, to change whenever the hashes computed for a spec change */
+    public static final int VERSION = 2;
+
+    private static final long NULL = 0x6a09e667f3bcc908L;
+
+    private final Hash rootHash;
+    private final Map<String, Hash> pathHashes;
+    private final Map<Object, Hash> nodeHashes;
+
+    private SpecHashes(Hash rootHash, Map<String, Hash> pathHashes, Map<Object, Hash> nodeHashes) {
+        this.rootHash = rootHash;
+        this.pathHashes = pathHashes;
+        this.nodeHashes = nodeHashes;
+    }
+
+    public static SpecHashes of(Swagger swagger) {
+        Hasher high = new Hasher(swagger, 0);
+        Hasher low = new Hasher(swagger, 1);
+        high.compute();
+        low.compute();
+
+        Map<String, Hash> pathHashes = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : high.pathHashes.entrySet()) {
+            pathHashes.put(entry.getKey(), new Hash(entry.getValue(), low.pathHashes.get(entry.getKey())));
+        }
+        Map<Object, Hash> nodeHashes = new IdentityHashMap<>();
+        for (Map.Entry<Object, Long> entry : high.nodeHashes.entrySet()) {
+            nodeHashes.put(entry.getKey(), new Hash(entry.getValue(), low.nodeHashes.get(entry.getKey())));
+        }
+        return new SpecHashes(new Hash(high.rootHash, low.rootHash), pathHashes, nodeHashes);
+    }
+
+    /**
+     * Creates hashes only known for the paths, by key, for instance when read from a file
+     */
+    public static SpecHashes ofPaths(Hash rootHash, Map<String, Hash> pathHashes) {
+        return new SpecHashes(rootHash, new LinkedHashMap<>(pathHashes), Collections.emptyMap());
+    }
+
+    /**
+     * @return the hashes of the paths only, not retaining the nodes of the specification
+     */
+    public SpecHashes withoutNodes() {
+        return new SpecHashes(rootHash, pathHashes, Collections.emptyMap());
+    }
+
+    /**
+     * @return the hash of all the paths of the specification
+     */
+    public Hash getRootHash() {
+        return rootHash;
+    }
+
+    public Map<String, Hash> getPathHashes() {
+        return Collections.unmodifiableMap(pathHashes);
+    }
+
+    Hash getPathHash(String key) {
+        return pathHashes.get(key);
+    }
+
+    Hash getHash(Object node) {
+        return nodeHashes.get(node);
+    }
+
+    /**
+     * @return whether both nodes have a known and equal hash
+     */
+    static boolean areIdentical(SpecHashes left, Object leftNode, SpecHashes right, Object rightNode) {
+        if (left == null || right == null) {
+            return false;
+        }
+
+        Hash leftHash = left.getHash(leftNode);
+        return leftHash != null && leftHash.equals(right.getHash(rightNode));
+    }
+
+    static boolean arePathsIdentical(SpecHashes left, SpecHashes right, String key) {
+        if (left == null || right == null) {
+            return false;
+        }
+
+        Hash leftHash = left.getPathHash(key);
+        return leftHash != null && leftHash.equals(right.getPathHash(key));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Hash of a node, compared by value
+     */
+    public static final class Hash {
+        private final long high;
+        private final long low;
+
+        private Hash(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        /**
+         * @return the hash represented by 32 hexadecimal digits, see {@link #toString()}
+         * @throws NumberFormatException if the value does not represent a hash
+         */
+        public static Hash parse(String value) {
+            if (value.length() != 32) {
+                throw new NumberFormatException("Invalid hash: " + value);
+            }
+            return new Hash(Long.parseUnsignedLong(value.substring(0, 16), 16), Long.parseUnsignedLong(value.substring(16), 16));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Hash)) {
+                return false;
+            }
+            Hash other = (Hash) o;
+            return high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", high, low);
+        }
+    }
+
+    /**
+     * Computes one half of the hashes, the constants of each half being different
+     */
+    private static final class Hasher {
+        private static final HttpMethod[] METHODS = {
+                HttpMethod.GET, HttpMethod.PUT, HttpMethod.POST, HttpMethod.DELETE,
+                HttpMethod.PATCH, HttpMethod.HEAD, HttpMethod.OPTIONS
+        };
+        private static final long[] MULTIPLIERS = { 0x9e3779b97f4a7c15L, 0xc2b2ae3d27d4eb4fL };
+        private static final long[] OFFSETS = { 0xcbf29ce484222325L, 0x84222325cbf29ce4L };
+
+        private final Swagger swagger;
+        private final Map<String, Model> definitions;
+        private final long multiplier;
+        private final long offset;
+        private final Map<String, Long> definitionHashes = new HashMap<>();
+        private final Map<Object, Long> nodeHashes = new IdentityHashMap<>();
+        private final Map<String, Long> pathHashes = new LinkedHashMap<>();
+        private long rootHash;
+        // Definitions of the strongly connected component being hashed
+        private Set<String> component = Collections.emptySet();
+
+        private Hasher(Swagger swagger, int half) {
+            this.swagger = swagger;
+            this.definitions = swagger.getDefinitions() != null ? swagger.getDefinitions() : Collections.emptyMap();
+            this.multiplier = MULTIPLIERS[half];
+            this.offset = OFFSETS[half];
+        }
+
+        private void compute() {
+            hashDefinitions();
+
+            Unordered root = new Unordered();
+            if (swagger.getPaths() != null) {
+                for (Map.Entry<String, Path> entry : swagger.getPaths().entrySet()) {
+                    long pathHash = hashPath(entry.getValue());
+                    pathHashes.put(entry.getKey(), pathHash);
+                    root.add(combine(hash(entry.getKey()), pathHash));
+                }
+            }
+            rootHash = root.hash();
+        }
+
+        private long combine(long hash, long value) {
+            return mix(hash * multiplier + value);
+        }
+
+        private long hash(String value) {
+            if (value == null) {
+                return NULL;
+            }
+
+            long hash = offset;
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long hash(boolean value) {
+            return value ? 0x3c6ef372fe94f82bL : 0xa54ff53a5f1d36f1L;
+        }
+
+        /**
+         * Combination of hashes independent of their order
+         */
+        private final class Unordered {
+            private long sum;
+            private int count;
+
+            private void add(long hash) {
+                sum += mix(hash);
+                count++;
+            }
+
+            private long hash() {
+                return combine(sum, count);
+            }
+        }
+
+        /**
+         * Hashes the definitions by strongly connected component of the reference
+         * graph, in reverse topological order, using Tarjan's algorithm
+         */
+        private void hashDefinitions() {
+            List<String> names = new ArrayList<>(definitions.keySet());
+            Map<String, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                indexes.put(names.get(i), i);
+            }
+
+            int[][] edges = new int[names.size()][];
+            for (int i = 0; i < names.size(); i++) {
+                Set<String> refs = new HashSet<>();
+                collectRefs(definitions.get(names.get(i)), refs);
+                edges[i] = refs.stream().filter(indexes::containsKey).mapToInt(indexes::get).toArray();
+            }
+
+            int[] order = new int[names.size()];
+            int[] lowLinks = new int[names.size()];
+            boolean[] onStack = new boolean[names.size()];
+            Deque<Integer> stack = new ArrayDeque<>();
+            int counter = 0;
+
+            // Explicit call stack of (node, next edge) pairs to support long reference chains
+            int[] callNodes = new int[names.size()];
+            int[] callEdges = new int[names.size()];
+
+            for (int start = 0; start < names.size(); start++) {
+                if (order[start] != 0) {
+                    continue;
+                }
+
+                int depth = 0;
+                callNodes[0] = start;
+                callEdges[0] = 0;
+                order[start] = lowLinks[start] = ++counter;
+                stack.push(start);
+                onStack[start] = true;
+
+                while (depth >= 0) {
+                    int node = callNodes[depth];
+                    if (callEdges[depth] < edges[node].length) {
+                        int target = edges[node][callEdges[depth]++];
+                        if (order[target] == 0) {
+                            depth++;
+                            callNodes[depth] = target;
+                            callEdges[depth] = 0;
+                            order[target] = lowLinks[target] = ++counter;
+                            stack.push(target);
+                            onStack[target] = true;
+                        } else if (onStack[target]) {
+                            lowLinks[node] = Math.min(lowLinks[node], order[target]);
+                        }
+                        continue;
+                    }
+
+                    if (lowLinks[node] == order[node]) {
+                        List<String> members = new ArrayList<>();
+                        int member;
+                        do {
+                            member = stack.pop();
+                            onStack[member] = false;
+                            members.add(names.get(member));
+                        } while (member != node);
+
+                        hashComponent(members);
+                    }
+
+                    depth--;
+                    if (depth >= 0) {
+                        int parent = callNodes[depth];
+                        lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[node]);
+                    }
+                }
+            }
+        }
+
+        private void hashComponent(Collection<String> members) {
+            component = new HashSet<>(members);
+
+            Unordered componentHash = new Unordered();
+            for (String name : members) {
+                componentHash.add(combine(hash(name), hashModel(definitions.get(name))));
+            }
+
+            component = Collections.emptySet();
+
+            for (String name : members) {
+                long hash = combine(componentHash.hash(), hash(name));
+                definitionHashes.put(name, hash);
+                nodeHashes.put(definitions.get(name), hash);
+            }
+        }
+
+        private void collectRefs(Model model, Set<String> refs) {
+            if (model instanceof RefModel) {
+                refs.add(((RefModel) model).getSimpleRef());
+            } else if (model instanceof ArrayModel) {
+                collectRefs(((ArrayModel) model).getItems(), refs);
+            } else if (model instanceof ComposedModel) {
+                for (Model component : ((ComposedModel) model).getAllOf()) {
+                    collectRefs(component, refs);
+                }
+            } else if (model != null && model.getProperties() != null) {
+                for (Property property : model.getProperties().values()) {
+                    collectRefs(property, refs);
+                }
+            }
+        }
+
+        private void collectRefs(Property property, Set<String> refs) {
+            if (property instanceof RefProperty) {
+                refs.add(((RefProperty) property).getSimpleRef());
+            } else if (property instanceof ArrayProperty) {
+                collectRefs(((ArrayProperty) property).getItems(), refs);
+            } else if (property instanceof MapProperty) {
+                collectRefs(((MapProperty) property).getAdditionalProperties(), refs);
+            } else if (property instanceof ObjectProperty && ((ObjectProperty) property).getProperties() != null) {
+                for (Property child : ((ObjectProperty) property).getProperties().values()) {
+                    collectRefs(child, refs);
+                }
+            }
+        }
+
+        private long hashRef(String name) {
+            if (component.contains(name)) {
+                // Reference within the component being hashed, covered by the hash of the component
+                return combine(1, hash(name));
+            }
+
+            Long hash = definitionHashes.get(name);
+            return hash != null ? combine(2, hash) : combine(3, hash(name));
+        }
+
+        private long hashPath(Path path) {
+            Unordered operations = new Unordered();
+            for (HttpMethod method : METHODS) {
+                Operation operation = getOperation(path, method);
+                if (operation != null) {
+                    operations.add(combine(hash(method.name()), hashOperation(operation)));
+                }
+            }
+
+            long hash = operations.hash();
+            nodeHashes.put(path, hash);
+            return hash;
+        }
+
+        private static Operation getOperation(Path path, HttpMethod method) {
+            switch (method) {
+                case GET:
+                    return path.getGet();
+                case PUT:
+                    return path.getPut();
+                case POST:
+                    return path.getPost();
+                case DELETE:
+                    return path.getDelete();
+                case PATCH:
+                    return path.getPatch();
+                case HEAD:
+                    return path.getHead();
+                default:
+                    return path.getOptions();
+            }
+        }
+
+        private long hashOperation(Operation operation) {
+            Unordered parameters = new Unordered();
+            if (operation.getParameters() != null) {
+                for (Parameter parameter : operation.getParameters()) {
+                    parameters.add(hashParameter(parameter));
+                }
+            }
+
+            Unordered responses = new Unordered();
+            if (operation.getResponses() != null) {
+                for (Map.Entry<String, Response> entry : operation.getResponses().entrySet()) {
+                    responses.add(combine(hash(entry.getKey()), hashResponse(entry.getValue())));
+                }
+            }
+
+            long hash = combine(parameters.hash(), responses.hash());
+            nodeHashes.put(operation, hash);
+            return hash;
+        }
+
+        private long hashParameter(Parameter parameter) {
+            long hash = hash(parameter.getClass().getName());
+            hash = combine(hash, hash(parameter.getName()));
+            hash = combine(hash, hash(parameter.getIn()));
+            hash = combine(hash, hash(parameter.getRequired()));
+
+            if (parameter instanceof BodyParameter) {
+                hash = combine(hash, hashModel(((BodyParameter) parameter).getSchema()));
+            } else if (parameter instanceof AbstractSerializableParameter) {
+                AbstractSerializableParameter<?> serializable = (AbstractSerializableParameter<?>) parameter;
+                hash = combine(hash, hash(serializable.getType()));
+                hash = combine(hash, hash(serializable.getFormat()));
+                hash = combine(hash, hash(serializable.getCollectionFormat()));
+                hash = combine(hash, hashValues(serializable.getEnum()));
+                hash = combine(hash, hashProperty(serializable.getItems()));
+            }
+
+            nodeHashes.put(parameter, hash);
+            return hash;
+        }
+
+        private long hashResponse(Response response) {
+            long hash = response != null ? hashModel(response.getResponseSchema()) : NULL;
+            if (response != null) {
+                nodeHashes.put(response, hash);
+            }
+            return hash;
+        }
+
+        private long hashModel(Model model) {
+            if (model == null) {
+                return NULL;
+            }
+
+            if (model instanceof ModelImpl) {
+                ModelImpl modelImpl = (ModelImpl) model;
+                long hash = combine(1, hash(modelImpl.getType()));
+                hash = combine(hash, hash(modelImpl.getFormat()));
+                hash = combine(hash, hashValues(modelImpl.getEnum()));
+                return combine(hash, hashProperties(modelImpl.getProperties()));
+            } else if (model instanceof ArrayModel) {
+                ArrayModel arrayModel = (ArrayModel) model;
+                return combine(combine(2, hash(arrayModel.getType())), hashProperty(arrayModel.getItems()));
+            } else if (model instanceof RefModel) {
+                return combine(3, hashRef(((RefModel) model).getSimpleRef()));
+            } else if (model instanceof ComposedModel) {
+                long hash = 4;
+                for (Model component : ((ComposedModel) model).getAllOf()) {
+                    hash = combine(hash, hashModel(component));
+                }
+                return hash;
+            }
+
+            return combine(combine(5, hash(model.getClass().getName())), hashProperties(model.getProperties()));
+        }
+
+        private long hashProperties(Map<String, Property> properties) {
+            if (properties == null) {
+                return NULL;
+            }
+
+            Unordered hash = new Unordered();
+            for (Map.Entry<String, Property> entry : properties.entrySet()) {
+                hash.add(combine(hash(entry.getKey()), hashProperty(entry.getValue())));
+            }
+            return hash.hash();
+        }
+
+        private long hashProperty(Property property) {
+            if (property == null) {
+                return NULL;
+            }
+
+            long hash = hash(property.getClass().getName());
+            hash = combine(hash, hash(property.getType()));
+            hash = combine(hash, hash(property.getFormat()));
+            hash = combine(hash, hash(property.getRequired()));
+
+            if (property instanceof RefProperty) {
+                hash = combine(hash, hashRef(((RefProperty) property).getSimpleRef()));
+            } else if (property instanceof ObjectProperty) {
+                hash = combine(hash, hashProperties(((ObjectProperty) property).getProperties()));
+            } else if (property instanceof ArrayProperty) {
+                hash = combine(hash, hashProperty(((ArrayProperty) property).getItems()));
+            } else if (property instanceof MapProperty) {
+                hash = combine(hash, hashProperty(((MapProperty) property).getAdditionalProperties()));
+            } else if (property instanceof StringProperty) {
+                hash = combine(hash, hashValues(((StringProperty) property).getEnum()));
+            }
+            return hash;
+        }
+
+        /**
+         * Hashes a list of values as a set, as the walkers compare them
+         */
+        private long hashValues(List<?> values) {
+            if (values == null) {
+                return NULL;
+            }
+
+            Unordered hash = new Unordered();
+            for (Object value : new HashSet<>(values)) {
+                hash.add(hash(String.valueOf(value)));
+            }
+            return hash.hash();
+        }
+    }
+}
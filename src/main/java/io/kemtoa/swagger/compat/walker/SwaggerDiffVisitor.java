@@ -1,5 +1,7 @@
 package io.kemtoa.swagger.compat.walker;
 
+import java.util.Set;
+
 import io.swagger.models.HttpMethod;
 import io.swagger.models.Model;
 import io.swagger.models.Operation;
@@ -16,6 +18,9 @@ import io.swagger.models.properties.Property;
  * Methods are called by the walker for each node found in at least one of the
  * documents to compare. When a node is found only in one of the documents,
  * the corresponding parameter is null.
+ *
+ * Walkers use {@link #observes(DiffEvent, DiffContext)} to skip the calls
+ * and the parts of the documents a visitor is not interested in.
  */
 public interface SwaggerDiffVisitor {
     default void acceptPath(String key, Path left, Path right) {
@@ -39,6 +44,23 @@ public interface SwaggerDiffVisitor {
     default void acceptEnumValue(String left, String right) {
     }
 
+    /**
+     * Called once for each pair of nodes whose enum values differ, after the
+     * calls to {@link #acceptEnumValue} for each of their values
+     *
+     * @param added the values only found in the right document, in the order they are declared
+     * @param removed the values only found in the left document, in the order they are declared
+     */
+    default void acceptEnumValues(Set<String> added, Set<String> removed) {
+    }
+
     default void setLocation(Location location) {
     }
+
+    /**
+     * @return whether this visitor needs to be called for an event in a given context, true by default
+     */
+    default boolean observes(DiffEvent event, DiffContext context) {
+        return true;
+    }
 }
@@ -1,11 +1,14 @@
 package io.kemtoa.swagger.compat.walker;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.function.BooleanSupplier;
 
 import io.swagger.models.ArrayModel;
 import io.swagger.models.HttpMethod;
@@ -32,59 +35,257 @@ import io.swagger.models.properties.StringProperty;
  * one of the documents.
  *
  * Keeps track of the position in the tree using {@link Location}.
+ *
+ * The parameters of an operation are paired using a {@link ParameterMatcher}.
+ * The parts of the documents in which the visitor observes no event, as
+ * reported by {@link SwaggerDiffVisitor#observes(DiffEvent, DiffContext)},
+ * are skipped.
+ *
+ * Each pair of definitions is compared once per context (request or response),
+ * the visitor calls made for later references to the same pair are replayed
+ * from a {@link DiffRecording}. The pairs whose comparison cannot be recorded,
+ * being part of a cycle, are compared once per parameter or response.
+ *
+ * Composed models ('allOf') are compared as the model they are equivalent to,
+ * see {@link ModelFlattener}. The flattened models are kept from one walk to
+ * the next as long as the same documents are compared.
  */
 public class SwaggerDiffWalker {
 
+    // In the order of Path.getOperationMap()
+    private static final HttpMethod[] METHODS = {
+            HttpMethod.GET, HttpMethod.PUT, HttpMethod.POST, HttpMethod.DELETE,
+            HttpMethod.PATCH, HttpMethod.HEAD, HttpMethod.OPTIONS
+    };
+
     private Swagger swaggerLeft;
     private Swagger swaggerRight;
     private Location location = new Location();
 
-    private Set<Model> visitedModels = new HashSet<>(); // Used to prevent infinite recursion
+    // Models being compared, with the depth they were reached at, used to prevent infinite recursion.
+    // Compared by identity, the definitions being shared by all the references to them.
+    private final Map<Model, Integer> visitedModels = new IdentityHashMap<>();
+    private int modelDepth;
+    // Lowest depth of the models on which the recursion was stopped since the current definition pair was reached
+    private int lowestCutDepth = Integer.MAX_VALUE;
+
+    private ModelFlattener flattenerLeft;
+    private ModelFlattener flattenerRight;
+
+    private ObservedEvents observed;
+    private SpecHashes hashesLeft;
+    private SpecHashes hashesRight;
+    private final ParameterMatcher parameterMatcher = new ParameterMatcher();
+
+    private BooleanSupplier stopCondition = () -> false;
+    private boolean stopped;
+
+    private final Map<DefinitionPair, DiffRecording> recordings = new HashMap<>();
+    private DiffRecording recording;
+    // Depth of the outermost definition pair being recorded, the recordings in progress being discarded
+    // as soon as the recursion is stopped on a model reached before it
+    private int recordingDepth = Integer.MAX_VALUE;
+    // Definition pairs compared since the current parameter or response was reached
+    private final Set<DefinitionPair> comparedPairs = new HashSet<>();
+
+    public SwaggerDiffWalker() {
+    }
+
+    /**
+     * Creates a walker using the specified flattened models, shared with other walkers of the same documents
+     */
+    SwaggerDiffWalker(ModelFlattener flattenerLeft, ModelFlattener flattenerRight) {
+        this.flattenerLeft = flattenerLeft;
+        this.flattenerRight = flattenerRight;
+    }
+
+    /**
+     * Sets the condition checked before each path and operation, stopping the
+     * walk when it becomes true
+     *
+     * The walk is never stopped within an operation, so that the calls made
+     * to the visitor for a given operation are always complete.
+     */
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * @return whether the last walk was stopped before all the nodes were visited
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
 
     public void walk(SwaggerDiffVisitor visitor, Swagger swaggerLeft, Swagger swaggerRight) {
+        walk(visitor, swaggerLeft, swaggerRight, null, null);
+    }
+
+    /**
+     * Compares two documents, skipping the paths, operations, parameters, responses
+     * and definitions having the same hash in both documents
+     *
+     * Identical nodes cause no visitor call at all, which suits visitors only
+     * interested in differences such as the rules. Paths are compared using the
+     * hashes by key, so hashes read from a file using {@link SpecHashes#ofPaths}
+     * can be used for one of the documents.
+     *
+     * @param hashesLeft the hashes of the left document, or null to visit every node
+     * @param hashesRight the hashes of the right document, or null to visit every node
+     */
+    public void walk(SwaggerDiffVisitor visitor, Swagger swaggerLeft, Swagger swaggerRight,
+                     SpecHashes hashesLeft, SpecHashes hashesRight) {
+        start(visitor, swaggerLeft, swaggerRight, hashesLeft, hashesRight);
+
+        Map<String, Path> left = getPaths(swaggerLeft);
+        Map<String, Path> right = getPaths(swaggerRight);
+
+        for (Map.Entry<String, Path> entry : left.entrySet()) {
+            if (shouldStop()) {
+                return;
+            }
+            doVisitAndRecurse(visitor, entry.getKey(), entry.getValue(), right.get(entry.getKey()));
+        }
+        for (Map.Entry<String, Path> entry : right.entrySet()) {
+            if (!left.containsKey(entry.getKey())) {
+                if (shouldStop()) {
+                    return;
+                }
+                doVisitAndRecurse(visitor, entry.getKey(), null, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Compares the specified paths of two documents, in the order of the keys
+     *
+     * @param pathKeys keys of paths present in at least one of the documents, see {@link #getPathKeys}
+     */
+    void walk(SwaggerDiffVisitor visitor, Swagger swaggerLeft, Swagger swaggerRight,
+              SpecHashes hashesLeft, SpecHashes hashesRight, List<String> pathKeys) {
+        start(visitor, swaggerLeft, swaggerRight, hashesLeft, hashesRight);
+
+        Map<String, Path> left = getPaths(swaggerLeft);
+        Map<String, Path> right = getPaths(swaggerRight);
+
+        for (String pathKey : pathKeys) {
+            if (shouldStop()) {
+                return;
+            }
+            doVisitAndRecurse(visitor, pathKey, left.get(pathKey), right.get(pathKey));
+        }
+    }
+
+    /**
+     * @return the keys of the paths of two documents, in the order they are visited by a walk
+     */
+    static List<String> getPathKeys(Swagger swaggerLeft, Swagger swaggerRight) {
+        Map<String, Path> left = getPaths(swaggerLeft);
+        Map<String, Path> right = getPaths(swaggerRight);
+
+        List<String> pathKeys = new ArrayList<>(left.size() + right.size());
+        pathKeys.addAll(left.keySet());
+        for (String pathKey : right.keySet()) {
+            if (!left.containsKey(pathKey)) {
+                pathKeys.add(pathKey);
+            }
+        }
+        return pathKeys;
+    }
+
+    private static Map<String, Path> getPaths(Swagger swagger) {
+        return swagger.getPaths() != null ? swagger.getPaths() : Collections.emptyMap();
+    }
+
+    private void start(SwaggerDiffVisitor visitor, Swagger swaggerLeft, Swagger swaggerRight,
+                       SpecHashes hashesLeft, SpecHashes hashesRight) {
         this.swaggerLeft = swaggerLeft;
         this.swaggerRight = swaggerRight;
+        this.hashesLeft = hashesLeft;
+        this.hashesRight = hashesRight;
+        if (flattenerLeft == null || !flattenerLeft.isFor(swaggerLeft)) {
+            flattenerLeft = new ModelFlattener(swaggerLeft);
+        }
+        if (flattenerRight == null || !flattenerRight.isFor(swaggerRight)) {
+            flattenerRight = new ModelFlattener(swaggerRight);
+        }
+        this.recordings.clear();
+        this.observed = new ObservedEvents(visitor);
+        this.stopped = false;
 
         visitor.setLocation(location);
+    }
 
-        Set<String> leftKeys  = swaggerLeft.getPaths() != null ? swaggerLeft.getPaths().keySet() : new HashSet<>();
-        Set<String> rightKeys = swaggerRight.getPaths() != null ? swaggerRight.getPaths().keySet() : new HashSet<>();
-        Stream.concat(
-                leftKeys.stream(),
-                rightKeys.stream()
-        ).distinct().forEach(key -> doVisitAndRecurse(
-                visitor, key,
-                swaggerLeft.getPath(key),
-                swaggerRight.getPath(key))
-        );
+    private boolean shouldStop() {
+        if (!stopped && stopCondition.getAsBoolean()) {
+            stopped = true;
+        }
+        return stopped;
     }
 
     private void doVisitAndRecurse(SwaggerDiffVisitor visitor, String pathKey, Path left, Path right) {
-        location.pushPath("Path " + pathKey);
+        if (left != null && right != null && SpecHashes.arePathsIdentical(hashesLeft, hashesRight, pathKey)) {
+            return;
+        }
+
+        location.push(Location.Kind.PATH, pathKey);
 
         try {
             visitor.acceptPath(pathKey, left, right);
 
-            if (left == null || right == null) {
+            if (left == null || right == null || !observed.operations()) {
                 return;
             }
 
-            Set<HttpMethod> leftKeys = left.getOperationMap().keySet();
-            Set<HttpMethod> rightKeys = right.getOperationMap().keySet();
-            Stream.concat(
-                    leftKeys.stream(),
-                    rightKeys.stream()
-            ).distinct().forEach(key -> doVisitAndRecurse(visitor, key,
-                    left.getOperationMap().get(key),
-                    right.getOperationMap().get(key))
-            );
+            // Operations are read using the getters rather than Path.getOperationMap(), which builds a new map on each call
+            for (HttpMethod method : METHODS) {
+                Operation leftOperation = getOperation(left, method);
+                if (leftOperation != null) {
+                    if (shouldStop()) {
+                        return;
+                    }
+                    doVisitAndRecurse(visitor, method, leftOperation, getOperation(right, method));
+                }
+            }
+            for (HttpMethod method : METHODS) {
+                Operation rightOperation = getOperation(right, method);
+                if (rightOperation != null && getOperation(left, method) == null) {
+                    if (shouldStop()) {
+                        return;
+                    }
+                    doVisitAndRecurse(visitor, method, null, rightOperation);
+                }
+            }
         } finally {
-            location.popPath();
+            location.pop();
+        }
+    }
+
+    private static Operation getOperation(Path path, HttpMethod method) {
+        switch (method) {
+            case GET:
+                return path.getGet();
+            case PUT:
+                return path.getPut();
+            case POST:
+                return path.getPost();
+            case DELETE:
+                return path.getDelete();
+            case PATCH:
+                return path.getPatch();
+            case HEAD:
+                return path.getHead();
+            default:
+                return path.getOptions();
         }
     }
 
     private void doVisitAndRecurse(SwaggerDiffVisitor visitor, HttpMethod operationKey, Operation left, Operation right) {
-        location.pushPath("Operation " + operationKey);
+        if (isIdentical(left, right)) {
+            return;
+        }
+
+        location.push(Location.Kind.OPERATION, operationKey.name());
 
         try {
             visitor.acceptOperation(operationKey, left, right);
@@ -93,31 +294,62 @@ public class SwaggerDiffWalker {
                 return;
             }
 
-            Stream.concat(
-                    left.getParameters().stream().map(Parameter::getName),
-                    right.getParameters().stream().map(Parameter::getName)
-            ).distinct().forEach(name -> {
-                Parameter leftParam = left.getParameters().stream().filter(param -> param.getName().equals(name)).findAny().orElse(null);
-                Parameter rightParam = right.getParameters().stream().filter(param -> param.getName().equals(name)).findAny().orElse(null);
-                doVisitAndRecurse(visitor, leftParam, rightParam);
-            });
-
-            Set<String> leftKeys  = left.getResponses() != null ? left.getResponses().keySet() : new HashSet<>();
-            Set<String> rightKeys = right.getResponses() != null ? right.getResponses().keySet() : new HashSet<>();
-            Stream.concat(
-                    leftKeys.stream(),
-                    rightKeys.stream()
-            ).distinct().forEach(key -> doVisitAndRecurse(visitor, key,
-                    left.getResponses().get(key),
-                    right.getResponses().get(key))
-            );
+            if (observed.parameters()) {
+                doVisitParameters(visitor,
+                        left.getParameters() != null ? left.getParameters() : Collections.emptyList(),
+                        right.getParameters() != null ? right.getParameters() : Collections.emptyList());
+            }
+
+            if (!observed.responses()) {
+                return;
+            }
+
+            Map<String, Response> leftResponses = left.getResponses() != null ? left.getResponses() : Collections.emptyMap();
+            Map<String, Response> rightResponses = right.getResponses() != null ? right.getResponses() : Collections.emptyMap();
+
+            for (Map.Entry<String, Response> entry : leftResponses.entrySet()) {
+                doVisitAndRecurse(visitor, entry.getKey(), entry.getValue(), rightResponses.get(entry.getKey()));
+            }
+            for (Map.Entry<String, Response> entry : rightResponses.entrySet()) {
+                if (!leftResponses.containsKey(entry.getKey())) {
+                    doVisitAndRecurse(visitor, entry.getKey(), null, entry.getValue());
+                }
+            }
         } finally {
-            location.popPath();
+            location.pop();
+        }
+    }
+
+    private void doVisitParameters(SwaggerDiffVisitor visitor, List<Parameter> left, List<Parameter> right) {
+        parameterMatcher.reset(left.size(), right.size());
+        for (Parameter parameter : left) {
+            parameterMatcher.addLeft(parameter.getName(), parameter.getIn());
+        }
+        for (Parameter parameter : right) {
+            parameterMatcher.addRight(parameter.getName(), parameter.getIn());
+        }
+        parameterMatcher.match();
+
+        // The matches are read before visiting the parameters, the visit of a body parameter never reaching another operation
+        for (int i = 0; i < left.size(); i++) {
+            if (!parameterMatcher.isDuplicateLeft(i)) {
+                int match = parameterMatcher.getMatch(i);
+                doVisitAndRecurse(visitor, left.get(i), match >= 0 ? right.get(match) : null);
+            }
+        }
+        for (int i = 0; i < right.size(); i++) {
+            if (parameterMatcher.isUnmatchedRight(i)) {
+                doVisitAndRecurse(visitor, null, right.get(i));
+            }
         }
     }
 
     private void doVisitAndRecurse(SwaggerDiffVisitor visitor, Parameter left, Parameter right) {
-        location.pushPath("Parameter " + (left != null ? left.getName() : right.getName()));
+        if (isIdentical(left, right)) {
+            return;
+        }
+
+        location.push(Location.Kind.PARAMETER, left != null ? left.getName() : right.getName());
         location.setRequest(true);
 
         try {
@@ -127,21 +359,25 @@ public class SwaggerDiffWalker {
                 return;
             }
 
-            if (left instanceof BodyParameter || right instanceof BodyParameter) {
+            if ((left instanceof BodyParameter || right instanceof BodyParameter) && observed.schemas(DiffContext.REQUEST)) {
+                comparedPairs.clear();
                 doVisitAndRecurse(visitor,
-                        Optional.of(left).map(BodyParameter.class::cast).map(BodyParameter::getSchema).orElse(null),
-                        Optional.of(right).map(BodyParameter.class::cast).map(BodyParameter::getSchema).orElse(null)
+                        left instanceof BodyParameter ? ((BodyParameter) left).getSchema() : null,
+                        right instanceof BodyParameter ? ((BodyParameter) right).getSchema() : null
                 );
             }
         } finally {
-            visitedModels.clear();
             location.setRequest(false);
-            location.popPath();
+            location.pop();
         }
     }
 
     private void doVisitAndRecurse(SwaggerDiffVisitor visitor, String key, Response left, Response right) {
-        location.pushPath("Response " + key);
+        if (isIdentical(left, right)) {
+            return;
+        }
+
+        location.push(Location.Kind.RESPONSE, key);
         location.setResponse(true);
 
         try {
@@ -151,53 +387,152 @@ public class SwaggerDiffWalker {
                 return;
             }
 
-            if (left.getResponseSchema() == null && right.getResponseSchema() == null) {
+            if (left.getResponseSchema() == null && right.getResponseSchema() == null || !observed.schemas(DiffContext.RESPONSE)) {
                 return;
             }
 
+            comparedPairs.clear();
             doVisitAndRecurse(visitor, left.getResponseSchema(), right.getResponseSchema());
         } finally {
-            visitedModels.clear();
             location.setResponse(false);
-            location.popPath();
+            location.pop();
         }
     }
 
     private void doVisitAndRecurse(SwaggerDiffVisitor visitor, Model left, Model right) {
-        if (visitedModels.contains(left) && visitedModels.contains(right)) {
+        left = flattenerLeft.flatten(left);
+        right = flattenerRight.flatten(right);
+
+        Integer leftDepth = left != null ? visitedModels.get(left) : null;
+        Integer rightDepth = right != null ? visitedModels.get(right) : null;
+        if (leftDepth != null && rightDepth != null) {
             // Prevent infinite recursion
+            cut(Math.min(leftDepth, rightDepth));
             return;
         }
 
         visitor.acceptModel(left, right);
+        if (recording != null) {
+            recording.model(left, right);
+        }
 
-        if (left != null) {
-            visitedModels.add(left);
+        if (left == null || right == null) {
+            return;
         }
-        if (right != null) {
-            visitedModels.add(right);
+
+        modelDepth++;
+        boolean leftAdded = visitedModels.putIfAbsent(left, modelDepth) == null;
+        boolean rightAdded = visitedModels.putIfAbsent(right, modelDepth) == null;
+
+        try {
+            if (left instanceof ArrayModel && right instanceof ArrayModel) {
+                doVisitAndRecurse(visitor, Location.Kind.ITEMS, "items", ((ArrayModel) left).getItems(), ((ArrayModel) right).getItems());
+            } else if (left instanceof ModelImpl && right instanceof ModelImpl) {
+                doVisitEnumValues(visitor, ((ModelImpl) left).getEnum(), ((ModelImpl) right).getEnum());
+                doVisitAndRecurse(visitor, left.getProperties(), right.getProperties());
+            } else if (left instanceof RefModel && right instanceof RefModel) {
+                doVisitDefinitions(visitor, ((RefModel) left).getSimpleRef(), ((RefModel) right).getSimpleRef());
+            }
+        } finally {
+            if (leftAdded) {
+                visitedModels.remove(left);
+            }
+            if (rightAdded) {
+                visitedModels.remove(right);
+            }
+            modelDepth--;
         }
+    }
 
-        if (left == null || right == null) {
+    /**
+     * Compares two referenced definitions, replaying the previous comparison of
+     * the same pair in the same context when available
+     *
+     * The comparison of a pair is only recorded when it does not depend on the
+     * models being compared when it was reached, that is when the recursion was
+     * not stopped on one of them or on the pair itself. Otherwise the definitions
+     * are part of a cycle, and their comparison depends on where the cycle was
+     * entered. Such a pair is compared once per parameter or response, its later
+     * references being skipped, so that the walk of definitions referencing each
+     * other stays polynomial in their number rather than following every path
+     * through them.
+     */
+    private void doVisitDefinitions(SwaggerDiffVisitor visitor, String leftRef, String rightRef) {
+        Model leftModel = resolveModel(swaggerLeft, leftRef);
+        Model rightModel = resolveModel(swaggerRight, rightRef);
+
+        if (isIdentical(leftModel, rightModel)) {
             return;
         }
+        leftModel = flattenerLeft.flatten(leftModel);
+        rightModel = flattenerRight.flatten(rightModel);
 
-        if (left instanceof ArrayModel && right instanceof ArrayModel) {
-            doVisitAndRecurse(visitor, "items", ((ArrayModel) left).getItems(), ((ArrayModel) right).getItems());
-        } else if (left instanceof ModelImpl && right instanceof ModelImpl) {
-            doVisitEnumValues(visitor, ((ModelImpl) left).getEnum(), ((ModelImpl) right).getEnum());
-            doVisitAndRecurse(visitor, left.getProperties(), right.getProperties());
-        } else if (left instanceof RefModel && right instanceof RefModel) {
-            RefModel leftRef  = (RefModel) left;
-            RefModel rightRef = (RefModel) right;
+        if (leftModel == null || rightModel == null
+                || visitedModels.containsKey(leftModel) && visitedModels.containsKey(rightModel)) {
+            doVisitAndRecurse(visitor, leftModel, rightModel);
+            return;
+        }
 
-            Model leftModel = resolveModel(swaggerLeft, leftRef.getSimpleRef());
-            Model rightModel = resolveModel(swaggerRight, rightRef.getSimpleRef());
+        DefinitionPair pair = new DefinitionPair(leftModel, rightModel, location.isRequest());
+        DiffRecording pairRecording = recordings.get(pair);
+        if (pairRecording != null) {
+            pairRecording.replay(visitor, location);
+            if (recording != null) {
+                recording.nested(pairRecording);
+            }
+            return;
+        }
+        if (!comparedPairs.add(pair)) {
+            // Already compared from the same parameter or response, the skipped comparison depending on it
+            cut(0);
+            return;
+        }
+
+        int pairDepth = modelDepth + 1;
+        DiffRecording parentRecording = recording;
+        int parentCutDepth = lowestCutDepth;
+        lowestCutDepth = Integer.MAX_VALUE;
+        pairRecording = new DiffRecording();
+        recording = pairRecording;
+        if (parentRecording == null) {
+            recordingDepth = pairDepth;
+        }
 
+        try {
             doVisitAndRecurse(visitor, leftModel, rightModel);
+
+            if (lowestCutDepth > pairDepth) {
+                recordings.put(pair, pairRecording);
+            }
+        } finally {
+            lowestCutDepth = Math.min(parentCutDepth, lowestCutDepth);
+            if (parentRecording == null) {
+                recordingDepth = Integer.MAX_VALUE;
+            }
+            recording = recordingDepth < pairDepth ? parentRecording : null;
+        }
+
+        if (recording != null) {
+            recording.nested(pairRecording);
+        }
+    }
+
+    /**
+     * Stops the recursion on a model reached at the specified depth, discarding
+     * the recordings in progress when none of them can be kept anymore
+     */
+    private void cut(int depth) {
+        lowestCutDepth = Math.min(lowestCutDepth, depth);
+        if (depth <= recordingDepth) {
+            recording = null;
+            recordingDepth = Integer.MAX_VALUE;
         }
     }
 
+    private boolean isIdentical(Object left, Object right) {
+        return SpecHashes.areIdentical(hashesLeft, left, hashesRight, right);
+    }
+
     private Model resolveModel(Swagger swagger, String simpleRef) {
         Map<String, Model> definitions = swagger.getDefinitions();
         if (definitions == null) {
@@ -212,19 +547,21 @@ public class SwaggerDiffWalker {
             return;
         }
 
-        Set<String> leftKeys  = left.keySet();
-        Set<String> rightKeys = right.keySet();
-        Stream.concat(
-                leftKeys.stream(),
-                rightKeys.stream()
-        ).distinct().forEach(key -> doVisitAndRecurse(visitor, key,
-                left.get(key),
-                right.get(key))
-        );
+        for (Map.Entry<String, Property> entry : left.entrySet()) {
+            doVisitAndRecurse(visitor, Location.Kind.PROPERTY, entry.getKey(), entry.getValue(), right.get(entry.getKey()));
+        }
+        for (Map.Entry<String, Property> entry : right.entrySet()) {
+            if (!left.containsKey(entry.getKey())) {
+                doVisitAndRecurse(visitor, Location.Kind.PROPERTY, entry.getKey(), null, entry.getValue());
+            }
+        }
     }
 
-    private void doVisitAndRecurse(SwaggerDiffVisitor visitor, String name, Property left, Property right) {
-        location.pushPath("Property " + name);
+    private void doVisitAndRecurse(SwaggerDiffVisitor visitor, Location.Kind kind, String name, Property left, Property right) {
+        location.push(kind, name);
+        if (recording != null) {
+            recording.enterProperty(kind, name, left, right);
+        }
 
         try {
             visitor.acceptProperty(name, left, right);
@@ -234,13 +571,7 @@ public class SwaggerDiffWalker {
             }
 
             if (left instanceof RefProperty && right instanceof RefProperty) {
-                RefProperty leftRef  = (RefProperty) left;
-                RefProperty rightRef = (RefProperty) right;
-
-                Model leftModel = resolveModel(swaggerLeft, leftRef.getSimpleRef());
-                Model rightModel = resolveModel(swaggerRight, rightRef.getSimpleRef());
-
-                doVisitAndRecurse(visitor, leftModel, rightModel);
+                doVisitDefinitions(visitor, ((RefProperty) left).getSimpleRef(), ((RefProperty) right).getSimpleRef());
             } else if (left instanceof ObjectProperty && right instanceof ObjectProperty) {
                 ObjectProperty leftObject  = (ObjectProperty) left;
                 ObjectProperty rightObject = (ObjectProperty) right;
@@ -250,7 +581,7 @@ public class SwaggerDiffWalker {
                 ArrayProperty leftArray = (ArrayProperty) left;
                 ArrayProperty rightArray = (ArrayProperty) right;
 
-                doVisitAndRecurse(visitor, "items", leftArray.getItems(), rightArray.getItems());
+                doVisitAndRecurse(visitor, Location.Kind.ITEMS, "items", leftArray.getItems(), rightArray.getItems());
             } else if (left instanceof StringProperty && right instanceof StringProperty) {
                 StringProperty leftString = (StringProperty) left;
                 StringProperty rightString = (StringProperty) right;
@@ -258,24 +589,46 @@ public class SwaggerDiffWalker {
                 doVisitEnumValues(visitor, leftString.getEnum(), rightString.getEnum());
             }
         } finally {
-            location.popPath();
+            if (recording != null) {
+                recording.exitProperty();
+            }
+            location.pop();
         }
     }
 
     private void doVisitEnumValues(SwaggerDiffVisitor visitor, List<String> leftValues, List<String> rightValues) {
-        Set<String> enumValues = new HashSet<>();
-        if (leftValues != null) {
-            enumValues.addAll(leftValues);
+        DiffContext context = DiffContext.of(location);
+        if (observed.enumValues(context)) {
+            EnumDiff.visit(visitor, observed, context, recording, leftValues, rightValues);
         }
-        if (rightValues != null) {
-            enumValues.addAll(rightValues);
+    }
+
+    /**
+     * Pair of definitions compared in a given context
+     */
+    private static final class DefinitionPair {
+        private final Model left;
+        private final Model right;
+        private final boolean request;
+
+        private DefinitionPair(Model left, Model right, boolean request) {
+            this.left = left;
+            this.right = right;
+            this.request = request;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DefinitionPair)) {
+                return false;
+            }
+            DefinitionPair other = (DefinitionPair) o;
+            return left == other.left && right == other.right && request == other.request;
         }
 
-        for (String value : enumValues) {
-            visitor.acceptEnumValue(
-                    leftValues != null && leftValues.contains(value) ? value : null,
-                    rightValues != null && rightValues.contains(value) ? value : null
-            );
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(left) + System.identityHashCode(right)) * 2 + (request ? 1 : 0);
         }
     }
 }
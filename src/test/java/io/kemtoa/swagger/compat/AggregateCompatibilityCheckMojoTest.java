@@ -0,0 +1,97 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Test;
+
+/**
+ * Tests the reactor-wide backwards compatibility check mojo.
+ */
+public class AggregateCompatibilityCheckMojoTest extends AbstractMojoTestCase {
+
+    private final String testDir = "/src/test/resources/unit/";
+    private File reactorDir;
+    private AggregateCompatibilityCheckMojo myMojo;
+
+    protected void setUp() throws Exception {
+        super.setUp(); // required
+
+        reactorDir = getTestFile("target/aggregate-test");
+        FileUtils.deleteDirectory(reactorDir);
+
+        File pom = getTestFile(testDir + "project-to-test/pom.xml");
+        myMojo = (AggregateCompatibilityCheckMojo) lookupEmptyMojo("aggregate-backwards-compatibility-check", pom);
+        assertNotNull(myMojo);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown(); // required
+
+        FileUtils.deleteDirectory(reactorDir);
+    }
+
+    /**
+     * Tests that the groups of all the modules are checked, and that failures are reported by module.
+     */
+    @Test
+    public void testShouldCheckAllModules() throws Exception {
+        MavenProject first = createModule("first");
+        MavenProject second = createModule("second");
+        MavenProject third = createModule("third");
+        copyTestFile("init.json", first, "test.json");
+        copyTestFile("init.json", second, "test.lock");
+        copyTestFile("good.json", second, "test.json");
+        copyTestFile("init.json", third, "test.lock");
+        copyTestFile("bad.json", third, "test.json");
+        setVariableValueToObject(myMojo, "reactorProjects", Arrays.asList(first, second, third));
+
+        try {
+            myMojo.execute();
+            fail();
+        } catch (MojoFailureException e) {
+            assertEquals("Backwards compatibility check failed for group third:test", e.getMessage());
+        }
+
+        assertTrue(new File(first.getBasedir(), "src/main/swagger/test.lock").exists());
+        assertEquals(FileUtils.fileRead(new File(second.getBasedir(), "src/main/swagger/test.json")),
+                FileUtils.fileRead(new File(second.getBasedir(), "src/main/swagger/test.lock")));
+    }
+
+    /**
+     * Tests that modules without Swagger source directory are ignored.
+     */
+    @Test
+    public void testShouldIgnoreModulesWithoutSpecs() throws Exception {
+        MavenProject module = createModule("empty");
+        setVariableValueToObject(myMojo, "reactorProjects", Arrays.asList(module));
+
+        myMojo.execute();
+    }
+
+    private MavenProject createModule(String name) {
+        File basedir = new File(reactorDir, name);
+        basedir.mkdirs();
+
+        Model model = new Model();
+        model.setArtifactId(name);
+        Build build = new Build();
+        build.setDirectory(new File(basedir, "target").getPath());
+        model.setBuild(build);
+
+        MavenProject project = new MavenProject(model);
+        project.setFile(new File(basedir, "pom.xml"));
+        return project;
+    }
+
+    private void copyTestFile(String filename, MavenProject module, String target) throws Exception {
+        FileUtils.copyFile(getTestFile(testDir + "testSwaggers/" + filename),
+                new File(module.getBasedir(), "src/main/swagger/" + target));
+    }
+}
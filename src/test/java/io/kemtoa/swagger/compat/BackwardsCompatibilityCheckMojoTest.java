@@ -3,16 +3,29 @@ package io.kemtoa.swagger.compat;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.maven.model.Build;
 import org.apache.maven.model.Model;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+import org.codehaus.plexus.util.FileUtils;
 import org.junit.Test;
 
+import io.kemtoa.swagger.compat.compact.CompactSpecFormat;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 /**
  * Tests the backwards compatibility check mojo.
  */
@@ -32,6 +45,8 @@ public class BackwardsCompatibilityCheckMojoTest extends AbstractMojoTestCase {
 
         File lockFile = getTestFile(testDir + "swagger/test.lock");
         lockFile.delete();
+        File hashesFile = getTestFile(testDir + "swagger/test.lock.hashes");
+        hashesFile.delete();
         File testFile = getTestFile(testDir + "swagger/test.json");
         testFile.delete();
     }
@@ -102,6 +117,308 @@ public class BackwardsCompatibilityCheckMojoTest extends AbstractMojoTestCase {
         runMojo(false);
     }
 
+    /**
+     * Tests that the .lock file is not rewritten when the .json file is unchanged.
+     */
+    @Test
+    public void testShouldNotRewriteLockFileWhenUnchanged() throws Exception {
+        writeTestFile("init.json");
+        myMojo.execute();
+
+        File lockFile = getTestFile(testDir + "swagger/test.lock");
+        assertTrue(lockFile.setLastModified(0));
+
+        runMojo(false);
+        assertEquals(0, lockFile.lastModified());
+    }
+
+    /**
+     * Tests that the spec pairs passing the check are recorded in the check cache.
+     */
+    @Test
+    public void testShouldRecordCompatibleSpecsInCheckCache() throws Exception {
+        File cacheDir = getTestFile("target/swagger-compat-cache-test");
+        FileUtils.deleteDirectory(cacheDir);
+        setVariableValueToObject(myMojo, "checkCacheDir", cacheDir.getPath());
+        setVariableValueToObject(myMojo, "useCheckCache", true);
+
+        writeTestFile("init.json");
+        myMojo.execute();
+        writeTestFile("good.json");
+        runMojo(false);
+
+        assertEquals(1, cacheDir.list().length);
+
+        FileUtils.copyFile(getTestFile(testDir + "testSwaggers/init.json"), getTestFile(testDir + "swagger/test.lock"));
+        runMojo(false);
+
+        assertEquals(1, cacheDir.list().length);
+        FileUtils.deleteDirectory(cacheDir);
+    }
+
+    /**
+     * Tests that the hashes of the lock are stored next to it, and that a spec
+     * only differing from the lock by its formatting passes the check.
+     */
+    @Test
+    public void testShouldStoreLockHashes() throws Exception {
+        setVariableValueToObject(myMojo, "useLockHashes", true);
+
+        writeTestFile("init.json");
+        myMojo.execute();
+        writeTestFile("good.json");
+        runMojo(false);
+
+        File hashesFile = getTestFile(testDir + "swagger/test.lock.hashes");
+        assertTrue(hashesFile.exists());
+        assertTrue(FileUtils.fileRead(hashesFile).startsWith("format 1 hashes "));
+
+        File testFile = getTestFile(testDir + "swagger/test.json");
+        String reformatted = FileUtils.fileRead(testFile).replaceAll("\\n\\s*", "");
+        FileUtils.fileWrite(testFile, reformatted);
+        runMojo(false);
+
+        assertEquals(reformatted, FileUtils.fileRead(getTestFile(testDir + "swagger/test.lock")));
+
+        writeTestFile("bad.json");
+        runMojo(true);
+    }
+
+    /**
+     * Tests that the metrics of the groups are written when requested.
+     */
+    @Test
+    public void testShouldWriteMetrics() throws Exception {
+        File metricsFile = getTestFile("target/swagger-compat-metrics-test.json");
+        metricsFile.delete();
+        setVariableValueToObject(myMojo, "collectMetrics", true);
+        setVariableValueToObject(myMojo, "metricsFile", metricsFile.getPath());
+
+        writeTestFile("init.json");
+        myMojo.execute();
+        writeTestFile("good.json");
+        runMojo(false);
+
+        String metrics = FileUtils.fileRead(metricsFile);
+        assertTrue(metrics.contains("\"name\" : \"test\""));
+        assertTrue(metrics.contains("\"outcome\" : \"passed\""));
+        assertTrue(metrics.contains("\"PropertyRemovedInResponseRule\""));
+        assertTrue(metrics.contains("\"parseOldMillis\""));
+        metricsFile.delete();
+    }
+
+    /**
+     * Tests that a check stopped at the first violation still fails the group.
+     */
+    @Test
+    public void testShouldFailFast() throws Exception {
+        setVariableValueToObject(myMojo, "failFast", true);
+        setVariableValueToObject(myMojo, "maxViolations", 1);
+
+        writeTestFile("init.json");
+        myMojo.execute();
+        writeTestFile("bad.json");
+
+        runMojo(true);
+    }
+
+    /**
+     * Tests that a spec walked on several threads still fails on breaking changes.
+     */
+    @Test
+    public void testShouldWalkInParallel() throws Exception {
+        setVariableValueToObject(myMojo, "parallelWalkPaths", 1);
+
+        writeTestFile("init.json");
+        myMojo.execute();
+        writeTestFile("bad.json");
+
+        runMojo(true);
+    }
+
+    /**
+     * Tests that the events of the check are recorded once enabled.
+     */
+    @Test
+    public void testShouldRecordFlightRecorderEvents() throws Exception {
+        // The rules are also profiled, which must not hide their callbacks
+        setVariableValueToObject(myMojo, "collectMetrics", true);
+        File recordingFile = getTestFile("target/swagger-compat-events-test.jfr");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            for (String event : Arrays.asList("GroupCheck", "SpecParse", "Walk", "LockWrite")) {
+                recording.enable("io.kemtoa.swagger.compat." + event);
+            }
+            recording.enable("io.kemtoa.swagger.compat.RuleCallback").withThreshold(Duration.ZERO);
+            recording.start();
+
+            writeTestFile("init.json");
+            myMojo.execute();
+            writeTestFile("bad.json");
+            runMojo(true);
+
+            recording.stop();
+            recording.dump(recordingFile.toPath());
+            events = RecordingFile.readAllEvents(recordingFile.toPath());
+        } finally {
+            recordingFile.delete();
+        }
+
+        Set<String> names = events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toSet());
+        assertTrue(names.containsAll(Arrays.asList("io.kemtoa.swagger.compat.GroupCheck", "io.kemtoa.swagger.compat.SpecParse",
+                "io.kemtoa.swagger.compat.Walk", "io.kemtoa.swagger.compat.RuleCallback", "io.kemtoa.swagger.compat.LockWrite")));
+
+        assertTrue(events.stream()
+                .filter(event -> event.getEventType().getName().equals("io.kemtoa.swagger.compat.RuleCallback"))
+                .allMatch(event -> !event.getString("rule").equals("ProfiledRule")));
+
+        RecordedEvent walk = events.stream()
+                .filter(event -> event.getEventType().getName().equals("io.kemtoa.swagger.compat.Walk"))
+                .findFirst().get();
+        assertEquals("test", walk.getString("group"));
+        assertTrue(walk.getLong("violations") > 0);
+    }
+
+    /**
+     * Tests that the violations are written to the requested reports.
+     */
+    @Test
+    public void testShouldWriteViolationReports() throws Exception {
+        File reportDir = getTestFile("target/swagger-compat-reports-test");
+        FileUtils.deleteDirectory(reportDir);
+        setVariableValueToObject(myMojo, "reportFormats", "json, sarif,junit");
+        setVariableValueToObject(myMojo, "reportDir", reportDir.getPath());
+        setVariableValueToObject(myMojo, "maxLoggedViolations", 1);
+
+        writeTestFile("init.json");
+        myMojo.execute();
+        writeTestFile("bad.json");
+        runMojo(true);
+
+        String json = FileUtils.fileRead(new File(reportDir, "test.violations.json"));
+        assertTrue(json.contains("\"group\" : \"test\""));
+        assertTrue(json.contains("\"ruleId\" : \"PropertyRemovedInResponseRule\""));
+        assertTrue(json.contains("\"pointer\" : \"/paths/"));
+
+        String sarif = FileUtils.fileRead(new File(reportDir, "test.sarif"));
+        assertTrue(sarif.contains("\"version\" : \"2.1.0\""));
+        assertTrue(sarif.contains("\"level\" : \"error\""));
+
+        String junit = FileUtils.fileRead(new File(reportDir, "TEST-test.xml"));
+        assertTrue(junit.contains("<testsuite name=\"test\">"));
+        assertTrue(junit.contains("<failure type=\""));
+        FileUtils.deleteDirectory(reportDir);
+    }
+
+    /**
+     * Tests that the locks are written as binary snapshots when requested, and
+     * that locks of both formats are read.
+     */
+    @Test
+    public void testShouldWriteBinaryLocks() throws Exception {
+        setVariableValueToObject(myMojo, "lockFormat", "binary");
+        File lockFile = getTestFile(testDir + "swagger/test.lock");
+
+        writeTestFile("init.json");
+        myMojo.execute();
+        assertEquals(Digests.sha256(getTestFile(testDir + "swagger/test.json").toPath()),
+                CompactSpecFormat.readSource(lockFile.toPath()));
+
+        long lastModified = lockFile.lastModified();
+        runMojo(false);
+        assertEquals(lastModified, lockFile.lastModified());
+
+        writeTestFile("good.json");
+        runMojo(false);
+        assertEquals(Digests.sha256(getTestFile(testDir + "swagger/test.json").toPath()),
+                CompactSpecFormat.readSource(lockFile.toPath()));
+
+        writeTestFile("bad.json");
+        runMojo(true);
+
+        setVariableValueToObject(myMojo, "lockFormat", "json");
+        writeTestFile("good.json");
+        FileUtils.fileWrite(getTestFile(testDir + "swagger/test.json"),
+                FileUtils.fileRead(getTestFile(testDir + "swagger/test.json")) + "\n");
+        runMojo(false);
+        assertNull(CompactSpecFormat.readSource(lockFile.toPath()));
+    }
+
+    /**
+     * Tests that a snapshot written by another version of the format is written
+     * again from the spec it was taken from, and is never compared otherwise.
+     */
+    @Test
+    public void testShouldUpdateSnapshotsOfOtherVersions() throws Exception {
+        setVariableValueToObject(myMojo, "lockFormat", "binary");
+        File lockFile = getTestFile(testDir + "swagger/test.lock");
+
+        writeTestFile("init.json");
+        myMojo.execute();
+        setSnapshotVersion(lockFile, 1);
+        assertTrue(CompactSpecFormat.isOtherVersion(lockFile.toPath()));
+
+        runMojo(false);
+        assertFalse(CompactSpecFormat.isOtherVersion(lockFile.toPath()));
+
+        setSnapshotVersion(lockFile, 1);
+        writeTestFile("good.json");
+        runMojo(true);
+        assertTrue(CompactSpecFormat.isOtherVersion(lockFile.toPath()));
+    }
+
+    private static void setSnapshotVersion(File snapshot, int version) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+            // After the 4 bytes of the magic
+            file.seek(4);
+            file.writeShort(version);
+        }
+    }
+
+    /**
+     * Tests that the spec is also checked against the baselines, and that the
+     * violations found against a baseline are reported separately.
+     */
+    @Test
+    public void testShouldCheckBaselines() throws Exception {
+        File baselinesDir = getTestFile("target/swagger-compat-baselines-test");
+        File reportDir = getTestFile("target/swagger-compat-reports-test");
+        FileUtils.deleteDirectory(baselinesDir);
+        FileUtils.deleteDirectory(reportDir);
+        FileUtils.copyFile(getTestFile(testDir + "testSwaggers/bad.json"), new File(baselinesDir, "0.9/test.lock"));
+        FileUtils.copyFile(getTestFile(testDir + "testSwaggers/good.json"), new File(baselinesDir, "1.0/test.lock"));
+        writeTestFile("bad.json");
+        myMojo.execute();
+
+        setVariableValueToObject(myMojo, "baselineDirs", new File(baselinesDir, "0.9").getPath() + ", "
+                + new File(baselinesDir, "1.0").getPath());
+        setVariableValueToObject(myMojo, "reportFormats", "json");
+        setVariableValueToObject(myMojo, "reportDir", reportDir.getPath());
+
+        // Compatible with the lock and with 0.9, but 1.0 has an 'age' property
+        writeTestFile("init.json");
+        runMojo(true);
+
+        assertTrue(FileUtils.fileRead(new File(reportDir, "test.violations.json")).contains("\"violationCount\" : 0"));
+        assertTrue(FileUtils.fileRead(new File(reportDir, "test@0.9.violations.json")).contains("\"violationCount\" : 0"));
+        String json = FileUtils.fileRead(new File(reportDir, "test@1.0.violations.json"));
+        assertTrue(json.contains("\"baseline\" : \"1.0\""));
+        assertTrue(json.contains("\"ruleId\" : \"PropertyRemovedInResponseRule\""));
+        assertEquals(FileUtils.fileRead(getTestFile(testDir + "testSwaggers/good.json")),
+                FileUtils.fileRead(new File(baselinesDir, "1.0/test.lock")));
+        // The spec passed against the lock, which is only updated once it passes against all the baselines
+        assertEquals(FileUtils.fileRead(getTestFile(testDir + "testSwaggers/bad.json")),
+                FileUtils.fileRead(getTestFile(testDir + "swagger/test.lock")));
+
+        writeTestFile("good.json");
+        runMojo(false);
+        assertEquals(FileUtils.fileRead(getTestFile(testDir + "testSwaggers/good.json")),
+                FileUtils.fileRead(getTestFile(testDir + "swagger/test.lock")));
+
+        FileUtils.deleteDirectory(baselinesDir);
+        FileUtils.deleteDirectory(reportDir);
+    }
+
     private void setupMojo() throws Exception {
         File pom = getTestFile(testDir + "project-to-test/pom.xml");
         assertNotNull(pom);
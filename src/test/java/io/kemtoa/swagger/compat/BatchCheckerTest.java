@@ -0,0 +1,106 @@
+package io.kemtoa.swagger.compat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class BatchCheckerTest {
+
+    private static final Path TEST_SWAGGERS = Paths.get("src/test/resources/unit/testSwaggers").toAbsolutePath();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testBatch() throws Exception {
+        Path manifest = temporaryFolder.newFile("manifest.tsv").toPath();
+        Files.write(manifest, Arrays.asList(
+                "# old\tnew\tid",
+                TEST_SWAGGERS.resolve("init.json") + "\t" + TEST_SWAGGERS.resolve("good.json") + "\tcompatible",
+                "",
+                TEST_SWAGGERS.resolve("good.json") + "\t" + TEST_SWAGGERS.resolve("bad.json") + "\tincompatible"
+        ), StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int status = BatchChecker.run(new String[] { "--threads", "2", manifest.toString() },
+                new PrintStream(out, true, "UTF-8"), new PrintStream(err, true, "UTF-8"));
+
+        assertEquals(BatchChecker.INCOMPATIBLE, status);
+        List<String> lines = Arrays.asList(out.toString("UTF-8").trim().split("\n"));
+        assertEquals(2, lines.size());
+
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : lines) {
+            JsonNode result = mapper.readTree(line);
+            assertEquals(result.get("id").asText(), result.get("status").asText());
+            if (result.get("id").asText().equals("incompatible")) {
+                assertEquals("PropertyRemovedInResponseRule", result.get("violations").get(0).get("ruleId").asText());
+            }
+        }
+
+        String summary = err.toString("UTF-8");
+        assertTrue(summary, summary.contains("Checked 2 spec pairs"));
+        assertTrue(summary, summary.contains("p99"));
+    }
+
+    @Test
+    public void testMissingSpec() throws Exception {
+        Path manifest = temporaryFolder.newFile("manifest.tsv").toPath();
+        Files.write(manifest, Arrays.asList("missing.json\t" + TEST_SWAGGERS.resolve("good.json")), StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int status = BatchChecker.run(new String[] { manifest.toString() },
+                new PrintStream(out, true, "UTF-8"), new PrintStream(new ByteArrayOutputStream()));
+
+        assertEquals(BatchChecker.ERROR, status);
+        assertTrue(out.toString("UTF-8").contains("\"status\":\"error\""));
+    }
+
+    @Test
+    public void testErrorThrown() throws Exception {
+        List<BatchChecker.SpecPair> pairs = Arrays.asList(
+                new BatchChecker.SpecPair("deep", TEST_SWAGGERS.resolve("init.json"), TEST_SWAGGERS.resolve("good.json")));
+        BatchChecker checker = new BatchChecker(path -> {
+            throw new StackOverflowError();
+        }, 1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int status = checker.check(pairs, new PrintStream(out, true, "UTF-8"), new PrintStream(new ByteArrayOutputStream()));
+
+        assertEquals(BatchChecker.ERROR, status);
+        JsonNode result = new ObjectMapper().readTree(out.toString("UTF-8"));
+        assertEquals("error", result.get("status").asText());
+        assertEquals("java.lang.StackOverflowError", result.get("error").asText());
+    }
+
+    @Test
+    public void testUsage() {
+        assertEquals(BatchChecker.USAGE, BatchChecker.run(new String[] { "--threads" },
+                new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream())));
+    }
+
+    @Test
+    public void testPercentile() {
+        long[] sorted = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+        assertEquals(5, BatchChecker.percentile(sorted, 50));
+        assertEquals(9, BatchChecker.percentile(sorted, 90));
+        assertEquals(10, BatchChecker.percentile(sorted, 99));
+        assertEquals(1, BatchChecker.percentile(new long[] { 1 }, 50));
+    }
+}
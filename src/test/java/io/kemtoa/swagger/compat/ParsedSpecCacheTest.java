@@ -0,0 +1,77 @@
+package io.kemtoa.swagger.compat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.swagger.models.Swagger;
+
+public class ParsedSpecCacheTest {
+
+    private static final Path TEST_SWAGGERS = Paths.get("src/test/resources/unit/testSwaggers");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final SpecLoader loader = SpecLoader.forName("parser");
+
+    @Test
+    public void testHit() throws Exception {
+        ParsedSpecCache cache = new ParsedSpecCache();
+        Path spec = copy("init.json", "test.lock");
+
+        Swagger first = cache.load(loader, spec, Digests.sha256(spec));
+        Swagger second = cache.load(loader, spec, Digests.sha256(spec));
+
+        assertSame(first, second);
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(1, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void testMissWhenChanged() throws Exception {
+        ParsedSpecCache cache = new ParsedSpecCache();
+        Path spec = copy("init.json", "test.lock");
+        Swagger first = cache.load(loader, spec, Digests.sha256(spec));
+
+        copy("good.json", "test.lock");
+        Swagger second = cache.load(loader, spec, Digests.sha256(spec));
+
+        assertNotSame(first, second);
+        assertEquals(0, cache.getStatistics().getHits());
+        assertEquals(2, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        Path first = copy("init.json", "first.lock");
+        Path second = copy("good.json", "second.lock");
+        // Room for one of the specs only
+        ParsedSpecCache cache = new ParsedSpecCache(Math.max(SpecFootprint.estimate(loader.load(first)),
+                SpecFootprint.estimate(loader.load(second))));
+
+        cache.load(loader, first, Digests.sha256(first));
+        cache.load(loader, second, Digests.sha256(second));
+        cache.load(loader, first, Digests.sha256(first));
+
+        ParsedSpecCache.Statistics statistics = cache.getStatistics();
+        assertEquals(0, statistics.getHits());
+        assertEquals(3, statistics.getMisses());
+        assertEquals(2, statistics.getEvictions());
+    }
+
+    private Path copy(String filename, String target) throws Exception {
+        return Files.copy(TEST_SWAGGERS.resolve(filename), temporaryFolder.getRoot().toPath().resolve(target),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+}
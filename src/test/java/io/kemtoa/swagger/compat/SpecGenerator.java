@@ -0,0 +1,378 @@
+package io.kemtoa.swagger.compat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import io.swagger.models.Info;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.HeaderParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.PathParameter;
+import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.BooleanProperty;
+import io.swagger.models.properties.DateTimeProperty;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.util.Json;
+
+/**
+ * Seeded generator of Swagger 2.0 spec pairs
+ *
+ * Each path has a GET operation returning an inline model referencing a
+ * definition, and a POST operation taking an inline body and returning a
+ * definition. Each definition is referenced by {@link #fanIn(int)} operations.
+ * The definitions are organized in chains of {@link #nestingDepth(int)}
+ * definitions, each one referencing the next one, the last one referencing
+ * the first one when {@link #recursive(boolean)} is set, and the
+ * {@link #refsPerDefinition(int)} - 1 definitions preceding it in the chain.
+ * The enums of the
+ * definitions and of the request bodies have {@link #enumWidth(int)} values.
+ *
+ * The new spec is the old one with {@link #breakingChanges(int)} backwards
+ * incompatible changes and {@link #compatibleChanges(int)} compatible ones,
+ * each made on a different path. The errors expected from the check are
+ * available with the generated pair.
+ *
+ * The same settings and seed always generate the same specs.
+ */
+public final class SpecGenerator {
+
+    private long seed = 1;
+    private int paths = 100;
+    private int definitions = 50;
+    private int fanIn = 2;
+    private int nestingDepth = 3;
+    private boolean recursive = true;
+    private int refsPerDefinition = 1;
+    private int enumWidth = 8;
+    private int breakingChanges;
+    private int compatibleChanges;
+
+    public SpecGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public SpecGenerator paths(int paths) {
+        this.paths = paths;
+        return this;
+    }
+
+    public SpecGenerator definitions(int definitions) {
+        this.definitions = definitions;
+        return this;
+    }
+
+    /**
+     * @param fanIn the number of operations referencing each definition
+     */
+    public SpecGenerator fanIn(int fanIn) {
+        this.fanIn = fanIn;
+        return this;
+    }
+
+    /**
+     * @param nestingDepth the length of the chains of definitions referencing each other
+     */
+    public SpecGenerator nestingDepth(int nestingDepth) {
+        this.nestingDepth = nestingDepth;
+        return this;
+    }
+
+    /**
+     * @param recursive whether the last definition of each chain references the first one
+     */
+    public SpecGenerator recursive(boolean recursive) {
+        this.recursive = recursive;
+        return this;
+    }
+
+    /**
+     * @param refsPerDefinition the number of definitions of the same chain referenced
+     *                          by each definition, the next one and the preceding ones
+     */
+    public SpecGenerator refsPerDefinition(int refsPerDefinition) {
+        this.refsPerDefinition = refsPerDefinition;
+        return this;
+    }
+
+    public SpecGenerator enumWidth(int enumWidth) {
+        this.enumWidth = enumWidth;
+        return this;
+    }
+
+    public SpecGenerator breakingChanges(int breakingChanges) {
+        this.breakingChanges = breakingChanges;
+        return this;
+    }
+
+    public SpecGenerator compatibleChanges(int compatibleChanges) {
+        this.compatibleChanges = compatibleChanges;
+        return this;
+    }
+
+    public SpecPair generate() {
+        if (paths < 1 || definitions < 1 || fanIn < 1 || nestingDepth < 1 || refsPerDefinition < 1 || enumWidth < 1) {
+            throw new IllegalArgumentException("The sizes of the generated specs must be positive");
+        }
+        if (breakingChanges + compatibleChanges > paths) {
+            throw new IllegalArgumentException("Cannot make " + (breakingChanges + compatibleChanges)
+                    + " changes in a spec with " + paths + " paths");
+        }
+
+        Swagger oldSpec = generateSpec();
+        Swagger newSpec = generateSpec();
+
+        Random random = new Random(seed ^ 0x5deece66dL);
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < paths; i++) {
+            targets.add(i);
+        }
+        Collections.shuffle(targets, random);
+
+        List<String> expectedErrors = new ArrayList<>();
+        for (int i = 0; i < breakingChanges; i++) {
+            expectedErrors.add(makeBreakingChange(newSpec, targets.get(i), Breaking.values()[i % Breaking.values().length]));
+        }
+        for (int i = 0; i < compatibleChanges; i++) {
+            makeCompatibleChange(newSpec, targets.get(breakingChanges + i), Compatible.values()[i % Compatible.values().length]);
+        }
+
+        return new SpecPair(oldSpec, newSpec, expectedErrors);
+    }
+
+    private Swagger generateSpec() {
+        Random random = new Random(seed);
+        Swagger swagger = new Swagger();
+        swagger.setSwagger("2.0");
+        swagger.setInfo(new Info().title("Generated").version("1.0.0"));
+
+        for (int i = 0; i < definitions; i++) {
+            swagger.addDefinition(getDefinitionName(i), generateDefinition(random, i));
+        }
+        for (int i = 0; i < paths; i++) {
+            swagger.path(getPathKey(i), generatePath(random, i));
+        }
+
+        return swagger;
+    }
+
+    private ModelImpl generateDefinition(Random random, int index) {
+        LongProperty id = new LongProperty();
+        id.setRequired(true);
+
+        ModelImpl model = new ModelImpl();
+        model.setType(ModelImpl.OBJECT);
+        model.addProperty("id", id);
+        model.addProperty("name", new StringProperty());
+        model.addProperty("status", enumProperty(enumWidth));
+        model.addProperty("tags", new ArrayProperty(new StringProperty()));
+        model.addProperty("attribute", randomProperty(random));
+
+        int next = index + 1;
+        if (next % nestingDepth == 0 || next == definitions) {
+            next = recursive ? index - index % nestingDepth : -1;
+        }
+        if (next >= 0) {
+            model.addProperty("child", new RefProperty(getDefinitionName(next)));
+        }
+        for (int i = 1; i < refsPerDefinition && i <= index % nestingDepth; i++) {
+            model.addProperty("parent" + i, new RefProperty(getDefinitionName(index - i)));
+        }
+
+        return model;
+    }
+
+    private Path generatePath(Random random, int index) {
+        String definition = getDefinitionName(index / fanIn % definitions);
+
+        ModelImpl page = new ModelImpl();
+        page.setType(ModelImpl.OBJECT);
+        page.addProperty("total", new IntegerProperty());
+        page.addProperty("item", new RefProperty(definition));
+
+        Operation get = new Operation()
+                .parameter(new PathParameter().name("id").type("string"))
+                .parameter(new QueryParameter().name("limit").type("integer"))
+                .response(200, new Response().description("OK").responseSchema(page))
+                .response(404, new Response().description("Not found"));
+
+        ModelImpl body = new ModelImpl();
+        body.setType(ModelImpl.OBJECT);
+        body.addProperty("status", enumProperty(enumWidth));
+        body.addProperty("flag", new StringProperty());
+        body.addProperty("note", randomProperty(random));
+        body.addProperty("item", new RefProperty(definition));
+
+        Operation post = new Operation()
+                .parameter(new PathParameter().name("id").type("string"))
+                .parameter(new BodyParameter().name("body").schema(body))
+                .response(201, new Response().description("Created").responseSchema(new RefModel(definition)));
+
+        return new Path().get(get).post(post);
+    }
+
+    private static Property randomProperty(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return new StringProperty();
+            case 1:
+                return new IntegerProperty();
+            case 2:
+                return new BooleanProperty();
+            default:
+                return new DateTimeProperty();
+        }
+    }
+
+    private static StringProperty enumProperty(int width) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            values.add(getEnumValue(i));
+        }
+
+        StringProperty property = new StringProperty();
+        property.setEnum(values);
+        return property;
+    }
+
+    private enum Breaking {
+        REMOVED_OPERATION,
+        ADDED_REQUIRED_PARAMETER,
+        PARAMETER_LOCATION_CHANGED,
+        REMOVED_REQUEST_ENUM_VALUE,
+        PROPERTY_TYPE_CHANGED,
+        REMOVED_RESPONSE_PROPERTY
+    }
+
+    private enum Compatible {
+        ADDED_OPTIONAL_PARAMETER,
+        ADDED_PATH,
+        ADDED_REQUEST_ENUM_VALUE,
+        ADDED_RESPONSE_PROPERTY
+    }
+
+    /**
+     * @return the error expected for the change
+     */
+    private String makeBreakingChange(Swagger swagger, int index, Breaking change) {
+        String pathKey = getPathKey(index);
+        Path path = swagger.getPath(pathKey);
+
+        switch (change) {
+            case REMOVED_OPERATION:
+                path.setPost(null);
+                return "Path " + pathKey + ", Operation POST : The operation was removed in the new spec.";
+            case ADDED_REQUIRED_PARAMETER:
+                path.getGet().addParameter(new QueryParameter().name("mandatory").type("string").required(true));
+                return "Path " + pathKey + ", Operation GET, Parameter mandatory : "
+                        + "The required parameter 'mandatory' has been added in the new spec.";
+            case PARAMETER_LOCATION_CHANGED:
+                List<Parameter> parameters = path.getGet().getParameters();
+                parameters.set(1, new HeaderParameter().name("limit").type("integer"));
+                return "Path " + pathKey + ", Operation GET, Parameter limit : "
+                        + "The location of parameter 'limit' has changed in the new spec: 'header' previously was 'query'.";
+            case REMOVED_REQUEST_ENUM_VALUE:
+                getBody(path).getProperties().put("status", enumProperty(enumWidth - 1));
+                return "Path " + pathKey + ", Operation POST, Parameter body, Property status : "
+                        + "The enum value '" + getEnumValue(enumWidth - 1) + "' has been removed in the new spec.";
+            case PROPERTY_TYPE_CHANGED:
+                getBody(path).getProperties().put("flag", new BooleanProperty());
+                return "Path " + pathKey + ", Operation POST, Parameter body, Property flag : "
+                        + "The type of property 'flag' has changed in the new spec: 'boolean' was previously 'string'.";
+            default:
+                ((ModelImpl) path.getGet().getResponses().get("200").getResponseSchema()).getProperties().remove("total");
+                return "Path " + pathKey + ", Operation GET, Response 200, Property total : "
+                        + "The property 'total' has been removed in the new spec.";
+        }
+    }
+
+    private void makeCompatibleChange(Swagger swagger, int index, Compatible change) {
+        String pathKey = getPathKey(index);
+        Path path = swagger.getPath(pathKey);
+
+        switch (change) {
+            case ADDED_OPTIONAL_PARAMETER:
+                path.getGet().addParameter(new QueryParameter().name("optional").type("string"));
+                break;
+            case ADDED_PATH:
+                swagger.path(pathKey + "/copy", generatePath(new Random(seed + index), index));
+                break;
+            case ADDED_REQUEST_ENUM_VALUE:
+                getBody(path).getProperties().put("status", enumProperty(enumWidth + 1));
+                break;
+            default:
+                ((ModelImpl) path.getGet().getResponses().get("200").getResponseSchema())
+                        .addProperty("extra", new StringProperty());
+                break;
+        }
+    }
+
+    private static ModelImpl getBody(Path path) {
+        return (ModelImpl) ((BodyParameter) path.getPost().getParameters().get(1)).getSchema();
+    }
+
+    private static String getPathKey(int index) {
+        return "/resources/r" + index + "/{id}";
+    }
+
+    private static String getDefinitionName(int index) {
+        return "Definition" + index;
+    }
+
+    private static String getEnumValue(int index) {
+        return "VALUE_" + index;
+    }
+
+    /**
+     * An old and a new spec, along with the errors expected when comparing them
+     */
+    public static final class SpecPair {
+        private final Swagger oldSpec;
+        private final Swagger newSpec;
+        private final List<String> expectedErrors;
+
+        private SpecPair(Swagger oldSpec, Swagger newSpec, List<String> expectedErrors) {
+            this.oldSpec = oldSpec;
+            this.newSpec = newSpec;
+            this.expectedErrors = expectedErrors;
+        }
+
+        public Swagger getOldSpec() {
+            return oldSpec;
+        }
+
+        public Swagger getNewSpec() {
+            return newSpec;
+        }
+
+        public List<String> getExpectedErrors() {
+            return Collections.unmodifiableList(expectedErrors);
+        }
+
+        public void writeOldSpec(java.nio.file.Path file) throws IOException {
+            write(oldSpec, file);
+        }
+
+        public void writeNewSpec(java.nio.file.Path file) throws IOException {
+            write(newSpec, file);
+        }
+
+        private static void write(Swagger swagger, java.nio.file.Path file) throws IOException {
+            Json.pretty().writeValue(file.toFile(), swagger);
+        }
+    }
+}
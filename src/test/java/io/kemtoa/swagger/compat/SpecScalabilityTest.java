@@ -0,0 +1,241 @@
+package io.kemtoa.swagger.compat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.kemtoa.swagger.compat.SpecGenerator.SpecPair;
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.kemtoa.swagger.compat.rules.CompositeRule;
+import io.kemtoa.swagger.compat.walker.CompactSwaggerDiffWalker;
+import io.kemtoa.swagger.compat.walker.SpecHashes;
+import io.kemtoa.swagger.compat.walker.SwaggerDiffWalker;
+import io.swagger.models.Swagger;
+import io.swagger.util.Json;
+
+/**
+ * Checks the violations found in generated spec pairs, and that the check
+ * grows linearly with the size of the specs
+ */
+public class SpecScalabilityTest {
+
+    private static final int SIZE = 250;
+    private static final int RUNS = 5;
+    // Linear growth doubles the costs, the fixed costs making the ratio lower
+    private static final double MAX_DOUBLING_RATIO = 2.5;
+    private static final String TIMING_PROPERTY = "swaggerCompat.timingTests";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testExpectedViolations() {
+        SpecPair pair = new SpecGenerator().seed(7).paths(200).definitions(100)
+                .breakingChanges(12).compatibleChanges(8).generate();
+
+        assertViolations(pair);
+    }
+
+    @Test
+    public void testCompatibleChanges() {
+        SpecPair pair = new SpecGenerator().seed(11).paths(100).compatibleChanges(40).generate();
+
+        assertTrue(pair.getExpectedErrors().isEmpty());
+        assertViolations(pair);
+    }
+
+    @Test
+    public void testWideEnums() {
+        SpecPair pair = new SpecGenerator().seed(13).paths(50).definitions(20).enumWidth(1000)
+                .breakingChanges(6).compatibleChanges(4).generate();
+
+        assertViolations(pair);
+    }
+
+    @Test
+    public void testDeeplyNestedDefinitions() {
+        SpecPair pair = new SpecGenerator().seed(17).paths(60).definitions(90).nestingDepth(30).fanIn(1)
+                .breakingChanges(6).compatibleChanges(4).generate();
+
+        assertViolations(pair);
+    }
+
+    @Test
+    public void testDenselyReferencingDefinitions() {
+        SpecPair pair = new SpecGenerator().seed(31).paths(60).definitions(40).nestingDepth(10).refsPerDefinition(10)
+                .breakingChanges(6).compatibleChanges(4).generate();
+
+        assertViolations(pair);
+    }
+
+    @Test
+    public void testGenerationIsDeterministic() throws Exception {
+        SpecGenerator generator = new SpecGenerator().seed(19).paths(30).breakingChanges(6).compatibleChanges(4);
+        SpecPair first = generator.generate();
+        SpecPair second = generator.generate();
+
+        assertEquals(Json.mapper().writeValueAsString(first.getOldSpec()), Json.mapper().writeValueAsString(second.getOldSpec()));
+        assertEquals(Json.mapper().writeValueAsString(first.getNewSpec()), Json.mapper().writeValueAsString(second.getNewSpec()));
+        assertEquals(first.getExpectedErrors(), second.getExpectedErrors());
+    }
+
+    @Test
+    public void testWrittenSpecs() throws Exception {
+        SpecPair pair = new SpecGenerator().seed(23).paths(40).breakingChanges(6).compatibleChanges(4).generate();
+        Path oldFile = temporaryFolder.newFile("old.json").toPath();
+        Path newFile = temporaryFolder.newFile("new.json").toPath();
+        pair.writeOldSpec(oldFile);
+        pair.writeNewSpec(newFile);
+
+        for (String loaderName : new String[] { "parser", "streaming" }) {
+            SpecLoader loader = SpecLoader.forName(loaderName);
+            assertEquals(sorted(pair.getExpectedErrors()), check(loader.load(oldFile), loader.load(newFile)));
+        }
+    }
+
+    @Test
+    public void testStopAtFirstViolation() {
+        SpecPair pair = new SpecGenerator().seed(29).paths(100).breakingChanges(10).generate();
+
+        CompositeRule rules = new CompositeRule(CompatibilityChecker.createRules());
+        SwaggerDiffWalker walker = new SwaggerDiffWalker();
+        walker.setStopCondition(() -> !rules.getErrors().isEmpty());
+        walker.walk(rules, pair.getOldSpec(), pair.getNewSpec());
+        assertTrue(walker.isStopped());
+        assertTrue(!rules.getErrors().isEmpty() && rules.getErrors().size() < pair.getExpectedErrors().size());
+
+        CompositeRule compactRules = new CompositeRule(CompatibilityChecker.createRules());
+        CompactSwaggerDiffWalker compactWalker = new CompactSwaggerDiffWalker();
+        compactWalker.setStopCondition(() -> !compactRules.getErrors().isEmpty());
+        compactWalker.walk(compactRules, CompactSpec.of(pair.getOldSpec()), CompactSpec.of(pair.getNewSpec()));
+        assertTrue(compactWalker.isStopped());
+        assertEquals(rules.getErrors(), compactRules.getErrors());
+
+        walker.setStopCondition(() -> false);
+        walker.walk(new CompositeRule(CompatibilityChecker.createRules()), pair.getOldSpec(), pair.getNewSpec());
+        assertFalse(walker.isStopped());
+    }
+
+    @Test
+    public void testLinearAllocations() {
+        com.sun.management.ThreadMXBean threads = getThreadMXBean();
+        assumeTrue(threads != null && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        SpecPair small = generate(SIZE);
+        SpecPair medium = generate(2 * SIZE);
+        SpecPair large = generate(4 * SIZE);
+
+        long smallBytes = measureAllocations(threads, small);
+        long mediumBytes = measureAllocations(threads, medium);
+        long largeBytes = measureAllocations(threads, large);
+        assertDoubling("allocations", smallBytes, mediumBytes, "bytes");
+        assertDoubling("allocations", mediumBytes, largeBytes, "bytes");
+    }
+
+    /**
+     * Wall-clock variant of {@link #testLinearAllocations()}, only run when the
+     * {@value #TIMING_PROPERTY} system property is set, as the timings of loaded
+     * machines are not reliable. See the benchmarks for the actual durations.
+     */
+    @Test
+    public void testLinearTime() {
+        assumeTrue(Boolean.getBoolean(TIMING_PROPERTY));
+
+        SpecPair small = generate(SIZE);
+        SpecPair medium = generate(2 * SIZE);
+        SpecPair large = generate(4 * SIZE);
+
+        // Warm-up
+        for (SpecPair pair : new SpecPair[] { small, medium, large }) {
+            measureTime(pair);
+        }
+        long smallTime = measureTime(small);
+        long mediumTime = measureTime(medium);
+        long largeTime = measureTime(large);
+        assertDoubling("time", smallTime, mediumTime, "ns");
+        assertDoubling("time", mediumTime, largeTime, "ns");
+    }
+
+    /**
+     * Asserts that a cost grew at most linearly, with some margin, when the size of the specs doubled
+     */
+    private static void assertDoubling(String cost, long before, long after, String unit) {
+        assertTrue("Check " + cost + " grew from " + before + " to " + after + " " + unit + " when the specs doubled",
+                after <= MAX_DOUBLING_RATIO * before);
+    }
+
+    /**
+     * @return specs whose definitions form clusters of a fixed size, each definition referencing several others
+     */
+    private static SpecPair generate(int paths) {
+        return new SpecGenerator().seed(paths).paths(paths).definitions(paths / 2).nestingDepth(6).refsPerDefinition(4)
+                .breakingChanges(paths / 25).compatibleChanges(paths / 10).generate();
+    }
+
+    private static void assertViolations(SpecPair pair) {
+        List<String> expected = sorted(pair.getExpectedErrors());
+        Swagger oldSpec = pair.getOldSpec();
+        Swagger newSpec = pair.getNewSpec();
+
+        assertEquals(expected, check(oldSpec, newSpec));
+
+        CompositeRule rules = new CompositeRule(CompatibilityChecker.createRules());
+        new SwaggerDiffWalker().walk(rules, oldSpec, newSpec, SpecHashes.of(oldSpec), SpecHashes.of(newSpec));
+        assertEquals(expected, sorted(rules.getErrors()));
+
+        rules = new CompositeRule(CompatibilityChecker.createRules());
+        new CompactSwaggerDiffWalker().walk(rules, CompactSpec.of(oldSpec), CompactSpec.of(newSpec));
+        assertEquals(expected, sorted(rules.getErrors()));
+    }
+
+    private static List<String> check(Swagger oldSpec, Swagger newSpec) {
+        CompositeRule rules = new CompositeRule(CompatibilityChecker.createRules());
+        new SwaggerDiffWalker().walk(rules, oldSpec, newSpec);
+        return sorted(rules.getErrors());
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static long measureTime(SpecPair pair) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2 * RUNS; i++) {
+            System.gc();
+            long start = System.nanoTime();
+            check(pair.getOldSpec(), pair.getNewSpec());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static long measureAllocations(com.sun.management.ThreadMXBean threads, SpecPair pair) {
+        long threadId = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = threads.getThreadAllocatedBytes(threadId);
+            check(pair.getOldSpec(), pair.getNewSpec());
+            best = Math.min(best, threads.getThreadAllocatedBytes(threadId) - start);
+        }
+        return best;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threads : null;
+    }
+}
@@ -0,0 +1,37 @@
+package io.kemtoa.swagger.compat;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpecWatcherTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test(timeout = 30000)
+    public void testDebouncedChanges() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        Files.write(directory.resolve("users.json"), "{}".getBytes(StandardCharsets.UTF_8));
+
+        try (SpecWatcher watcher = new SpecWatcher(directory, 200)) {
+            Files.write(directory.resolve("users.json"), "{\"swagger\":".getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("users.json"), "{\"swagger\":\"2.0\"}".getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("pets.json"), "{}".getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("notes.txt"), "".getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(new TreeSet<>(Arrays.asList("pets", "users")), watcher.awaitChanges());
+
+            Files.write(directory.resolve("pets.json"), "{\"swagger\":\"2.0\"}".getBytes(StandardCharsets.UTF_8));
+            assertEquals(new TreeSet<>(Arrays.asList("pets")), watcher.awaitChanges());
+        }
+    }
+}
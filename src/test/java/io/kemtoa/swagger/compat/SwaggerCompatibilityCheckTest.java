@@ -4,6 +4,9 @@ import static org.hamcrest.CoreMatchers.hasItem;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -14,6 +17,8 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
 
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.kemtoa.swagger.compat.loader.SpecLoader;
 import io.kemtoa.swagger.compat.rules.AddedEnumValueInResponseRule;
 import io.kemtoa.swagger.compat.rules.AddedRequiredRequestParameterRule;
 import io.kemtoa.swagger.compat.rules.CompositeRule;
@@ -22,9 +27,10 @@ import io.kemtoa.swagger.compat.rules.PropertyRemovedInResponseRule;
 import io.kemtoa.swagger.compat.rules.PropertyTypeChangedRule;
 import io.kemtoa.swagger.compat.rules.RemovedEnumValueInRequestRule;
 import io.kemtoa.swagger.compat.rules.RemovedOperationRule;
+import io.kemtoa.swagger.compat.walker.CompactSwaggerDiffWalker;
+import io.kemtoa.swagger.compat.walker.SpecHashes;
 import io.kemtoa.swagger.compat.walker.SwaggerDiffWalker;
 import io.swagger.models.Swagger;
-import io.swagger.parser.SwaggerParser;
 
 @RunWith(Parameterized.class)
 public class SwaggerCompatibilityCheckTest {
@@ -49,8 +55,19 @@ public class SwaggerCompatibilityCheckTest {
         }
     }
 
-    @Parameters
-    public static Collection<TestCase> data() {
+    @Parameters(name = "{0} {1} compact={2}")
+    public static Collection<Object[]> data() {
+        List<Object[]> data = new ArrayList<>();
+        for (TestCase testCase : testCases()) {
+            for (String loaderName : Arrays.asList("parser", "streaming")) {
+                data.add(new Object[] { testCase, loaderName, false });
+                data.add(new Object[] { testCase, loaderName, true });
+            }
+        }
+        return data;
+    }
+
+    private static List<TestCase> testCases() {
         return Arrays.asList(
                 new TestCase("specs/petstore.json", "specs/petstore.json"),
                 new TestCase("specs/petstore.json", "specs/petstore-added-parameter.json",
@@ -77,6 +94,9 @@ public class SwaggerCompatibilityCheckTest {
                 new TestCase("specs/uber.json", "specs/uber-parameter-location-changed.json",
                         "Path /products, Operation GET, Parameter latitude : The location of parameter 'latitude' has changed in the new spec: 'header' previously was 'query'."
                 ),
+                new TestCase("specs/uber.json", "specs/uber-added-header-parameter.json",
+                        "Path /products, Operation GET, Parameter latitude : The required parameter 'latitude' has been added in the new spec."
+                ),
                 new TestCase("specs/uber.json", "specs/uber-added-enum-value.json",
                         "Path /me, Operation GET, Response 200, Property status : The enum value 'IN_BETWEEN' has been added in the new spec."
                 )
@@ -86,10 +106,28 @@ public class SwaggerCompatibilityCheckTest {
     @Parameter
     public TestCase testCase;
 
+    @Parameter(1)
+    public String loaderName;
+
+    @Parameter(2)
+    public boolean compact;
+
+    @Test
+    public void test() throws Exception {
+        check(false);
+    }
+
     @Test
-    public void test() {
-        Swagger swaggerLeft = new SwaggerParser().read(testCase.oldPath);
-        Swagger swaggerRight = new SwaggerParser().read(testCase.newPath);
+    public void testWithHashes() throws Exception {
+        check(true);
+    }
+
+    private void check(boolean hashed) throws Exception {
+        SpecLoader loader = SpecLoader.forName(loaderName);
+        Swagger swaggerLeft = loader.load(getResourcePath(testCase.oldPath));
+        Swagger swaggerRight = loader.load(getResourcePath(testCase.newPath));
+        SpecHashes hashesLeft = hashed ? SpecHashes.of(swaggerLeft) : null;
+        SpecHashes hashesRight = hashed ? SpecHashes.of(swaggerRight) : null;
 
         CompositeRule rules = new CompositeRule(
                 new PropertyRemovedInResponseRule(),
@@ -101,8 +139,14 @@ public class SwaggerCompatibilityCheckTest {
                 new RemovedOperationRule()
         );
 
-        SwaggerDiffWalker walker = new SwaggerDiffWalker();
-        walker.walk(rules, swaggerLeft, swaggerRight);
+        if (compact) {
+            CompactSwaggerDiffWalker walker = new CompactSwaggerDiffWalker();
+            walker.walk(rules, CompactSpec.of(swaggerLeft), CompactSpec.of(swaggerRight),
+                    hashed ? hashesLeft.withoutNodes() : null, hashed ? hashesRight.withoutNodes() : null);
+        } else {
+            SwaggerDiffWalker walker = new SwaggerDiffWalker();
+            walker.walk(rules, swaggerLeft, swaggerRight, hashesLeft, hashesRight);
+        }
 
         assertEquals(testCase.errors.size(), rules.getErrors().size());
 
@@ -110,4 +154,8 @@ public class SwaggerCompatibilityCheckTest {
             assertThat(rules.getErrors(), hasItem(error));
         }
     }
+
+    private Path getResourcePath(String resource) throws Exception {
+        return Paths.get(getClass().getClassLoader().getResource(resource).toURI());
+    }
 }
@@ -0,0 +1,285 @@
+package io.kemtoa.swagger.compat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.kemtoa.swagger.compat.rules.CompositeRule;
+import io.kemtoa.swagger.compat.walker.CompactSwaggerDiffWalker;
+import io.kemtoa.swagger.compat.walker.SwaggerDiffVisitor;
+import io.kemtoa.swagger.compat.walker.SwaggerDiffWalker;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
+/**
+ * Checks that the walk over pathological schemas grows linearly with their size,
+ * or polynomially for definitions all referencing each other
+ */
+public class SwaggerDiffWalkerStressTest {
+
+    private static final int SIZE = 100;
+    private static final int RUNS = 7;
+    private static final int[] CLUSTER_SIZES = { 8, 12, 16 };
+    // Each of the n definitions of a cluster is compared once per root, with its n + 1 properties
+    private static final int CLUSTER_DEGREE = 3;
+
+    @Test
+    public void testRecursiveDefinitions() {
+        assertLinear(SwaggerDiffWalkerStressTest::recursiveSpec);
+    }
+
+    @Test
+    public void testDeeplyNestedProperties() {
+        assertLinear(SwaggerDiffWalkerStressTest::nestedSpec);
+    }
+
+    @Test
+    public void testWideDefinitions() {
+        assertLinear(SwaggerDiffWalkerStressTest::wideSpec);
+    }
+
+    @Test
+    public void testFullyConnectedDefinitions() {
+        long[] calls = new long[CLUSTER_SIZES.length];
+        for (int i = 0; i < CLUSTER_SIZES.length; i++) {
+            calls[i] = countCalls(clusterSpec(CLUSTER_SIZES[i]));
+        }
+        assertPolynomial("Visitor calls", calls);
+    }
+
+    @Test
+    public void testFullyConnectedDefinitionsAllocations() {
+        com.sun.management.ThreadMXBean threads = getThreadMXBean();
+        assumeTrue(threads != null && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        long[] swaggerBytes = new long[CLUSTER_SIZES.length];
+        long[] compactBytes = new long[CLUSTER_SIZES.length];
+        for (int i = 0; i < CLUSTER_SIZES.length; i++) {
+            Swagger swagger = clusterSpec(CLUSTER_SIZES[i]);
+            CompactSpec compact = CompactSpec.of(swagger);
+            swaggerBytes[i] = measureAllocations(threads, () -> new SwaggerDiffWalker().walk(new CountingVisitor(), swagger, swagger));
+            compactBytes[i] = measureAllocations(threads, () -> new CompactSwaggerDiffWalker().walk(new CountingVisitor(), compact, compact));
+        }
+        assertPolynomial("Walk allocations", swaggerBytes);
+        assertPolynomial("Compact walk allocations", compactBytes);
+    }
+
+    @Test
+    public void testRecursiveDefinitionsAreComparedUntilTheCycle() {
+        Swagger left = recursiveSpec(3);
+        Swagger right = recursiveSpec(3);
+        right.getDefinitions().get("Node2").getProperties().remove("name");
+
+        CompositeRule rules = new CompositeRule(CompatibilityChecker.createRules());
+        new SwaggerDiffWalker().walk(rules, left, right);
+
+        assertEquals(1, rules.getErrors().size());
+        assertEquals("Path /root, Operation GET, Response 200, Property next, Property next, Property name : "
+                + "The property 'name' has been removed in the new spec.", rules.getErrors().get(0));
+    }
+
+    private static void assertLinear(IntFunction<Swagger> generator) {
+        Swagger small = generator.apply(SIZE);
+        Swagger large = generator.apply(4 * SIZE);
+
+        long smallCalls = countCalls(small);
+        long largeCalls = countCalls(large);
+        assertTrue("Visitor calls grew from " + smallCalls + " to " + largeCalls,
+                largeCalls <= 5 * smallCalls);
+
+        measure(large); // Warm-up
+        long smallTime = measure(small);
+        long largeTime = measure(large);
+        assertTrue("Walk time grew from " + smallTime + "ns to " + largeTime + "ns",
+                largeTime <= 10 * smallTime);
+    }
+
+    /**
+     * Asserts that the costs measured for {@link #CLUSTER_SIZES} grew at most
+     * as the size of the clusters to the power of {@link #CLUSTER_DEGREE}
+     */
+    private static void assertPolynomial(String cost, long[] costs) {
+        for (int i = 1; i < costs.length; i++) {
+            double bound = Math.pow((double) CLUSTER_SIZES[i] / CLUSTER_SIZES[0], CLUSTER_DEGREE);
+            assertTrue(cost + " grew from " + costs[0] + " to " + costs[i] + " for clusters of "
+                            + CLUSTER_SIZES[0] + " and " + CLUSTER_SIZES[i] + " definitions",
+                    costs[i] <= bound * costs[0]);
+        }
+    }
+
+    private static long countCalls(Swagger swagger) {
+        CountingVisitor visitor = new CountingVisitor();
+        new SwaggerDiffWalker().walk(visitor, swagger, swagger);
+        long calls = visitor.calls;
+
+        visitor.calls = 0;
+        CompactSpec compact = CompactSpec.of(swagger);
+        new CompactSwaggerDiffWalker().walk(visitor, compact, compact);
+        assertEquals(calls, visitor.calls);
+
+        return calls;
+    }
+
+    /**
+     * @return the fastest of several walks, in nanoseconds
+     */
+    private static long measure(Swagger swagger) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            CompositeRule rules = new CompositeRule(CompatibilityChecker.createRules());
+            long start = System.nanoTime();
+            new SwaggerDiffWalker().walk(rules, swagger, swagger);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * @return the fewest bytes allocated by several walks
+     */
+    private static long measureAllocations(com.sun.management.ThreadMXBean threads, Runnable walk) {
+        long threadId = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = threads.getThreadAllocatedBytes(threadId);
+            walk.run();
+            best = Math.min(best, threads.getThreadAllocatedBytes(threadId) - start);
+        }
+        return best;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threads : null;
+    }
+
+    /**
+     * Ring of definitions referencing the next one, themselves and the first one
+     */
+    private static Swagger recursiveSpec(int size) {
+        Map<String, Model> definitions = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            Map<String, Property> properties = new LinkedHashMap<>();
+            properties.put("name", new StringProperty());
+            properties.put("next", new RefProperty("Node" + ((i + 1) % size)));
+            properties.put("self", new RefProperty("Node" + i));
+            properties.put("all", new ArrayProperty(new RefProperty("Node0")));
+
+            definitions.put("Node" + i, definition(properties));
+        }
+        return spec(definitions);
+    }
+
+    /**
+     * Cluster of definitions each referencing all the others and itself
+     */
+    private static Swagger clusterSpec(int size) {
+        Map<String, Model> definitions = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            Map<String, Property> properties = new LinkedHashMap<>();
+            properties.put("name", new StringProperty());
+            for (int j = 0; j < size; j++) {
+                properties.put("node" + j, new RefProperty("Node" + j));
+            }
+
+            definitions.put("Node" + i, definition(properties));
+        }
+        return spec(definitions);
+    }
+
+    /**
+     * Definition made of inline objects nested at the given depth
+     */
+    private static Swagger nestedSpec(int depth) {
+        ObjectProperty nested = new ObjectProperty();
+        for (int i = 0; i < depth; i++) {
+            Map<String, Property> properties = new LinkedHashMap<>();
+            properties.put("name", new StringProperty()._enum("A")._enum("B"));
+            properties.put("child", nested);
+            nested = new ObjectProperty(properties);
+        }
+
+        Map<String, Model> definitions = new LinkedHashMap<>();
+        definitions.put("Node0", definition(nested.getProperties()));
+        return spec(definitions);
+    }
+
+    /**
+     * Definition with many properties, most of them references to shared definitions
+     */
+    private static Swagger wideSpec(int width) {
+        Map<String, Model> definitions = new LinkedHashMap<>();
+        Map<String, Property> properties = new LinkedHashMap<>();
+        for (int i = 0; i < width; i++) {
+            properties.put("property" + i, i % 4 == 0 ? new StringProperty() : new RefProperty("Leaf" + (i % 8)));
+        }
+        definitions.put("Node0", definition(properties));
+
+        for (int i = 0; i < 8; i++) {
+            Map<String, Property> leafProperties = new LinkedHashMap<>();
+            leafProperties.put("value", new StringProperty()._enum("X")._enum("Y"));
+            leafProperties.put("other", new RefProperty("Leaf" + ((i + 1) % 8)));
+            definitions.put("Leaf" + i, definition(leafProperties));
+        }
+        return spec(definitions);
+    }
+
+    private static Model definition(Map<String, Property> properties) {
+        ModelImpl model = new ModelImpl().type("object");
+        model.setProperties(properties);
+        return model;
+    }
+
+    private static Swagger spec(Map<String, Model> definitions) {
+        BodyParameter body = new BodyParameter();
+        body.setName("body");
+        body.setSchema(new RefModel("Node0"));
+
+        Response response = new Response();
+        response.setResponseSchema(new RefModel("Node0"));
+
+        Operation operation = new Operation().parameter(body).response(200, response);
+
+        Swagger swagger = new Swagger().path("/root", new Path().get(operation));
+        swagger.setDefinitions(definitions);
+        return swagger;
+    }
+
+    private static class CountingVisitor implements SwaggerDiffVisitor {
+        private long calls;
+
+        @Override
+        public void acceptModel(Model left, Model right) {
+            calls++;
+        }
+
+        @Override
+        public void acceptProperty(String key, Property left, Property right) {
+            calls++;
+        }
+
+        @Override
+        public void acceptEnumValue(String left, String right) {
+            calls++;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.kemtoa.swagger.compat.compact;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.kemtoa.swagger.compat.rules.CompositeRule;
+import io.kemtoa.swagger.compat.rules.PropertyRemovedInResponseRule;
+import io.kemtoa.swagger.compat.rules.PropertyTypeChangedRule;
+import io.kemtoa.swagger.compat.walker.CompactSwaggerDiffWalker;
+
+public class CompactSpecFormatTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (String resource : new String[] { "specs/petstore.json", "specs/uber.json", "specs/recursive.json" }) {
+            CompactSpec spec = load(resource);
+            CompactSpec read = roundTrip(spec);
+
+            assertEquals(resource, spec.getNodeCount(), read.getNodeCount());
+            assertEquals(resource, spec.getDefinitionsStart(), read.getDefinitionsStart());
+            assertEquals(resource, spec.getDefinitionCount(), read.getDefinitionCount());
+            assertArrayEquals(resource, spec.strings, read.strings);
+            assertArrayEquals(resource, spec.kinds, read.kinds);
+            assertArrayEquals(resource, spec.flags, read.flags);
+            assertArrayEquals(resource, spec.names, read.names);
+            assertArrayEquals(resource, spec.types, read.types);
+            assertArrayEquals(resource, spec.formats, read.formats);
+            assertArrayEquals(resource, spec.extras, read.extras);
+            assertArrayEquals(resource, spec.refTargets, read.refTargets);
+            assertArrayEquals(resource, spec.firstChildren, read.firstChildren);
+            assertArrayEquals(resource, spec.childCounts, read.childCounts);
+            assertArrayEquals(resource, spec.sortedChildren, read.sortedChildren);
+            assertArrayEquals(resource, spec.enumValues, read.enumValues);
+        }
+    }
+
+    @Test
+    public void testCompareSnapshot() throws Exception {
+        CompositeRule rules = new CompositeRule(new PropertyRemovedInResponseRule(), new PropertyTypeChangedRule());
+        new CompactSwaggerDiffWalker().walk(rules, roundTrip(load("specs/uber.json")), load("specs/uber-removed-property.json"));
+
+        CompositeRule expectedRules = new CompositeRule(new PropertyRemovedInResponseRule(), new PropertyTypeChangedRule());
+        new CompactSwaggerDiffWalker().walk(expectedRules, load("specs/uber.json"), load("specs/uber-removed-property.json"));
+
+        assertFalse(expectedRules.getErrors().isEmpty());
+        assertEquals(expectedRules.getErrors(), rules.getErrors());
+    }
+
+    @Test
+    public void testSource() throws Exception {
+        Path snapshot = Files.createTempFile("snapshot", ".lock");
+        try {
+            CompactSpecFormat.write(load("specs/petstore.json"), "0123abcd", snapshot);
+            assertEquals("0123abcd", CompactSpecFormat.readSource(snapshot));
+            assertNull(CompactSpecFormat.readSource(getResourcePath("specs/petstore.json")));
+
+            Files.write(snapshot, new byte[] { (byte) 0x89 });
+            assertNull(CompactSpecFormat.readSource(snapshot));
+        } finally {
+            Files.delete(snapshot);
+        }
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testNotSnapshot() throws Exception {
+        CompactSpecFormat.read(new ByteArrayInputStream("{\"swagger\":\"2.0\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static CompactSpec roundTrip(CompactSpec spec) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompactSpecFormat.write(spec, "source", out);
+        return CompactSpecFormat.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private CompactSpec load(String resource) throws Exception {
+        return CompactSpec.of(SpecLoader.forName("parser").load(getResourcePath(resource)));
+    }
+
+    private Path getResourcePath(String resource) throws Exception {
+        return Paths.get(getClass().getClassLoader().getResource(resource).toURI());
+    }
+}
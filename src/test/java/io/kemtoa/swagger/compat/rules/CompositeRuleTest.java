@@ -0,0 +1,51 @@
+package io.kemtoa.swagger.compat.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import io.kemtoa.swagger.compat.walker.DiffContext;
+import io.kemtoa.swagger.compat.walker.DiffEvent;
+import io.kemtoa.swagger.compat.walker.Location;
+
+public class CompositeRuleTest {
+
+    @Test
+    public void testRulesObserveOverriddenEventsInDeclaredContexts() {
+        Rule rule = new AddedEnumValueInResponseRule();
+
+        assertTrue(rule.observes(DiffEvent.ENUM_VALUES, DiffContext.RESPONSE));
+        assertFalse(rule.observes(DiffEvent.ENUM_VALUES, DiffContext.REQUEST));
+        assertFalse(rule.observes(DiffEvent.PROPERTY, DiffContext.RESPONSE));
+    }
+
+    @Test
+    public void testCallsAreOnlyDispatchedToObservingRules() {
+        Rule responseRule = new AddedEnumValueInResponseRule();
+        Rule requestRule = new RemovedEnumValueInRequestRule();
+        CompositeRule rules = new CompositeRule(responseRule, requestRule, new RemovedOperationRule());
+
+        Location location = new Location();
+        rules.setLocation(location);
+
+        assertTrue(rules.observes(DiffEvent.ENUM_VALUES, DiffContext.REQUEST));
+        assertTrue(rules.observes(DiffEvent.PATH, DiffContext.OPERATION));
+        assertFalse(rules.observes(DiffEvent.MODEL, DiffContext.RESPONSE));
+
+        location.setResponse(true);
+        rules.acceptEnumValues(Collections.singleton("A"), Collections.emptySet());
+        location.setResponse(false);
+
+        location.setRequest(true);
+        rules.acceptEnumValues(Collections.emptySet(), Collections.singleton("B"));
+        location.setRequest(false);
+
+        assertEquals(1, responseRule.getErrors().size());
+        assertEquals(1, requestRule.getErrors().size());
+        assertEquals(2, rules.getErrors().size());
+    }
+}
@@ -0,0 +1,83 @@
+package io.kemtoa.swagger.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class EnumDiffTest {
+
+    @Test
+    public void testEnumChanges() {
+        ChangesVisitor visitor = new ChangesVisitor();
+        EnumDiff.visit(visitor, new ObservedEvents(visitor), DiffContext.RESPONSE, null,
+                Arrays.asList("EUR", "USD", "GBP", "CHF"), Arrays.asList("JPY", "USD", "EUR", "CAD", "USD"));
+
+        assertEquals(Arrays.asList("+[JPY, CAD] -[GBP, CHF]"), visitor.calls);
+    }
+
+    @Test
+    public void testUnchangedEnum() {
+        ChangesVisitor visitor = new ChangesVisitor();
+        ObservedEvents observed = new ObservedEvents(visitor);
+        EnumDiff.visit(visitor, observed, DiffContext.REQUEST, null, Arrays.asList("A", "B"), Arrays.asList("A", "B"));
+        EnumDiff.visit(visitor, observed, DiffContext.REQUEST, null, Arrays.asList("A", "B"), Arrays.asList("B", "A"));
+        EnumDiff.visit(visitor, observed, DiffContext.REQUEST, null, null, null);
+
+        assertTrue(visitor.calls.isEmpty());
+    }
+
+    @Test
+    public void testEachValueThenChanges() {
+        ChangesVisitor visitor = new ChangesVisitor() {
+            @Override
+            public void acceptEnumValue(String left, String right) {
+                calls.add(left + "/" + right);
+            }
+        };
+        DiffRecording recording = new DiffRecording();
+        EnumDiff.visit(visitor, new ObservedEvents(visitor), DiffContext.RESPONSE, recording,
+                Arrays.asList("A", "B"), Arrays.asList("B", "C"));
+
+        List<String> expected = Arrays.asList("A/null", "B/B", "null/C", "+[C] -[A]");
+        assertEquals(expected, visitor.calls);
+
+        visitor.calls.clear();
+        recording.replay(visitor, new Location());
+        assertEquals(expected, visitor.calls);
+    }
+
+    @Test
+    public void testLargeEnum() {
+        List<String> left = new ArrayList<>();
+        List<String> right = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            left.add("E" + i);
+            right.add("E" + (i + 1));
+        }
+
+        ChangesVisitor visitor = new ChangesVisitor();
+        EnumDiff.visit(visitor, new ObservedEvents(visitor), DiffContext.RESPONSE, null, left, right);
+
+        assertEquals(Arrays.asList("+[E200000] -[E0]"), visitor.calls);
+    }
+
+    private static class ChangesVisitor implements SwaggerDiffVisitor {
+        protected final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void acceptEnumValues(Set<String> added, Set<String> removed) {
+            calls.add("+" + added + " -" + removed);
+        }
+
+        @Override
+        public boolean observes(DiffEvent event, DiffContext context) {
+            return event.isHandledBy(getClass());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.kemtoa.swagger.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LocationTest {
+
+    @Test
+    public void testRendering() {
+        Location location = new Location();
+        location.push(Location.Kind.PATH, "/pets/{id}");
+        location.push(Location.Kind.OPERATION, "GET");
+        location.push(Location.Kind.RESPONSE, "200");
+        location.push(Location.Kind.PROPERTY, "tags");
+        location.push(Location.Kind.ITEMS, "items");
+        location.push(Location.Kind.PROPERTY, "a~b");
+
+        assertEquals("Path /pets/{id}, Operation GET, Response 200, Property tags, Property items, Property a~b",
+                location.getFullLocation());
+        assertEquals("/paths/~1pets~1{id}/get/responses/200/properties/tags/items/properties/a~0b",
+                location.getJsonPointer());
+        assertEquals(6, location.getSegmentCount());
+        assertEquals(Location.Kind.ITEMS, location.getSegmentKind(4));
+        assertEquals("items", location.getSegmentKey(4));
+
+        location.pop();
+        location.pop();
+        location.pop();
+        location.push(Location.Kind.PARAMETER, "limit");
+
+        assertEquals("Path /pets/{id}, Operation GET, Response 200, Parameter limit", location.getFullLocation());
+    }
+
+    @Test
+    public void testFreeFormSegments() {
+        Location location = new Location();
+        location.pushPath("Custom segment");
+
+        assertEquals("Custom segment", location.getFullLocation());
+
+        location.popPath();
+
+        assertEquals("", location.getFullLocation());
+    }
+
+    @Test
+    public void testPushOnCopy() {
+        Location empty = new Location().copy();
+        empty.push(Location.Kind.PATH, "/pets");
+        assertEquals("Path /pets", empty.getFullLocation());
+
+        Location location = new Location();
+        location.push(Location.Kind.PATH, "/pets");
+        Location copy = location.copy();
+        copy.push(Location.Kind.OPERATION, "GET");
+        copy.push(Location.Kind.RESPONSE, "200");
+
+        assertEquals("Path /pets, Operation GET, Response 200", copy.getFullLocation());
+        assertEquals("Path /pets", location.getFullLocation());
+    }
+}
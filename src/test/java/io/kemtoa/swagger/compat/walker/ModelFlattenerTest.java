@@ -0,0 +1,80 @@
+package io.kemtoa.swagger.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.kemtoa.swagger.compat.compact.CompactSpec;
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.kemtoa.swagger.compat.rules.AddedEnumValueInResponseRule;
+import io.kemtoa.swagger.compat.rules.CompositeRule;
+import io.kemtoa.swagger.compat.rules.PropertyRemovedInResponseRule;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Swagger;
+
+public class ModelFlattenerTest {
+
+    @Test
+    public void testFlatten() throws Exception {
+        Swagger swagger = load("specs/composed.json");
+        ModelFlattener flattener = new ModelFlattener(swagger);
+
+        ModelImpl pet = (ModelImpl) flattener.flatten(swagger.getDefinitions().get("Pet"));
+        assertEquals(Arrays.asList("id", "created", "name", "status"), new ArrayList<>(pet.getProperties().keySet()));
+        assertEquals(Collections.singletonList("id"), pet.getRequired());
+        assertEquals("object", pet.getType());
+
+        assertSame(pet, flattener.flatten(swagger.getDefinitions().get("Pet")));
+        Model base = swagger.getDefinitions().get("Base");
+        assertSame(base, flattener.flatten(base));
+    }
+
+    @Test
+    public void testFlattenCycle() throws Exception {
+        Swagger swagger = load("specs/composed.json");
+        ModelFlattener flattener = new ModelFlattener(swagger);
+
+        ModelImpl loop = (ModelImpl) flattener.flatten(swagger.getDefinitions().get("Loop"));
+        assertEquals(Arrays.asList("back", "forth"), new ArrayList<>(loop.getProperties().keySet()));
+
+        // LoopBack was reached while flattening Loop, without the properties of Loop
+        ModelImpl loopBack = (ModelImpl) flattener.flatten(swagger.getDefinitions().get("LoopBack"));
+        assertEquals(Arrays.asList("back", "forth"), new ArrayList<>(loopBack.getProperties().keySet()));
+        assertSame(loopBack, flattener.flatten(swagger.getDefinitions().get("LoopBack")));
+    }
+
+    @Test
+    public void testCompareComposedModels() throws Exception {
+        Swagger swaggerOld = load("specs/composed.json");
+        Swagger swaggerNew = load("specs/composed-removed-property.json");
+
+        CompositeRule rules = new CompositeRule(new AddedEnumValueInResponseRule(), new PropertyRemovedInResponseRule());
+        new SwaggerDiffWalker().walk(rules, swaggerOld, swaggerNew);
+
+        List<String> errors = rules.getErrors();
+        assertEquals(4, errors.size());
+        assertTrue(errors.contains("Path /pets, Operation GET, Response 200, Property status : "
+                + "The enum value 'pending' has been added in the new spec."));
+        assertTrue(errors.contains("Path /nodes, Operation GET, Response 200, Property parent, Property created : "
+                + "The property 'created' has been removed in the new spec."));
+
+        CompositeRule compactRules = new CompositeRule(new AddedEnumValueInResponseRule(), new PropertyRemovedInResponseRule());
+        new CompactSwaggerDiffWalker().walk(compactRules, CompactSpec.of(swaggerOld), CompactSpec.of(swaggerNew));
+        assertEquals(errors, compactRules.getErrors());
+    }
+
+    private Swagger load(String resource) throws Exception {
+        Path path = Paths.get(getClass().getClassLoader().getResource(resource).toURI());
+        return SpecLoader.forName("parser").load(path);
+    }
+}
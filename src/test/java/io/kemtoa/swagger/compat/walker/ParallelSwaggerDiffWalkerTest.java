@@ -0,0 +1,98 @@
+package io.kemtoa.swagger.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.kemtoa.swagger.compat.rules.AddedEnumValueInResponseRule;
+import io.kemtoa.swagger.compat.rules.AddedRequiredRequestParameterRule;
+import io.kemtoa.swagger.compat.rules.CompositeRule;
+import io.kemtoa.swagger.compat.rules.ParameterLocationChangedRule;
+import io.kemtoa.swagger.compat.rules.PropertyRemovedInResponseRule;
+import io.kemtoa.swagger.compat.rules.PropertyTypeChangedRule;
+import io.kemtoa.swagger.compat.rules.RemovedEnumValueInRequestRule;
+import io.kemtoa.swagger.compat.rules.RemovedOperationRule;
+import io.swagger.models.Swagger;
+
+public class ParallelSwaggerDiffWalkerTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterClass
+    public static void shutdownPool() {
+        POOL.shutdownNow();
+    }
+
+    @Test
+    public void testSameViolationsAsSequentialWalk() throws Exception {
+        String[][] pairs = {
+                { "specs/petstore.json", "specs/petstore-removed-operation.json" },
+                { "specs/petstore.json", "specs/petstore-added-parameter.json" },
+                { "specs/petstore.json", "specs/petstore-removed-enum-value.json" },
+                { "specs/uber.json", "specs/uber-removed-property.json" },
+                { "specs/uber.json", "specs/uber-type-changed.json" },
+                { "specs/uber.json", "specs/uber-parameter-location-changed.json" },
+                { "specs/uber.json", "specs/uber-added-header-parameter.json" },
+                { "specs/uber.json", "specs/uber-added-enum-value.json" },
+                { "specs/composed.json", "specs/composed-removed-property.json" },
+                { "specs/petstore.json", "specs/uber.json" },
+        };
+
+        for (String[] pair : pairs) {
+            Swagger swaggerOld = load(pair[0]);
+            Swagger swaggerNew = load(pair[1]);
+
+            CollectingRules sequential = new CollectingRules();
+            new SwaggerDiffWalker().walk(sequential, swaggerOld, swaggerNew);
+
+            ParallelSwaggerDiffWalker walker = new ParallelSwaggerDiffWalker(POOL);
+            List<String> violations = new ArrayList<>();
+            for (CollectingRules partition : walker.walk(CollectingRules::new, swaggerOld, swaggerNew, null, null)) {
+                violations.addAll(partition.violations);
+            }
+
+            assertFalse(pair[0] + " -> " + pair[1], sequential.violations.isEmpty());
+            assertEquals(pair[0] + " -> " + pair[1], sequential.violations, violations);
+            assertFalse(walker.isStopped());
+        }
+    }
+
+    @Test
+    public void testStopCondition() throws Exception {
+        ParallelSwaggerDiffWalker walker = new ParallelSwaggerDiffWalker(POOL);
+        walker.setStopCondition(() -> true);
+        List<CollectingRules> partitions = walker.walk(CollectingRules::new,
+                load("specs/petstore.json"), load("specs/uber.json"), null, null);
+
+        assertTrue(walker.isStopped());
+        for (CollectingRules partition : partitions) {
+            assertTrue(partition.violations.isEmpty());
+        }
+    }
+
+    private Swagger load(String resource) throws Exception {
+        Path path = Paths.get(getClass().getClassLoader().getResource(resource).toURI());
+        return SpecLoader.forName("parser").load(path);
+    }
+
+    private static final class CollectingRules extends CompositeRule {
+        private final List<String> violations = new ArrayList<>();
+
+        private CollectingRules() {
+            super(new AddedEnumValueInResponseRule(), new AddedRequiredRequestParameterRule(), new ParameterLocationChangedRule(),
+                    new PropertyRemovedInResponseRule(), new PropertyTypeChangedRule(), new RemovedEnumValueInRequestRule(),
+                    new RemovedOperationRule());
+            setSink(violation -> violations.add(violation.toString()));
+        }
+    }
+}
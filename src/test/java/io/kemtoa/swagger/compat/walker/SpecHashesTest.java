@@ -0,0 +1,71 @@
+package io.kemtoa.swagger.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.kemtoa.swagger.compat.loader.SpecLoader;
+import io.swagger.models.Swagger;
+
+public class SpecHashesTest {
+
+    @Test
+    public void testKeyOrderIndependence() throws Exception {
+        Swagger swagger = load("specs/petstore.json");
+        SpecHashes hashes = SpecHashes.of(swagger);
+
+        List<String> keys = new ArrayList<>(swagger.getPaths().keySet());
+        Collections.reverse(keys);
+        Map<String, io.swagger.models.Path> reversed = new LinkedHashMap<>();
+        for (String key : keys) {
+            reversed.put(key, swagger.getPaths().get(key));
+        }
+        swagger.setPaths(reversed);
+
+        assertEquals(hashes.getRootHash(), SpecHashes.of(swagger).getRootHash());
+    }
+
+    @Test
+    public void testChangedPaths() throws Exception {
+        SpecHashes hashes = SpecHashes.of(load("specs/petstore.json"));
+        SpecHashes changed = SpecHashes.of(load("specs/petstore-removed-operation.json"));
+
+        assertNotEquals(hashes.getRootHash(), changed.getRootHash());
+        assertNotEquals(hashes.getPathHashes().get("/pet"), changed.getPathHashes().get("/pet"));
+        assertNull(changed.getPathHashes().get("/user/createWithList"));
+        assertEquals(hashes.getPathHashes().get("/store/order"), changed.getPathHashes().get("/store/order"));
+    }
+
+    @Test
+    public void testReferencedDefinitions() throws Exception {
+        SpecHashes hashes = SpecHashes.of(load("specs/petstore.json"));
+        SpecHashes changed = SpecHashes.of(load("specs/petstore-removed-enum-value.json"));
+
+        // The enum value is removed from the User definition, referenced by the user paths only
+        assertNotEquals(hashes.getPathHashes().get("/user"), changed.getPathHashes().get("/user"));
+        assertEquals(hashes.getPathHashes().get("/pet"), changed.getPathHashes().get("/pet"));
+    }
+
+    @Test
+    public void testHashRoundTrip() throws Exception {
+        SpecHashes.Hash hash = SpecHashes.of(load("specs/petstore.json")).getRootHash();
+
+        assertEquals(32, hash.toString().length());
+        assertEquals(hash, SpecHashes.Hash.parse(hash.toString()));
+    }
+
+    private Swagger load(String resource) throws Exception {
+        Path path = Paths.get(getClass().getClassLoader().getResource(resource).toURI());
+        return SpecLoader.forName("parser").load(path);
+    }
+}